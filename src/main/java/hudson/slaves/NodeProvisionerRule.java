@@ -28,11 +28,12 @@ import hudson.model.LoadStatistics;
 import hudson.slaves.NodeProvisioner.NodeProvisionerInvoker;
 import org.jvnet.hudson.test.JenkinsRule;
 import org.jvnet.hudson.test.RealJenkinsRule;
+import org.jvnet.hudson.test.VirtualClock;
 
 /**
  * Overrides {@link LoadStatistics#CLOCK}, {@link NodeProvisionerInvoker#INITIALDELAY}, and/or {@link NodeProvisionerInvoker#RECURRENCEPERIOD} during the test.
  *
- * @deprecated use {@link RealJenkinsRule}
+ * @deprecated use {@link RealJenkinsRule}, or {@link VirtualClock} to drive provisioning without waiting
  */
 @Deprecated
 public class NodeProvisionerRule extends JenkinsRule {
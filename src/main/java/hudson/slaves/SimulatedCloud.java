@@ -0,0 +1,427 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.slaves;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import hudson.Extension;
+import hudson.model.Descriptor;
+import hudson.model.Label;
+import hudson.model.Node;
+import hudson.slaves.NodeProvisioner.PlannedNode;
+import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import jenkins.model.Jenkins;
+import jenkins.model.NodeListener;
+import jenkins.util.Timer;
+import org.jvnet.hudson.test.ComputerStateListener;
+import org.jvnet.hudson.test.LatencyHistogram;
+import org.jvnet.hudson.test.LoopbackLauncher;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+import org.kohsuke.stapler.DataBoundConstructor;
+
+/**
+ * {@link Cloud} implementation for load-testing {@link NodeProvisioner}.
+ *
+ * <p>
+ * Unlike {@link DummyCloudImpl}, no agent process is forked: agents use {@link LoopbackLauncher}, and provisioning
+ * latency is simulated with the shared {@link Timer} rather than a sleeping thread per planned node,
+ * so thousands of planned nodes can be in flight at once.
+ * Latency, failures, timeouts and capacity are configurable, and {@link #getStats} reports throughput and timings.
+ * <pre>{@code
+ * SimulatedCloud cloud = new SimulatedCloud("sim")
+ *         .withLabels("sim")
+ *         .withLatency(SimulatedCloud.logNormal(Duration.ofMillis(200), 0.5))
+ *         .withFailureRate(0.05)
+ *         .withCapacity(50);
+ * j.jenkins.clouds.add(cloud);
+ * }</pre>
+ * Configuration is not persisted: a cloud which is reloaded or reconfigured through the UI starts over with defaults.
+ */
+public class SimulatedCloud extends Cloud {
+
+    /**
+     * A distribution of provisioning delays.
+     */
+    @FunctionalInterface
+    public interface Latency {
+        Duration next(Random random);
+    }
+
+    /**
+     * Always the same delay.
+     */
+    public static Latency fixed(@NonNull Duration delay) {
+        return random -> delay;
+    }
+
+    /**
+     * A delay uniformly distributed between two bounds.
+     */
+    public static Latency uniform(@NonNull Duration min, @NonNull Duration max) {
+        if (max.compareTo(min) < 0) {
+            throw new IllegalArgumentException(max + " < " + min);
+        }
+        long range = max.minus(min).toNanos();
+        return random -> min.plusNanos(range == 0 ? 0 : (long) (random.nextDouble() * range));
+    }
+
+    /**
+     * A log-normally distributed delay, the usual shape of real provisioning times: most requests are close to the
+     * median, with a long tail of slow ones.
+     * @param median the median delay
+     * @param sigma standard deviation of the underlying normal distribution; 0.5 is a moderate tail
+     */
+    public static Latency logNormal(@NonNull Duration median, double sigma) {
+        return random -> Duration.ofNanos((long) (median.toNanos() * Math.exp(sigma * random.nextGaussian())));
+    }
+
+    private transient Latency latency = fixed(Duration.ZERO);
+    private transient double failureRate;
+    private transient double timeoutRate;
+    private transient Duration timeout = Duration.ofMinutes(1);
+    private transient int capacity = Integer.MAX_VALUE;
+
+    @CheckForNull
+    private transient String labels;
+
+    private transient Random random = new Random();
+    private final transient Stats stats = new Stats();
+    private final transient AtomicInteger serial = new AtomicInteger();
+    private final transient AtomicInteger inFlight = new AtomicInteger();
+    /**
+     * Names of provisioned nodes counted against the capacity, mapped to whether they have been added to Jenkins.
+     * Entries are removed when a node is deleted ({@link CapacityListener})
+     * or could not be added ({@link RollbackListener}).
+     */
+    private final transient Map<String, Boolean> nodes = new ConcurrentHashMap<>();
+
+    @DataBoundConstructor
+    public SimulatedCloud(String name) {
+        super(name);
+    }
+
+    private Object readResolve() {
+        return new SimulatedCloud(name);
+    }
+
+    public SimulatedCloud withLatency(@NonNull Latency latency) {
+        this.latency = latency;
+        return this;
+    }
+
+    /**
+     * Makes a fraction of provisioning attempts fail with an {@link IOException} after the usual latency.
+     */
+    public SimulatedCloud withFailureRate(double failureRate) {
+        this.failureRate = failureRate;
+        return this;
+    }
+
+    /**
+     * Makes a fraction of provisioning attempts fail with a {@link TimeoutException} after the given timeout.
+     */
+    public SimulatedCloud withTimeouts(double timeoutRate, @NonNull Duration timeout) {
+        this.timeoutRate = timeoutRate;
+        this.timeout = timeout;
+        return this;
+    }
+
+    /**
+     * Limits the number of nodes either being provisioned or still present in Jenkins.
+     */
+    public SimulatedCloud withCapacity(int capacity) {
+        this.capacity = capacity;
+        return this;
+    }
+
+    /**
+     * Sets the labels of provisioned agents.
+     * Only those labels are then provisioned; by default only unlabeled workloads are.
+     */
+    public SimulatedCloud withLabels(@CheckForNull String labels) {
+        this.labels = labels;
+        return this;
+    }
+
+    /**
+     * Makes latency, failures and timeouts reproducible.
+     */
+    public SimulatedCloud withSeed(long seed) {
+        this.random = new Random(seed);
+        return this;
+    }
+
+    @NonNull
+    public Stats getStats() {
+        return stats;
+    }
+
+    @Override
+    public boolean canProvision(Label label) {
+        return label == null ? labels == null : label.matches(Label.parse(labels));
+    }
+
+    @Override
+    public Collection<PlannedNode> provision(Label label, int excessWorkload) {
+        List<PlannedNode> r = new ArrayList<>();
+        if (!canProvision(label)) {
+            return r;
+        }
+        prune();
+        while (excessWorkload > 0 && reserve()) {
+            String nodeName = name + "-" + serial.incrementAndGet();
+            r.add(new PlannedNode(nodeName, launch(nodeName), 1));
+            excessWorkload -= 1;
+        }
+        return r;
+    }
+
+    /**
+     * Forgets added nodes which are gone without {@link NodeListener} being told, as with {@link Jenkins#setNodes}.
+     */
+    private void prune() {
+        Jenkins j = Jenkins.get();
+        nodes.entrySet().removeIf(e -> e.getValue() && j.getNode(e.getKey()) == null);
+    }
+
+    private boolean reserve() {
+        while (true) {
+            int current = inFlight.get();
+            if (current + nodes.size() >= capacity) {
+                stats.capped.increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private CompletableFuture<Node> launch(String nodeName) {
+        CompletableFuture<Node> f = new CompletableFuture<>();
+        long start = System.nanoTime();
+        stats.requested(start);
+        double roll;
+        Duration delay;
+        synchronized (this) {
+            roll = random.nextDouble();
+            delay = latency.next(random);
+        }
+        if (roll < timeoutRate) {
+            Timer.get()
+                    .schedule(
+                            () -> {
+                                inFlight.decrementAndGet();
+                                stats.timedOut.increment();
+                                f.completeExceptionally(
+                                        new TimeoutException("Simulated timeout provisioning " + nodeName));
+                            },
+                            timeout.toNanos(),
+                            TimeUnit.NANOSECONDS);
+        } else {
+            boolean fail = roll < timeoutRate + failureRate;
+            Timer.get().schedule(() -> complete(f, nodeName, start, fail), delay.toNanos(), TimeUnit.NANOSECONDS);
+        }
+        return f;
+    }
+
+    private void complete(CompletableFuture<Node> f, String nodeName, long start, boolean fail) {
+        try {
+            if (fail) {
+                throw new IOException("Simulated failure provisioning " + nodeName);
+            }
+            DumbSlave agent = createAgent(nodeName);
+            nodes.put(nodeName, false);
+            stats.provisioned.increment();
+            stats.provisioningTime.recordSince(start);
+            ComputerStateListener.whenOnline(nodeName).thenRun(() -> stats.timeToOnline.recordSince(start));
+            if (!f.complete(agent)) {
+                // cancelled by NodeProvisioner, so never going to be added
+                nodes.remove(nodeName);
+            }
+        } catch (IOException | Descriptor.FormException | RuntimeException x) {
+            stats.failed.increment();
+            f.completeExceptionally(x);
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    /**
+     * Creates the agent for a successful provisioning attempt.
+     * {@link NodeProvisioner} adds it to Jenkins.
+     */
+    @SuppressFBWarnings(value = "PATH_TRAVERSAL_IN", justification = "just for test code")
+    protected DumbSlave createAgent(String nodeName) throws IOException, Descriptor.FormException {
+        DumbSlave agent = new DumbSlave(
+                nodeName,
+                new File(Jenkins.get().getRootDir(), "agent-work-dirs/" + nodeName).getAbsolutePath(),
+                new LoopbackLauncher());
+        agent.setLabelString(labels == null ? "" : labels);
+        return agent;
+    }
+
+    /**
+     * Keeps track of which provisioned nodes still count against the capacity of their cloud.
+     */
+    @Restricted(NoExternalUse.class)
+    @Extension
+    public static final class CapacityListener extends NodeListener {
+        @Override
+        protected void onCreated(@NonNull Node node) {
+            for (SimulatedCloud cloud : Jenkins.get().clouds.getAll(SimulatedCloud.class)) {
+                cloud.nodes.replace(node.getNodeName(), true);
+            }
+        }
+
+        @Override
+        protected void onDeleted(@NonNull Node node) {
+            release(node);
+        }
+
+        private static void release(Node node) {
+            for (SimulatedCloud cloud : Jenkins.get().clouds.getAll(SimulatedCloud.class)) {
+                cloud.nodes.remove(node.getNodeName());
+            }
+        }
+    }
+
+    /**
+     * Releases the capacity of a provisioned node which {@link NodeProvisioner} failed to add.
+     */
+    @Restricted(NoExternalUse.class)
+    @Extension
+    public static final class RollbackListener extends CloudProvisioningListener {
+        @Override
+        public void onRollback(@NonNull PlannedNode plannedNode, @NonNull Node node, @NonNull Throwable t) {
+            CapacityListener.release(node);
+        }
+    }
+
+    @Extension
+    public static final class DescriptorImpl extends Descriptor<Cloud> {
+        @NonNull
+        @Override
+        public String getDisplayName() {
+            return "Simulated cloud";
+        }
+    }
+
+    /**
+     * Thread-safe statistics of a {@link SimulatedCloud}.
+     */
+    public static final class Stats {
+        private final AtomicLong firstRequest = new AtomicLong();
+        private final LongAdder requested = new LongAdder();
+        private final LongAdder provisioned = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final LongAdder timedOut = new LongAdder();
+        private final LongAdder capped = new LongAdder();
+        private final LatencyHistogram provisioningTime = new LatencyHistogram();
+        private final LatencyHistogram timeToOnline = new LatencyHistogram();
+
+        private void requested(long now) {
+            firstRequest.compareAndSet(0, now);
+            requested.increment();
+        }
+
+        /**
+         * Number of planned nodes handed to {@link NodeProvisioner}.
+         */
+        public long getRequested() {
+            return requested.sum();
+        }
+
+        public long getProvisioned() {
+            return provisioned.sum();
+        }
+
+        /**
+         * Number of injected or unexpected failures, excluding timeouts.
+         */
+        public long getFailed() {
+            return failed.sum();
+        }
+
+        public long getTimedOut() {
+            return timedOut.sum();
+        }
+
+        /**
+         * Number of times a provisioning request was cut short by {@link #withCapacity}.
+         */
+        public long getCapped() {
+            return capped.sum();
+        }
+
+        /**
+         * Time from the provisioning request until the node was handed back to {@link NodeProvisioner}.
+         */
+        public LatencyHistogram getProvisioningTime() {
+            return provisioningTime;
+        }
+
+        /**
+         * Time from the provisioning request until the agent came online.
+         */
+        public LatencyHistogram getTimeToOnline() {
+            return timeToOnline;
+        }
+
+        /**
+         * Successfully provisioned nodes per second since the first request.
+         */
+        public double getThroughput() {
+            long start = firstRequest.get();
+            if (start == 0) {
+                return 0;
+            }
+            return getProvisioned() * 1e9 / Math.max(1, System.nanoTime() - start);
+        }
+
+        @Override
+        public String toString() {
+            return "requested=" + getRequested() + " provisioned=" + getProvisioned() + " failed=" + getFailed()
+                    + " timedOut=" + getTimedOut() + " capped=" + getCapped()
+                    + String.format(" throughput=%.1f/s", getThroughput()) + "\nprovisioning time: "
+                    + provisioningTime + "\ntime to online: " + timeToOnline;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package jenkins.benchmark.jmh;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import hudson.model.Computer;
+import hudson.remoting.VirtualChannel;
+import hudson.slaves.DumbSlave;
+import hudson.slaves.JNLPLauncher;
+import hudson.slaves.RetentionStrategy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.jvnet.hudson.test.ComputerStateListener;
+import org.jvnet.hudson.test.fixtures.InboundAgentFixture;
+import org.openjdk.jmh.annotations.Param;
+
+/**
+ * A {@link JmhBenchmarkState} which also connects inbound agents, each in its own JVM, over a chosen transport.
+ * Benchmarks using this state are run once for each {@link Transport} unless {@link #transport} is overridden,
+ * for example with {@code -p transport=WEB_SOCKET}.
+ * <p>
+ * Subclasses overriding {@link #setup} or {@link #tearDown} must call the {@code super} implementation.
+ */
+@SuppressWarnings("rawtypes")
+public abstract class InboundAgentBenchmarkState extends JmhBenchmarkState {
+
+    /**
+     * How agents connect to the controller.
+     * A {@code -tunnel} is not offered: it only overrides the host and port of the TCP transport,
+     * so without a proxy in between it performs just like {@link #TCP}.
+     */
+    public enum Transport {
+        /** The dedicated TCP port, using the {@code JNLP4-connect} protocol. */
+        TCP,
+        /** A WebSocket over the HTTP port. */
+        WEB_SOCKET
+    }
+
+    @Param({"TCP", "WEB_SOCKET"})
+    public Transport transport;
+
+    private final InboundAgentFixture fixture = new InboundAgentFixture();
+    private final List<DumbSlave> agentNodes = new ArrayList<>();
+
+    @Override
+    @SuppressFBWarnings(value = "PATH_TRAVERSAL_IN", justification = "just for test code")
+    public void setup() throws Exception {
+        for (int i = 0; i < getAgentCount(); i++) {
+            String name = "agent" + i;
+            String workDir = Files.createTempDirectory(Path.of(System.getProperty("java.io.tmpdir")), name + "-work")
+                    .toString();
+            // deleted by the fixture on tear down
+            fixture.getWorkDirs().add(workDir);
+            DumbSlave s = new DumbSlave(name, workDir, new JNLPLauncher(null));
+            s.setRetentionStrategy(RetentionStrategy.NOOP);
+            getJenkins().addNode(s);
+            agentNodes.add(s);
+        }
+        // start all agent JVMs before waiting for any of them
+        List<CompletableFuture<Computer>> online = new ArrayList<>();
+        for (DumbSlave s : agentNodes) {
+            String name = s.getNodeName();
+            online.add(ComputerStateListener.whenOnline(name));
+            fixture.start(
+                    InboundAgentFixture.getAgentArguments(getJenkins(), name),
+                    InboundAgentFixture.Options.newBuilder()
+                            .name(name)
+                            .webSocket(transport == Transport.WEB_SOCKET)
+                            .build());
+        }
+        CompletableFuture.allOf(online.toArray(CompletableFuture[]::new)).get(2, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Number of agents to connect; one by default.
+     */
+    protected int getAgentCount() {
+        return 1;
+    }
+
+    @Override
+    public void tearDown() {
+        fixture.tearDown();
+    }
+
+    /**
+     * The connected agents.
+     */
+    @NonNull
+    public List<DumbSlave> getAgents() {
+        return Collections.unmodifiableList(agentNodes);
+    }
+
+    /**
+     * The channel to one of the agents.
+     */
+    @NonNull
+    public VirtualChannel getChannel(int index) {
+        return Objects.requireNonNull(agentNodes.get(index).getChannel(), "agent disconnected");
+    }
+}
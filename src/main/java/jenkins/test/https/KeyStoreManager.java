@@ -69,6 +69,13 @@ public final class KeyStoreManager {
     @NonNull
     private final String type;
 
+    /** Client context built from the keystore file as last read, reused so that TLS sessions can be resumed. */
+    @CheckForNull
+    private SSLContext clientSSLContext;
+
+    @CheckForNull
+    private List<Object> clientSSLContextStamp;
+
     /**
      * Creates a new instance using the default keystore type.
      * @param path path of the keystore file. If it exists, it will be loaded automatically.
@@ -111,6 +118,23 @@ public final class KeyStoreManager {
         this.keyStore = tmpKeyStore;
     }
 
+    /**
+     * The trust manager for the JVM's default trust store, which is parsed only once.
+     */
+    private static final class DefaultTrustManagerHolder {
+        static final X509TrustManager INSTANCE;
+
+        static {
+            try {
+                var trustManagerFactory = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+                trustManagerFactory.init((KeyStore) null);
+                INSTANCE = getDefaultX509CertificateTrustManager(trustManagerFactory);
+            } catch (NoSuchAlgorithmException | KeyStoreException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+    }
+
     @NonNull
     private static X509TrustManager getDefaultX509CertificateTrustManager(TrustManagerFactory trustManagerFactory) {
         return Arrays.stream(trustManagerFactory.getTrustManagers())
@@ -154,17 +178,34 @@ public final class KeyStoreManager {
     /**
      * Persists the current keystore to disk.
      */
-    public void save() throws IOException, KeyStoreException, NoSuchAlgorithmException, CertificateException {
+    public synchronized void save()
+            throws IOException, KeyStoreException, NoSuchAlgorithmException, CertificateException {
         try (var os = Files.newOutputStream(path)) {
             keyStore.store(os, password);
         }
+        clientSSLContext = null;
     }
 
     /**
      * Build a custom SSL context that trusts the default certificates as well as those in the current keystore.
+     * <p>
+     * The context is reused until the keystore file changes, so that connections made with it can resume
+     * TLS sessions rather than performing a full handshake each time.
      */
     @NonNull
-    public SSLContext buildClientSSLContext()
+    public synchronized SSLContext buildClientSSLContext()
+            throws NoSuchAlgorithmException, KeyStoreException, IOException, CertificateException,
+                    KeyManagementException {
+        List<Object> stamp = List.of(Files.getLastModifiedTime(path), Files.size(path));
+        if (clientSSLContext == null || !stamp.equals(clientSSLContextStamp)) {
+            clientSSLContext = createClientSSLContext();
+            clientSSLContextStamp = stamp;
+        }
+        return clientSSLContext;
+    }
+
+    @NonNull
+    private SSLContext createClientSSLContext()
             throws NoSuchAlgorithmException, KeyStoreException, IOException, CertificateException,
                     KeyManagementException {
         X509TrustManager result;
@@ -175,9 +216,7 @@ public final class KeyStoreManager {
             trustManagerFactory.init(myTrustStore);
             result = getDefaultX509CertificateTrustManager(trustManagerFactory);
         }
-        var trustManagerFactory = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
-        trustManagerFactory.init((KeyStore) null);
-        var wrapper = new MergedTrustManager(getDefaultX509CertificateTrustManager(trustManagerFactory), result);
+        var wrapper = new MergedTrustManager(DefaultTrustManagerHolder.INSTANCE, result);
         var context = SSLContext.getInstance("TLS");
         context.init(null, new TrustManager[] {wrapper}, null);
         return context;
@@ -218,14 +257,15 @@ public final class KeyStoreManager {
     /**
      * @see KeyStore#setCertificateEntry(String, Certificate)
      */
-    public void setCertificateEntry(String alias, X509Certificate certificate) throws KeyStoreException {
+    public synchronized void setCertificateEntry(String alias, X509Certificate certificate) throws KeyStoreException {
         keyStore.setCertificateEntry(alias, certificate);
     }
 
     /**
      * @see KeyStore#setKeyEntry(String, byte[], Certificate[])
      */
-    public void setKeyEntry(String host, PrivateKey privateKey, Certificate[] certificates) throws KeyStoreException {
+    public synchronized void setKeyEntry(String host, PrivateKey privateKey, Certificate[] certificates)
+            throws KeyStoreException {
         keyStore.setKeyEntry(host, privateKey, password, certificates);
     }
 
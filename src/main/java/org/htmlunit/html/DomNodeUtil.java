@@ -23,9 +23,13 @@
  */
 package org.htmlunit.html;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import javax.xml.transform.TransformerException;
 import org.htmlunit.WebClient;
 import org.htmlunit.WebClientUtil;
+import org.htmlunit.html.xpath.XPathAdapter;
 import org.htmlunit.html.xpath.XPathHelper;
 
 /**
@@ -35,6 +39,19 @@ import org.htmlunit.html.xpath.XPathHelper;
  */
 public class DomNodeUtil {
 
+    private static final int MAX_COMPILED_XPATHS = Integer.getInteger("jth.xpath.cacheSize", 512);
+
+    /**
+     * Compiled expressions keyed by case sensitivity and source, in access order.
+     * Compiled expressions hold no evaluation state, so they may be shared by all pages and threads.
+     */
+    private static final Map<String, XPathAdapter> COMPILED_XPATHS = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, XPathAdapter> eldest) {
+            return size() > MAX_COMPILED_XPATHS;
+        }
+    };
+
     /**
      * Evaluates an XPath expression from the specified node, returning the resultant nodes.
      * <p>
@@ -47,7 +64,7 @@ public class DomNodeUtil {
      */
     public static <E> List<E> selectNodes(final DomNode domNode, final String xpathExpr) {
         WebClientUtil.waitForJSExec(domNode.getPage().getWebClient());
-        return XPathHelper.getByXPath(domNode, xpathExpr, null);
+        return getByXPath(domNode, xpathExpr);
     }
 
     /**
@@ -63,6 +80,55 @@ public class DomNodeUtil {
      */
     public static <X> X selectSingleNode(final DomNode domNode, final String xpathExpr) {
         WebClientUtil.waitForJSExec(domNode.getPage().getWebClient());
-        return domNode.getFirstByXPath(xpathExpr);
+        return getFirstByXPath(domNode, xpathExpr);
+    }
+
+    /**
+     * Like {@link DomNode#getByXPath(String)}, but compiles each distinct expression only once per JVM.
+     * Does not wait for JavaScript.
+     *
+     * @param domNode the node to start searching from
+     * @param xpathExpr the XPath expression
+     * @return the list of objects found.
+     */
+    public static <E> List<E> getByXPath(final DomNode domNode, final String xpathExpr) {
+        try {
+            return XPathHelper.getByXPath(domNode, compile(domNode, xpathExpr), null);
+        } catch (TransformerException e) {
+            throw new RuntimeException("Could not retrieve XPath >" + xpathExpr + "< on " + domNode, e);
+        }
+    }
+
+    /**
+     * Like {@link DomNode#getFirstByXPath(String)}, but compiles each distinct expression only once per JVM.
+     * Does not wait for JavaScript.
+     *
+     * @param domNode the node to start searching from
+     * @param xpathExpr the XPath expression
+     * @return the first element matching the specified XPath expression, or {@code null}
+     */
+    public static <X> X getFirstByXPath(final DomNode domNode, final String xpathExpr) {
+        List<X> results = getByXPath(domNode, xpathExpr);
+        return results.isEmpty() ? null : results.get(0);
+    }
+
+    private static XPathAdapter compile(final DomNode domNode, final String xpathExpr) throws TransformerException {
+        if (xpathExpr == null) {
+            throw new IllegalArgumentException("Null is not a valid XPath expression");
+        }
+        boolean caseSensitive = domNode.getPage().hasCaseSensitiveTagNames();
+        String key = (caseSensitive ? 'S' : 'I') + xpathExpr;
+        synchronized (COMPILED_XPATHS) {
+            XPathAdapter xpath = COMPILED_XPATHS.get(key);
+            if (xpath != null) {
+                return xpath;
+            }
+        }
+        // compile outside the lock; a concurrent duplicate compilation is harmless
+        XPathAdapter xpath = new XPathAdapter(xpathExpr, null, caseSensitive);
+        synchronized (COMPILED_XPATHS) {
+            COMPILED_XPATHS.putIfAbsent(key, xpath);
+        }
+        return xpath;
     }
 }
@@ -0,0 +1,234 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.jvnet.hudson.test;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Extension;
+import hudson.ExtensionList;
+import hudson.FilePath;
+import hudson.model.Computer;
+import hudson.model.Node;
+import hudson.model.TaskListener;
+import hudson.remoting.Channel;
+import hudson.remoting.Command;
+import hudson.remoting.Request;
+import hudson.remoting.Response;
+import hudson.slaves.ComputerListener;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Remoting traffic between the controller and one agent, as seen from the controller.
+ * Recorded for every agent connected to a {@link JenkinsRule}, across reconnections.
+ * <p>
+ * A round trip is either a request sent by the controller, such as a {@link hudson.remoting.Callable} or
+ * {@link hudson.FilePath} operation, or a request received from the agent, most often to load classes or resources
+ * from the controller.
+ * Calls of a {@link hudson.remoting.Callable} are counted per callable class, as described by the request;
+ * a callable which overrides {@link Object#toString} is counted under {@code hudson.remoting.UserRequest}.
+ * Other round trips are counted per {@link Request} class, such as {@code hudson.remoting.RPCRequest} for a call
+ * through a remote proxy.
+ * Latencies are only known for controller requests.
+ * Requests from the agent to load classes, resources or jars from the controller are also counted on their own.
+ * @see JenkinsRule#channelStatistics
+ * @see JenkinsRule#assertMaxRemoteCalls
+ */
+public final class ChannelStatistics implements Channel.Listener {
+
+    /** A {@code UserRequest} describes itself by its callable, by default {@code class@hash}. */
+    private static final Pattern USER_REQUEST = Pattern.compile("UserRequest:([\\w$.]+)@\\p{XDigit}+");
+
+    /** An {@code RPCRequest} describes itself by object ID and method name. */
+    private static final Pattern RPC_REQUEST = Pattern.compile("RPCRequest\\(-?\\d+,(\\w+)\\)");
+
+    private final LongAdder bytesSent = new LongAdder();
+    private final LongAdder bytesReceived = new LongAdder();
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder agentRequests = new LongAdder();
+    private final LongAdder classLoadingRequests = new LongAdder();
+    private final Map<String, LongAdder> callCounts = new ConcurrentHashMap<>();
+    private final Map<String, LatencyHistogram> callLatencies = new ConcurrentHashMap<>();
+
+    /**
+     * Statistics for an agent, which need not be connected yet.
+     */
+    @NonNull
+    public static ChannelStatistics of(@NonNull Node agent) {
+        return of(agent.getNodeName());
+    }
+
+    @NonNull
+    public static ChannelStatistics of(@NonNull String agentName) {
+        return ExtensionList.lookupSingleton(Installer.class)
+                .statistics
+                .computeIfAbsent(agentName, k -> new ChannelStatistics());
+    }
+
+    @Override
+    public void onWrite(Channel channel, Command cmd, long blockSize) {
+        bytesSent.add(blockSize);
+    }
+
+    @Override
+    public void onRead(Channel channel, Command cmd, long blockSize) {
+        bytesReceived.add(blockSize);
+        if (cmd instanceof Request<?, ?> req) {
+            count(kind(req));
+            agentRequests.increment();
+            if (isClassLoading(req)) {
+                classLoadingRequests.increment();
+            }
+        }
+    }
+
+    @Override
+    public void onResponse(Channel channel, Request<?, ?> req, Response<?, ?> rsp, long totalTime) {
+        String kind = kind(req);
+        count(kind);
+        callLatencies.computeIfAbsent(kind, k -> new LatencyHistogram()).record(totalTime);
+    }
+
+    private static String kind(Request<?, ?> req) {
+        Matcher m = USER_REQUEST.matcher(req.toString());
+        return m.matches() ? m.group(1) : req.getClass().getName();
+    }
+
+    /**
+     * Whether this is a call to the remote class loader ({@code IClassLoader}),
+     * whose methods are all {@code fetch…} or {@code getResource…}.
+     */
+    private static boolean isClassLoading(Request<?, ?> req) {
+        Matcher m = RPC_REQUEST.matcher(req.toString());
+        return m.matches() && (m.group(1).startsWith("fetch") || m.group(1).startsWith("getResource"));
+    }
+
+    private void count(String kind) {
+        calls.increment();
+        callCounts.computeIfAbsent(kind, k -> new LongAdder()).increment();
+    }
+
+    public long getBytesSent() {
+        return bytesSent.sum();
+    }
+
+    public long getBytesReceived() {
+        return bytesReceived.sum();
+    }
+
+    /**
+     * Number of round trips in either direction.
+     */
+    public long getCalls() {
+        return calls.sum();
+    }
+
+    /**
+     * Number of requests received from the agent, which are mostly to load classes or resources.
+     */
+    public long getAgentRequests() {
+        return agentRequests.sum();
+    }
+
+    /**
+     * Number of requests received from the agent to load classes, resources or jars.
+     * Included in {@link #getAgentRequests}.
+     */
+    public long getClassLoadingRequests() {
+        return classLoadingRequests.sum();
+    }
+
+    /**
+     * Round trips by callable or request class name, sorted.
+     */
+    @NonNull
+    public Map<String, Long> getCallCounts() {
+        Map<String, Long> r = new TreeMap<>();
+        callCounts.forEach((k, v) -> r.put(k, v.sum()));
+        return r;
+    }
+
+    /**
+     * Latency of controller requests by callable or request class name, sorted.
+     */
+    @NonNull
+    public Map<String, LatencyHistogram> getCallLatencies() {
+        return new TreeMap<>(callLatencies);
+    }
+
+    /**
+     * Clears all statistics.
+     * Not atomic with respect to traffic on the channel.
+     */
+    public void reset() {
+        bytesSent.reset();
+        bytesReceived.reset();
+        calls.reset();
+        agentRequests.reset();
+        classLoadingRequests.reset();
+        callCounts.clear();
+        callLatencies.clear();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder b = new StringBuilder();
+        b.append("sent=")
+                .append(getBytesSent())
+                .append("B received=")
+                .append(getBytesReceived())
+                .append("B calls=")
+                .append(getCalls())
+                .append(" fromAgent=")
+                .append(getAgentRequests())
+                .append(" classLoading=")
+                .append(getClassLoadingRequests());
+        Map<String, LatencyHistogram> latencies = getCallLatencies();
+        getCallCounts().forEach((kind, count) -> {
+            b.append("\n  ").append(kind).append(" ×").append(count);
+            LatencyHistogram latency = latencies.get(kind);
+            if (latency != null) {
+                b.append(": ").append(latency);
+            }
+        });
+        return b.toString();
+    }
+
+    /**
+     * Attaches statistics to each agent channel as it connects.
+     */
+    @Extension
+    public static final class Installer extends ComputerListener {
+        private final Map<String, ChannelStatistics> statistics = new ConcurrentHashMap<>();
+
+        @Override
+        public void preOnline(Computer c, Channel channel, FilePath root, TaskListener listener) {
+            channel.addListener(of(c.getName()));
+        }
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.jvnet.hudson.test;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Extension;
+import hudson.ExtensionList;
+import hudson.model.Computer;
+import hudson.model.TaskListener;
+import hudson.slaves.ComputerListener;
+import hudson.slaves.OfflineCause;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Predicate;
+import jenkins.model.Jenkins;
+
+/**
+ * Lets test code wait for agent state changes without polling.
+ * Each method registers interest in an event for a node name and then checks whether the computer is already in the
+ * requested state, so a future obtained before or after the event (even before the node is added) completes either way.
+ * The futures never complete exceptionally; use {@link CompletableFuture#get(long, java.util.concurrent.TimeUnit)} to
+ * bound the wait.
+ */
+@Extension
+public final class ComputerStateListener extends ComputerListener {
+
+    private enum Event {
+        ONLINE,
+        OFFLINE,
+        LAUNCH_FAILURE
+    }
+
+    private record Pending(Event event, CompletableFuture<Computer> future) {}
+
+    private final Map<String, List<Pending>> pending = new HashMap<>();
+
+    /**
+     * Completes once the named computer is online.
+     */
+    public static CompletableFuture<Computer> whenOnline(@NonNull String name) {
+        return get().await(name, Event.ONLINE, c -> c != null && c.isOnline());
+    }
+
+    /**
+     * Completes once the named computer is no longer online (disconnected, temporarily offline, or removed).
+     * The value is null if the computer has been removed.
+     */
+    public static CompletableFuture<Computer> whenOffline(@NonNull String name) {
+        return get().await(name, Event.OFFLINE, c -> c == null || !c.isOnline());
+    }
+
+    /**
+     * Completes once a launch attempt of the named computer has ended without a channel.
+     * For inbound agents this is what {@code SlaveComputer} reports as soon as its asynchronous launch returns,
+     * before the agent process has connected.
+     */
+    public static CompletableFuture<Computer> whenLaunchFailed(@NonNull String name) {
+        return get().await(name, Event.LAUNCH_FAILURE, c -> c != null && c.getOfflineCause() != null);
+    }
+
+    private static ComputerStateListener get() {
+        return ExtensionList.lookupSingleton(ComputerStateListener.class);
+    }
+
+    private CompletableFuture<Computer> await(String name, Event event, Predicate<Computer> satisfied) {
+        Pending p = new Pending(event, new CompletableFuture<>());
+        synchronized (pending) {
+            pending.computeIfAbsent(name, k -> new ArrayList<>()).add(p);
+        }
+        p.future.whenComplete((c, t) -> {
+            synchronized (pending) {
+                List<Pending> forName = pending.get(name);
+                if (forName != null && forName.remove(p) && forName.isEmpty()) {
+                    pending.remove(name);
+                }
+            }
+        });
+        Computer c = Jenkins.get().getComputer(name);
+        if (satisfied.test(c)) {
+            p.future.complete(c);
+        }
+        return p.future;
+    }
+
+    private void fire(@NonNull Computer c, Event event) {
+        List<Pending> toComplete = new ArrayList<>();
+        synchronized (pending) {
+            List<Pending> forName = pending.get(c.getName());
+            if (forName != null) {
+                for (Pending p : forName) {
+                    if (p.event == event) {
+                        toComplete.add(p);
+                    }
+                }
+            }
+        }
+        toComplete.forEach(p -> p.future.complete(c));
+    }
+
+    @Override
+    public void onOnline(Computer c, TaskListener listener) {
+        fire(c, Event.ONLINE);
+    }
+
+    @Override
+    public void onOffline(@NonNull Computer c, @CheckForNull OfflineCause cause) {
+        fire(c, Event.OFFLINE);
+    }
+
+    @Override
+    public void onTemporarilyOffline(Computer c, OfflineCause cause) {
+        fire(c, Event.OFFLINE);
+    }
+
+    @Override
+    public void onLaunchFailure(Computer c, TaskListener taskListener) {
+        fire(c, Event.LAUNCH_FAILURE);
+    }
+}
@@ -0,0 +1,299 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.jvnet.hudson.test;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Util;
+import hudson.model.Computer;
+import hudson.model.Item;
+import hudson.model.Node;
+import hudson.model.User;
+import hudson.model.View;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import java.net.URL;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import jenkins.model.Jenkins;
+import org.htmlunit.HttpMethod;
+import org.htmlunit.WebRequest;
+import org.htmlunit.html.HtmlPage;
+
+/**
+ * Performs {@linkplain JenkinsRule#configRoundtrip(Item) configuration round-trips} of many objects concurrently,
+ * for example of every job in a {@link org.jvnet.hudson.test.recipes.LocalData} home in a migration test.
+ * Each worker thread has its own {@link JenkinsRule.WebClient}; failures are collected rather than thrown,
+ * so one broken job does not hide the others.
+ * Usage: <pre>{@code
+ * j.configRoundtrips()
+ *         .items(j.jenkins.getAllItems(Job.class))
+ *         .views(j.jenkins.getViews())
+ *         .threads(8)
+ *         .run()
+ *         .assertSuccess();
+ * }</pre>
+ * @see JenkinsRule#configRoundtrips
+ */
+public final class ConfigRoundtripBatch {
+
+    /**
+     * @param name a description of the object
+     * @param configure the relative URL of its configuration page
+     * @param form the name of the form on that page
+     * @param configXml the relative URL of its {@code config.xml}, if it has one
+     */
+    private record Target(String name, String configure, String form, @CheckForNull String configXml) {}
+
+    private final JenkinsRule j;
+    private final List<Target> targets = new ArrayList<>();
+    private int threads = Math.min(Runtime.getRuntime().availableProcessors(), 8);
+    private boolean viaConfigXml;
+
+    ConfigRoundtripBatch(JenkinsRule j) {
+        this.j = j;
+    }
+
+    public ConfigRoundtripBatch items(@NonNull Collection<? extends Item> items) {
+        for (Item item : items) {
+            String url = item.getUrl();
+            targets.add(new Target(item.getFullName(), url + "configure", "config", url + "config.xml"));
+        }
+        return this;
+    }
+
+    public ConfigRoundtripBatch nodes(@NonNull Collection<? extends Node> nodes) {
+        for (Node node : nodes) {
+            if (node instanceof Jenkins) {
+                // the built-in node has no config.xml of its own
+                targets.add(new Target("(built-in)", "computer/(built-in)/configure", "config", null));
+                continue;
+            }
+            // a node without executors has no computer, but the same URL
+            Computer c = node.toComputer();
+            String url = c != null ? c.getUrl() : "computer/" + Util.fullEncode(node.getNodeName()) + "/";
+            targets.add(new Target(node.getNodeName(), url + "configure", "config", url + "config.xml"));
+        }
+        return this;
+    }
+
+    public ConfigRoundtripBatch views(@NonNull Collection<? extends View> views) {
+        for (View view : views) {
+            targets.add(new Target(
+                    view.getViewName(), view.getUrl() + "configure", "viewConfig", view.getUrl() + "config.xml"));
+        }
+        return this;
+    }
+
+    public ConfigRoundtripBatch users(@NonNull Collection<? extends User> users) {
+        for (User user : users) {
+            targets.add(new Target(user.getId(), user.getUrl() + "/configure", "config", null));
+        }
+        return this;
+    }
+
+    /**
+     * Number of concurrent web clients; defaults to the number of processors, at most 8.
+     */
+    public ConfigRoundtripBatch threads(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be positive");
+        }
+        this.threads = threads;
+        return this;
+    }
+
+    /**
+     * Round-trips {@code config.xml} by a GET and a POST instead of loading and submitting the configuration form,
+     * for objects which support it; others still go through the form.
+     * This needs neither HTML parsing nor JavaScript, so it is much faster,
+     * but it exercises XStream persistence rather than {@code config.jelly} and form binding.
+     */
+    public ConfigRoundtripBatch viaConfigXml() {
+        viaConfigXml = true;
+        return this;
+    }
+
+    /**
+     * Round-trips all objects and waits for them to finish.
+     */
+    public Result run() throws Exception {
+        int n = Math.max(1, Math.min(threads, targets.size()));
+        BlockingQueue<JenkinsRule.WebClient> clients = new ArrayBlockingQueue<>(n);
+        for (int i = 0; i < n; i++) {
+            JenkinsRule.WebClient wc = j.createWebClient();
+            // styles play no part in form binding
+            wc.getOptions().setCssEnabled(false);
+            clients.add(wc);
+        }
+        List<Callable<Roundtrip>> tasks = new ArrayList<>();
+        for (Target target : targets) {
+            tasks.add(() -> {
+                JenkinsRule.WebClient wc = clients.take();
+                long start = System.nanoTime();
+                try {
+                    roundtrip(wc, target);
+                    return new Roundtrip(target.name(), Duration.ofNanos(System.nanoTime() - start), null);
+                } catch (Exception | AssertionError x) {
+                    return new Roundtrip(target.name(), Duration.ofNanos(System.nanoTime() - start), x);
+                } finally {
+                    clients.add(wc);
+                }
+            });
+        }
+        long start = System.nanoTime();
+        List<Roundtrip> roundtrips = new ArrayList<>();
+        ExecutorService executor =
+                Executors.newFixedThreadPool(n, new NamingThreadFactory(new DaemonThreadFactory(), "configRoundtrip"));
+        try {
+            for (Future<Roundtrip> f : executor.invokeAll(tasks)) {
+                roundtrips.add(f.get());
+            }
+        } finally {
+            executor.shutdownNow();
+            for (JenkinsRule.WebClient wc : clients) {
+                wc.close();
+            }
+        }
+        return new Result(Duration.ofNanos(System.nanoTime() - start), roundtrips);
+    }
+
+    private void roundtrip(JenkinsRule.WebClient wc, Target target) throws Exception {
+        if (viaConfigXml && target.configXml() != null) {
+            String xml = wc.goTo(target.configXml(), "application/xml")
+                    .getWebResponse()
+                    .getContentAsString();
+            URL url = j.jenkins.getCrumbIssuer() != null
+                    ? wc.createCrumbedUrl(target.configXml())
+                    : new URL(wc.getContextPath() + target.configXml());
+            WebRequest req = new WebRequest(url, HttpMethod.POST);
+            req.setAdditionalHeader("Content-Type", "application/xml");
+            req.setRequestBody(xml);
+            wc.getPage(req);
+        } else {
+            HtmlPage page = wc.goTo(target.configure());
+            j.submit(page.getFormByName(target.form()));
+        }
+    }
+
+    /**
+     * The round-trip of one object.
+     * @param name the full name of the item, or the name of the node, view or user
+     * @param duration how long loading and submitting took
+     * @param failure what went wrong, if anything
+     */
+    public record Roundtrip(@NonNull String name, @NonNull Duration duration, @CheckForNull Throwable failure) {}
+
+    /**
+     * Outcome of a completed batch.
+     */
+    public static final class Result {
+
+        private final Duration elapsed;
+        private final List<Roundtrip> roundtrips;
+        private final LatencyHistogram latency = new LatencyHistogram();
+
+        Result(Duration elapsed, List<Roundtrip> roundtrips) {
+            this.elapsed = elapsed;
+            this.roundtrips = List.copyOf(roundtrips);
+            roundtrips.forEach(r -> latency.record(r.duration()));
+        }
+
+        /**
+         * Wall-clock time of the whole batch.
+         */
+        public Duration getElapsed() {
+            return elapsed;
+        }
+
+        /**
+         * All round-trips, in the order the objects were added.
+         */
+        public List<Roundtrip> getRoundtrips() {
+            return roundtrips;
+        }
+
+        public List<Roundtrip> getFailures() {
+            return roundtrips.stream().filter(r -> r.failure() != null).toList();
+        }
+
+        public LatencyHistogram getLatency() {
+            return latency;
+        }
+
+        /**
+         * The slowest round-trips, at most {@code n} of them.
+         */
+        public List<Roundtrip> getSlowest(int n) {
+            return roundtrips.stream()
+                    .sorted(Comparator.comparing(Roundtrip::duration).reversed())
+                    .limit(n)
+                    .toList();
+        }
+
+        /**
+         * Fails if any round-trip failed, with every failure attached as a suppressed exception.
+         */
+        public Result assertSuccess() {
+            List<Roundtrip> failures = getFailures();
+            if (!failures.isEmpty()) {
+                AssertionError error = new AssertionError(failures.size() + " of " + roundtrips.size()
+                        + " configuration round-trips failed: "
+                        + failures.stream().map(Roundtrip::name).toList());
+                failures.forEach(r -> error.addSuppressed(r.failure()));
+                throw error;
+            }
+            return this;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(roundtrips.size())
+                    .append(" round-trips in ")
+                    .append(elapsed.toMillis())
+                    .append("ms, ")
+                    .append(getFailures().size())
+                    .append(" failed; ")
+                    .append(latency);
+            for (Roundtrip r : getSlowest(5)) {
+                sb.append("\n  ").append(r.name()).append(": ").append(r.duration().toMillis()).append("ms");
+            }
+            for (Roundtrip r : getFailures()) {
+                sb.append("\n  FAILED ").append(r.name()).append(": ").append(r.failure());
+            }
+            return sb.toString();
+        }
+    }
+}
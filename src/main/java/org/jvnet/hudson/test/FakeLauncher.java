@@ -11,6 +11,7 @@ import java.io.OutputStream;
  *
  * @author Kohsuke Kawaguchi
  * @see PretendSlave
+ * @see ScriptedFakeLauncher
  */
 public interface FakeLauncher {
     /**
@@ -50,20 +51,17 @@ public interface FakeLauncher {
 
         @Override
         public InputStream getStdout() {
-            // TODO
-            throw new UnsupportedOperationException();
+            return InputStream.nullInputStream();
         }
 
         @Override
         public InputStream getStderr() {
-            // TODO
-            throw new UnsupportedOperationException();
+            return InputStream.nullInputStream();
         }
 
         @Override
         public OutputStream getStdin() {
-            // TODO
-            throw new UnsupportedOperationException();
+            return OutputStream.nullOutputStream();
         }
     }
 }
@@ -73,6 +73,8 @@ public final class InboundAgentRule extends ExternalResource {
             this.trustStorePassword = source.getTrustStorePassword();
             this.cert = source.getCert();
             this.noCertificateCheck = source.isNoCertificateCheck();
+            this.sharedJvm = source.isSharedJvm();
+            this.reuseJvm = source.isReuseJvm();
         }
 
         /**
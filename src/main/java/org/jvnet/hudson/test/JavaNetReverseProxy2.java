@@ -19,7 +19,7 @@ import org.eclipse.jetty.ee10.servlet.ServletContextHandler;
 import org.eclipse.jetty.ee10.servlet.ServletHolder;
 import org.eclipse.jetty.server.Server;
 import org.eclipse.jetty.server.ServerConnector;
-import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.jvnet.hudson.test.jetty.JettyProvider;
 
 /**
  * Acts as a reverse proxy, so that during a test we can avoid hitting updates.jenkins.io.
@@ -39,9 +39,7 @@ public class JavaNetReverseProxy2 extends HttpServlet {
         this.cacheFolder = cacheFolder;
         cacheFolder.mkdirs();
 
-        QueuedThreadPool qtp = new QueuedThreadPool();
-        qtp.setName("Jetty (JavaNetReverseProxy)");
-        server = new Server(qtp);
+        server = new Server(JettyProvider.createThreadPool("Jetty (JavaNetReverseProxy)"));
 
         if (_isEE10Plus()) {
             ServletContextHandler context = new ServletContextHandler();
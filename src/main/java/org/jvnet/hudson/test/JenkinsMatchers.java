@@ -5,6 +5,8 @@ import hudson.util.Secret;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Modifier;
+import java.time.Duration;
+import java.util.List;
 import java.util.regex.Pattern;
 import org.hamcrest.BaseMatcher;
 import org.hamcrest.Description;
@@ -472,4 +474,77 @@ public class JenkinsMatchers {
             description.appendText("matches pattern ").appendText(pattern.pattern());
         }
     }
+
+    /**
+     * Returns a Matcher that checks that none of the retained requests took longer than the given duration.
+     * @see JenkinsRule#requests
+     */
+    public static Matcher<RequestStatistics> noRequestSlowerThan(Duration max) {
+        return new NoRequestSlowerThan(max);
+    }
+
+    /**
+     * Returns a Matcher that checks that no page load caused more than the given number of requests,
+     * counting the page itself plus its resources and XHR calls.
+     * @see JenkinsRule#requests
+     * @see RequestStatistics#getPageLoads
+     */
+    public static Matcher<RequestStatistics> maxRequestsPerPageLoad(int max) {
+        return new MaxRequestsPerPageLoad(max);
+    }
+
+    private static class NoRequestSlowerThan extends TypeSafeMatcher<RequestStatistics> {
+        private final Duration max;
+
+        private NoRequestSlowerThan(Duration max) {
+            this.max = max;
+        }
+
+        @Override
+        protected boolean matchesSafely(RequestStatistics item) {
+            return item.getRequests().stream().noneMatch(r -> r.duration().compareTo(max) > 0);
+        }
+
+        @Override
+        public void describeTo(Description description) {
+            description.appendText("no request slower than ").appendValue(max);
+        }
+
+        @Override
+        protected void describeMismatchSafely(RequestStatistics item, Description description) {
+            List<RequestStatistics.Request> slow = item.getRequests().stream()
+                    .filter(r -> r.duration().compareTo(max) > 0)
+                    .sorted((a, b) -> b.duration().compareTo(a.duration()))
+                    .toList();
+            description.appendText("slow requests were ").appendValueList("\n  ", "\n  ", "", slow);
+        }
+    }
+
+    private static class MaxRequestsPerPageLoad extends TypeSafeMatcher<RequestStatistics> {
+        private final int max;
+
+        private MaxRequestsPerPageLoad(int max) {
+            this.max = max;
+        }
+
+        @Override
+        protected boolean matchesSafely(RequestStatistics item) {
+            return item.getPageLoads().stream().allMatch(l -> l.requests().size() <= max);
+        }
+
+        @Override
+        public void describeTo(Description description) {
+            description.appendText("at most ").appendValue(max).appendText(" requests per page load");
+        }
+
+        @Override
+        protected void describeMismatchSafely(RequestStatistics item, Description description) {
+            description.appendText("page loads were ");
+            for (RequestStatistics.PageLoad load : item.getPageLoads()) {
+                if (load.requests().size() > max) {
+                    description.appendText("\n  ").appendText(load.toString());
+                }
+            }
+        }
+    }
 }
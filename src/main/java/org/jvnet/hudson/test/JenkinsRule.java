@@ -97,6 +97,8 @@ import hudson.tasks.BuildWrapperDescriptor;
 import hudson.tasks.Builder;
 import hudson.tasks.Publisher;
 import hudson.tools.ToolProperty;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
 import hudson.util.PersistedList;
 import hudson.util.ReflectionUtils;
 import hudson.util.StreamTaskListener;
@@ -136,11 +138,11 @@ import java.nio.channels.ClosedByInterruptException;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
-import java.time.Duration;
 import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Base64;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Enumeration;
 import java.util.HashMap;
@@ -152,14 +154,20 @@ import java.util.Map;
 import java.util.ServiceConfigurationError;
 import java.util.ServiceLoader;
 import java.util.Set;
-import java.util.TreeSet;
+import java.util.TreeMap;
 import java.util.UUID;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.jar.Manifest;
 import java.util.logging.ConsoleHandler;
@@ -169,6 +177,7 @@ import java.util.logging.Handler;
 import java.util.logging.Level;
 import java.util.logging.LogRecord;
 import java.util.logging.Logger;
+import java.util.stream.Stream;
 import jenkins.model.Jenkins;
 import jenkins.model.JenkinsAdaptor;
 import jenkins.model.JenkinsLocationConfiguration;
@@ -182,6 +191,9 @@ import org.apache.commons.io.FileUtils;
 import org.eclipse.jetty.security.HashLoginService;
 import org.eclipse.jetty.security.LoginService;
 import org.eclipse.jetty.security.UserStore;
+import org.eclipse.jetty.server.Connector;
+import org.eclipse.jetty.server.LocalConnector;
+import org.eclipse.jetty.server.NetworkConnector;
 import org.eclipse.jetty.server.Server;
 import org.eclipse.jetty.util.security.Password;
 import org.htmlunit.AjaxController;
@@ -191,6 +203,7 @@ import org.htmlunit.ElementNotFoundException;
 import org.htmlunit.FailingHttpStatusCodeException;
 import org.htmlunit.HttpMethod;
 import org.htmlunit.Page;
+import org.htmlunit.SilentCssErrorHandler;
 import org.htmlunit.WebClientOptions;
 import org.htmlunit.WebClientUtil;
 import org.htmlunit.WebRequest;
@@ -199,6 +212,7 @@ import org.htmlunit.WebResponseData;
 import org.htmlunit.WebResponseListener;
 import org.htmlunit.corejs.javascript.Context;
 import org.htmlunit.corejs.javascript.ContextFactory;
+import org.htmlunit.corejs.javascript.debug.Debugger;
 import org.htmlunit.cssparser.parser.CSSErrorHandler;
 import org.htmlunit.cssparser.parser.CSSException;
 import org.htmlunit.cssparser.parser.CSSParseException;
@@ -234,6 +248,7 @@ import org.jvnet.hudson.test.jetty.JettyProvider;
 import org.jvnet.hudson.test.recipes.Recipe;
 import org.jvnet.hudson.test.recipes.WithTimeout;
 import org.jvnet.hudson.test.rhino.JavaScriptDebugger;
+import org.jvnet.hudson.test.rhino.JavaScriptProfiler;
 import org.kohsuke.stapler.ClassDescriptor;
 import org.kohsuke.stapler.DataBoundConstructor;
 import org.kohsuke.stapler.DataBoundSetter;
@@ -302,6 +317,8 @@ public class JenkinsRule implements TestRule, MethodRule, RootAction {
      */
     private List<WebClient> clients = new ArrayList<>();
 
+    private final PageLoadTimes pageLoadTimes = new PageLoadTimes();
+
     /**
      * JavaScript "debugger" that provides you information about the JavaScript call stack
      * and the current values of the local variables in those stack frame.
@@ -313,6 +330,13 @@ public class JenkinsRule implements TestRule, MethodRule, RootAction {
      */
     protected JavaScriptDebugger jsDebugger = new JavaScriptDebugger();
 
+    /**
+     * Whether {@link #jsDebugger} is attached to JavaScript contexts:
+     * when running under a Java debugger, or with {@code -Djth.javascript.debugger=true}.
+     */
+    private static final boolean JS_DEBUGGER_ENABLED =
+            Boolean.getBoolean("jth.javascript.debugger") || new DisableOnDebug(null).isDebugging();
+
     /**
      * If this test case has additional {@link org.jvnet.hudson.test.recipes.WithPlugin} annotations, set to true.
      * This will cause a fresh {@link hudson.PluginManager} to be created for this test.
@@ -520,6 +544,10 @@ public class JenkinsRule implements TestRule, MethodRule, RootAction {
                 }
             }
             clients.clear();
+            String liteReport = pageLoadTimes.report();
+            if (liteReport != null) {
+                LOGGER.info(liteReport);
+            }
 
         } finally {
             _stopJenkins(server, tearDowns, jenkins);
@@ -560,6 +588,16 @@ public class JenkinsRule implements TestRule, MethodRule, RootAction {
         } catch (Exception e) {
             exception.addSuppressed(e);
         } finally {
+            // even if stopping failed, release the listening sockets so a later session can bind the same port
+            for (Connector c : server.getConnectors()) {
+                if (c instanceof NetworkConnector nc) {
+                    try {
+                        nc.close();
+                    } catch (RuntimeException e) {
+                        exception.addSuppressed(e);
+                    }
+                }
+            }
             jettyLevel(Level.INFO);
         }
 
@@ -795,28 +833,78 @@ public class JenkinsRule implements TestRule, MethodRule, RootAction {
      */
     protected ServletContext createWebServer2() throws Exception {
         JettyProvider jp = findJettyProvider();
+        boolean reserved = false;
+        if (localPort == 0 && System.getProperty("port") == null) {
+            localPort = PortAllocator.reserve();
+            reserved = true;
+        }
         JettyProvider.Context jpc;
         try {
             jpc = jp.createWebServer(localPort, contextPath, this::configureUserRealm);
         } catch (Exception x) {
-            if (hasBindException(x)) {
-                LOGGER.log(Level.WARNING, "Socket may be open from a previous test; will retry", x);
-                Thread.sleep(Duration.ofSeconds(15).toMillis());
+            if (reserved && hasBindException(x)) {
+                // grabbed by some process outside the allocator since we probed it; no point in waiting for it
+                LOGGER.log(Level.WARNING, "Port " + localPort + " was taken in the meantime; trying another", x);
+                PortAllocator.release(localPort);
+                localPort = PortAllocator.reserve();
                 jpc = jp.createWebServer(localPort, contextPath, this::configureUserRealm);
+            } else if (hasBindException(x)) {
+                jpc = retryBind(jp, x);
             } else {
                 throw x;
             }
         }
         localPort = jpc.localPort();
+        if (reserved) {
+            int port = localPort;
+            tearDowns.add(() -> PortAllocator.release(port));
+        }
         server = jpc.server();
+        SharedWebClientCache.serverStarted(getURL());
         LOGGER.log(Level.INFO, "Running on {0}", getURL());
         return jpc.servletContext();
     }
 
+    /**
+     * Retries binding a fixed port, such as one kept across sessions.
+     * {@link #_stopJenkins} closes the previous listener before returning, so this only covers a port which the OS is
+     * slow to release, or which another process holds, in which case we give up quickly.
+     */
+    private JettyProvider.Context retryBind(JettyProvider jp, Exception first) throws Exception {
+        long delay = 50;
+        for (int attempt = 1; ; attempt++) {
+            LOGGER.log(Level.FINE, "Port " + localPort + " is in use; retrying in " + delay + "ms", first);
+            Thread.sleep(delay);
+            try {
+                return jp.createWebServer(localPort, contextPath, this::configureUserRealm);
+            } catch (Exception x) {
+                if (!hasBindException(x) || attempt == BIND_ATTEMPTS) {
+                    x.addSuppressed(first);
+                    throw x;
+                }
+            }
+            delay *= 2;
+        }
+    }
+
+    /** Up to about three seconds in all. */
+    private static final int BIND_ATTEMPTS = 6;
+
     private static boolean hasBindException(Throwable t) {
         return t instanceof BindException || t != null && hasBindException(t.getCause());
     }
 
+    private boolean isLiteWebClientRequested() {
+        if (testDescription == null) {
+            return false;
+        }
+        if (testDescription.getAnnotation(LiteWebClient.class) != null) {
+            return true;
+        }
+        Class<?> testClass = testDescription.getTestClass();
+        return testClass != null && testClass.isAnnotationPresent(LiteWebClient.class);
+    }
+
     private static JettyProvider findJettyProvider() {
         Iterator<JettyProvider> it = ServiceLoader.load(JettyProvider.class).iterator();
         while (it.hasNext()) {
@@ -920,12 +1008,10 @@ public class JenkinsRule implements TestRule, MethodRule, RootAction {
     public DumbSlave createSlave(boolean waitForChannelConnect) throws Exception {
         DumbSlave agent = createSlave();
         if (waitForChannelConnect) {
-            long start = System.currentTimeMillis();
-            while (agent.getChannel() == null) {
-                if (System.currentTimeMillis() > (start + 10000)) {
-                    throw new IllegalStateException("Timed out waiting on agent channel to connect.");
-                }
-                Thread.sleep(200);
+            try {
+                ComputerStateListener.whenOnline(agent.getNodeName()).get(10, TimeUnit.SECONDS);
+            } catch (TimeoutException x) {
+                throw new IllegalStateException("Timed out waiting on agent channel to connect.", x);
             }
         }
         return agent;
@@ -935,12 +1021,10 @@ public class JenkinsRule implements TestRule, MethodRule, RootAction {
         agent.getComputer()
                 .disconnect(new OfflineCause.ChannelTermination(new Exception("terminate")))
                 .get(10, TimeUnit.SECONDS);
-        long start = System.currentTimeMillis();
-        while (agent.getChannel() != null) {
-            if (System.currentTimeMillis() > (start + 10000)) {
-                throw new IllegalStateException("Timed out waiting on agent channel to disconnect.");
-            }
-            Thread.sleep(200);
+        try {
+            ComputerStateListener.whenOffline(agent.getNodeName()).get(10, TimeUnit.SECONDS);
+        } catch (TimeoutException x) {
+            throw new IllegalStateException("Timed out waiting on agent channel to disconnect.", x);
         }
     }
 
@@ -969,13 +1053,26 @@ public class JenkinsRule implements TestRule, MethodRule, RootAction {
         return new DummySecurityRealm();
     }
 
-    /** @see #createDummySecurityRealm */
+    /**
+     * Thread-safe, so that groups may be added while concurrent requests are being authenticated.
+     * @see #createDummySecurityRealm
+     */
     public static class DummySecurityRealm extends AbstractPasswordBasedSecurityRealm {
 
-        private final Map<String, Set<String>> groupsByUser = new HashMap<>();
+        private final Map<String, Set<String>> groupsByUser = new ConcurrentHashMap<>();
 
         DummySecurityRealm() {}
 
+        private Object readResolve() {
+            if (groupsByUser instanceof ConcurrentHashMap) {
+                return this;
+            }
+            // loaded from a home saved before the realm was thread-safe
+            DummySecurityRealm realm = new DummySecurityRealm();
+            groupsByUser.forEach((user, groups) -> realm.addGroups(user, groups.toArray(new String[0])));
+            return realm;
+        }
+
         @Override
         protected UserDetails authenticate2(String username, String password) throws AuthenticationException {
             if (username.equals(password)) {
@@ -1014,7 +1111,7 @@ public class JenkinsRule implements TestRule, MethodRule, RootAction {
 
         /** Associate some groups with a username. */
         public void addGroups(String username, String... groups) {
-            Set<String> gs = groupsByUser.computeIfAbsent(username, k -> new TreeSet<>());
+            Set<String> gs = groupsByUser.computeIfAbsent(username, k -> new ConcurrentSkipListSet<>());
             gs.addAll(List.of(groups));
         }
     }
@@ -1080,6 +1177,48 @@ public class JenkinsRule implements TestRule, MethodRule, RootAction {
         }
     }
 
+    /**
+     * Creates and attaches a new agent running inside the test JVM.
+     * Cheaper than {@link #createSlave()} when the test only needs remoting semantics.
+     * @see LoopbackLauncher
+     */
+    @NonNull
+    public DumbSlave createLoopbackAgent() throws Exception {
+        return createLoopbackAgent((String) null);
+    }
+
+    /**
+     * Creates and attaches a new agent running inside the test JVM.
+     * @see LoopbackLauncher
+     */
+    @NonNull
+    public DumbSlave createLoopbackAgent(@CheckForNull Label l) throws Exception {
+        return createLoopbackAgent(l == null ? null : l.getExpression());
+    }
+
+    /**
+     * Creates and attaches a new agent running inside the test JVM.
+     * Use {@link #waitOnline} if you need it to be connected before proceeding.
+     * @param labels a label expression, or null
+     * @see LoopbackLauncher
+     */
+    @NonNull
+    public DumbSlave createLoopbackAgent(@CheckForNull String labels) throws Exception {
+        synchronized (jenkins) {
+            String nodeName = "loopback" + jenkins.getNodes().size();
+            DumbSlave agent = new DumbSlave(
+                    nodeName,
+                    new File(jenkins.getRootDir(), "agent-work-dirs/" + nodeName).getAbsolutePath(),
+                    new LoopbackLauncher());
+            if (labels != null) {
+                agent.setLabelString(labels);
+            }
+            agent.setRetentionStrategy(RetentionStrategy.NOOP);
+            jenkins.addNode(agent);
+            return agent;
+        }
+    }
+
     /**
      * Creates a launcher for starting a local agent.
      * This is an outbound agent using {@link SimpleCommandLauncher}.
@@ -1150,20 +1289,58 @@ public class JenkinsRule implements TestRule, MethodRule, RootAction {
         }
     }
 
+    /**
+     * Generates API tokens for many users at once, several users at a time.
+     * Each token costs a couple of saves of the user, so this is much faster than calling
+     * {@link #createApiToken(User)} in a loop when there are thousands of users.
+     * @return the plain token values keyed by user ID
+     */
+    public @NonNull Map<String, String> createApiTokens(@NonNull Collection<User> users) throws Exception {
+        Map<String, String> tokens = new ConcurrentHashMap<>();
+        ExecutorService executor = Executors.newFixedThreadPool(
+                Math.min(Runtime.getRuntime().availableProcessors(), 8),
+                new NamingThreadFactory(new DaemonThreadFactory(), "createApiTokens"));
+        try {
+            List<Callable<Void>> tasks = new ArrayList<>();
+            for (User user : users) {
+                tasks.add(() -> {
+                    tokens.put(user.getId(), createApiToken(user));
+                    return null;
+                });
+            }
+            for (Future<Void> f : executor.invokeAll(tasks)) {
+                try {
+                    f.get();
+                } catch (ExecutionException x) {
+                    throw x.getCause() instanceof Exception e ? e : x;
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return tokens;
+    }
+
     /**
      * Waits for a newly created agent to come online.
      * @see #createSlave()
      */
     public void waitOnline(Slave s) throws Exception {
         Computer computer = s.toComputer();
-        AtomicBoolean run = new AtomicBoolean(true);
+        CompletableFuture<Computer> online = ComputerStateListener.whenOnline(s.getNodeName());
         AnnotatedLargeText<?> logText = computer.getLogText();
         Computer.threadPoolForRemoting.submit(() -> {
+            // Copy what is there whenever the agent changes state, falling back to a periodic flush while launching.
             long pos = 0;
-            while (run.get() && !logText.isComplete()) {
+            while (!online.isDone() && !logText.isComplete()) {
                 pos = logText.writeLogTo(pos, System.out);
-                Thread.sleep(100);
+                try {
+                    online.get(1, TimeUnit.SECONDS);
+                } catch (TimeoutException | ExecutionException | CancellationException x) {
+                    // check again
+                }
             }
+            logText.writeLogTo(pos, System.out);
             return null;
         });
         try {
@@ -1173,13 +1350,43 @@ public class JenkinsRule implements TestRule, MethodRule, RootAction {
                 LOGGER.info(() -> "…finished launching " + s.getNodeName() + ".");
             } else {
                 LOGGER.info(() -> "Waiting for " + s.getNodeName() + " to come online…");
-                while (!computer.isOnline()) {
-                    Thread.sleep(100);
-                }
+                online.get();
                 LOGGER.info(() -> "…" + s.getNodeName() + " is now online.");
             }
         } finally {
-            run.set(false);
+            online.cancel(false);
+        }
+    }
+
+    /**
+     * Gets the remoting traffic recorded between this controller and an agent.
+     */
+    @NonNull
+    public ChannelStatistics channelStatistics(@NonNull Node agent) {
+        return ChannelStatistics.of(agent);
+    }
+
+    /**
+     * Asserts that some code makes no more than a given number of remoting round trips with an agent,
+     * including requests from the agent to load classes.
+     * Traffic from unrelated background activity, such as pings, is counted too, so leave some slack.
+     * @see ChannelStatistics
+     */
+    public void assertMaxRemoteCalls(@NonNull Node agent, long max, @NonNull LenientRunnable code) throws Exception {
+        ChannelStatistics stats = ChannelStatistics.of(agent);
+        Map<String, Long> before = stats.getCallCounts();
+        code.run();
+        Map<String, Long> delta = new TreeMap<>();
+        stats.getCallCounts().forEach((kind, count) -> {
+            long d = count - before.getOrDefault(kind, 0L);
+            if (d > 0) {
+                delta.put(kind, d);
+            }
+        });
+        long total = delta.values().stream().mapToLong(Long::longValue).sum();
+        if (total > max) {
+            throw new AssertionError("Expected at most " + max + " remote calls with " + agent.getNodeName()
+                    + " but there were " + total + ": " + delta);
         }
     }
 
@@ -1465,6 +1672,14 @@ public class JenkinsRule implements TestRule, MethodRule, RootAction {
         return (C) jenkins.getCloud(cloud.name);
     }
 
+    /**
+     * Starts configuring concurrent configuration round-trips of many items, nodes, views or users.
+     * Unlike the {@code configRoundtrip} overloads, failures are collected and reported together.
+     */
+    public ConfigRoundtripBatch configRoundtrips() {
+        return new ConfigRoundtripBatch(this);
+    }
+
     /**
      * Asserts that the outcome of the build is a specific outcome.
      * <p>
@@ -1635,12 +1850,12 @@ public class JenkinsRule implements TestRule, MethodRule, RootAction {
      * examine XmlPages.
      */
     public void assertXPath(DomNode page, String xpath) {
-        List<?> nodes = page.getByXPath(xpath);
+        List<?> nodes = DomNodeUtil.getByXPath(page, xpath);
         assertThat("There should be an object that matches XPath:" + xpath, nodes.isEmpty(), is(false));
     }
 
     public void assertXPathValue(DomNode page, String xpath, String expectedValue) {
-        Object node = page.getFirstByXPath(xpath);
+        Object node = DomNodeUtil.getFirstByXPath(page, xpath);
         assertNotNull("no node found", node);
         assertTrue("the found object was not a Node " + xpath, node instanceof org.w3c.dom.Node);
 
@@ -1650,7 +1865,7 @@ public class JenkinsRule implements TestRule, MethodRule, RootAction {
     }
 
     public void assertXPathValueContains(DomNode page, String xpath, String needle) {
-        Object node = page.getFirstByXPath(xpath);
+        Object node = DomNodeUtil.getFirstByXPath(page, xpath);
         assertNotNull("no node found", node);
         assertTrue("the found object was not a Node " + xpath, node instanceof org.w3c.dom.Node);
 
@@ -1660,7 +1875,7 @@ public class JenkinsRule implements TestRule, MethodRule, RootAction {
     }
 
     public void assertXPathResultsContainText(DomNode page, String xpath, String needle) {
-        List<?> nodes = page.getByXPath(xpath);
+        List<?> nodes = DomNodeUtil.getByXPath(page, xpath);
         assertThat("no nodes matching xpath found", nodes.isEmpty(), is(false));
         boolean found = false;
         for (Object o : nodes) {
@@ -2334,6 +2549,55 @@ public class JenkinsRule implements TestRule, MethodRule, RootAction {
         return webClient;
     }
 
+    /**
+     * Creates a REST API client which does not go through HtmlUnit.
+     * Run with {@code -Djth.jetty.http2=true} to let {@link JsonApiClient#withHttp2} use cleartext HTTP/2.
+     */
+    public JsonApiClient createJsonApiClient() throws IOException {
+        return new JsonApiClient(getURL());
+    }
+
+    /**
+     * Creates a REST API client authenticated with a new API token of the given user.
+     * @see WebClient#withBasicApiToken(String)
+     */
+    public JsonApiClient createJsonApiClient(@NonNull String userId) throws IOException {
+        User user = User.getById(userId, true);
+        return createJsonApiClient().withApiToken(userId, createApiToken(user));
+    }
+
+    /**
+     * Starts configuring a load test of concurrent simulated users against this Jenkins.
+     * Unlike {@link WebClient}, which is neither thread-safe nor lightweight, this may drive hundreds of users.
+     */
+    public LoadGenerator load() {
+        return new LoadGenerator(this);
+    }
+
+    /**
+     * Starts configuring a simulation of many users with concurrent authenticated sessions,
+     * measuring authentication and authorization latency.
+     */
+    public SessionSimulator sessions() {
+        return new SessionSimulator(this);
+    }
+
+    /**
+     * Gets server-side timings of the requests served so far, attributed to Stapler views and web methods.
+     * For example:
+     * <pre>{@code
+     * j.requests().clear();
+     * wc.goTo("manage/");
+     * assertThat(j.requests(), noRequestSlowerThan(Duration.ofSeconds(1)));
+     * assertThat(j.requests(), maxRequestsPerPageLoad(50));
+     * }</pre>
+     * @see JenkinsMatchers#noRequestSlowerThan
+     * @see JenkinsMatchers#maxRequestsPerPageLoad
+     */
+    public RequestStatistics requests() {
+        return JettyProvider.getRequestStatistics(server);
+    }
+
     /**
      * Extends {@link org.htmlunit.WebClient} and provide convenience methods
      * for accessing Hudson.
@@ -2343,10 +2607,22 @@ public class JenkinsRule implements TestRule, MethodRule, RootAction {
 
         private List<WebResponseListener> webResponseListeners = new ArrayList<>();
 
+        @CheckForNull
+        private transient JavaScriptProfiler jsProfiler;
+
+        private boolean liteMode;
+
+        /** Restores the options changed by {@link #withLiteMode}, or null when not in lite mode. */
+        @CheckForNull
+        private transient Runnable liteModeExit;
+
         public WebClient() {
             //            setJavaScriptEnabled(false);
             setPageCreator(HudsonPageCreator.INSTANCE);
             clients.add(this);
+            if (SharedWebClientCache.ENABLED) {
+                SharedWebClientCache.install(this, () -> debugger() != null);
+            }
             // make ajax calls run as post-action for predictable behaviors that simplify debugging
             setAjaxController(new AjaxController() {
                 private static final long serialVersionUID = -76034615893907856L;
@@ -2386,7 +2662,7 @@ public class JenkinsRule implements TestRule, MethodRule, RootAction {
                 }
             });
 
-            // if no other debugger is installed, install jsDebugger,
+            // if no other debugger is installed, install jsDebugger and/or the profiler,
             // so as not to interfere with the 'Dim' class.
             AbstractJavaScriptEngine<?> javaScriptEngine = getJavaScriptEngine();
             if (javaScriptEngine instanceof JavaScriptEngine) {
@@ -2394,7 +2670,10 @@ public class JenkinsRule implements TestRule, MethodRule, RootAction {
                     @Override
                     public void contextCreated(Context cx) {
                         if (cx.getDebugger() == null) {
-                            cx.setDebugger(jsDebugger, null);
+                            Debugger debugger = debugger();
+                            if (debugger != null) {
+                                cx.setDebugger(debugger, null);
+                            }
                         }
                     }
 
@@ -2406,6 +2685,87 @@ public class JenkinsRule implements TestRule, MethodRule, RootAction {
             // avoid a hang by setting a time out. It should be long enough to prevent
             // false-positive timeout on slow systems
             // setTimeout(60*1000);
+
+            if (isLiteWebClientRequested()) {
+                withLiteMode();
+            }
+        }
+
+        /**
+         * Switches this client to a lightweight mode for tests which only check status codes, headers or XPath.
+         * JavaScript and CSS are disabled, so scripts, stylesheets and images referenced by a page are not
+         * downloaded, and no script is run on load.
+         * The page is still parsed, so {@link JenkinsRule#assertXPath(DomNode, String)} and friends work.
+         * The time saved compared to full clients is logged at the end of the test.
+         *
+         * @return self for fluent method chaining
+         * @see LiteWebClient
+         */
+        public WebClient withLiteMode() {
+            if (liteModeExit == null) {
+                boolean javaScript = getOptions().isJavaScriptEnabled();
+                boolean css = getOptions().isCssEnabled();
+                boolean images = getOptions().isDownloadImages();
+                CSSErrorHandler cssErrorHandler = getCssErrorHandler();
+                liteModeExit = () -> {
+                    getOptions().setJavaScriptEnabled(javaScript);
+                    getOptions().setCssEnabled(css);
+                    getOptions().setDownloadImages(images);
+                    setCssErrorHandler(cssErrorHandler);
+                };
+            }
+            liteMode = true;
+            getOptions().setJavaScriptEnabled(false);
+            getOptions().setCssEnabled(false);
+            getOptions().setDownloadImages(false);
+            setCssErrorHandler(new SilentCssErrorHandler());
+            return this;
+        }
+
+        /**
+         * Leaves {@linkplain #withLiteMode lite mode}, restoring JavaScript, CSS, image downloading and the CSS
+         * error handler to what they were before it was entered.
+         * Pages loaded afterwards are timed as full page loads.
+         * Does nothing if this client is not in lite mode.
+         *
+         * @return self for fluent method chaining
+         */
+        public WebClient withoutLiteMode() {
+            if (liteModeExit != null) {
+                liteModeExit.run();
+                liteModeExit = null;
+            }
+            liteMode = false;
+            return this;
+        }
+
+        /**
+         * @return true if this client is in {@linkplain #withLiteMode lite mode} and JavaScript has not been re-enabled
+         */
+        public boolean isLiteMode() {
+            return liteMode && !isJavaScriptEnabled();
+        }
+
+        /**
+         * Records the performance of JavaScript functions run by this client.
+         *
+         * @return self for fluent method chaining
+         */
+        public WebClient withJavaScriptProfiler(@CheckForNull JavaScriptProfiler profiler) {
+            jsProfiler = profiler;
+            return this;
+        }
+
+        /**
+         * The debugger to attach to new JavaScript contexts, if any.
+         * Attaching one slows down every function call, so {@link #jsDebugger} is only used when debugging.
+         */
+        @CheckForNull
+        private Debugger debugger() {
+            if (jsProfiler != null) {
+                return JS_DEBUGGER_ENABLED ? jsProfiler.andThen(jsDebugger) : jsProfiler;
+            }
+            return JS_DEBUGGER_ENABLED ? jsDebugger : null;
         }
 
         public void addWebResponseListener(WebResponseListener listener) {
@@ -2423,6 +2783,13 @@ public class JenkinsRule implements TestRule, MethodRule, RootAction {
             return webResponse;
         }
 
+        @Override
+        public void close() {
+            // HtmlUnit clears the cache on close, which other clients are still using
+            SharedWebClientCache.detach(this);
+            super.close();
+        }
+
         /**
          * Logs in to Jenkins.
          */
@@ -2545,6 +2912,25 @@ public class JenkinsRule implements TestRule, MethodRule, RootAction {
             return this;
         }
 
+        /**
+         * Sends requests for this Jenkins directly into the embedded Jetty server via an in-memory
+         * {@link LocalConnector} rather than over a loopback socket, avoiding TCP overhead in request-heavy tests.
+         * Requests to other hosts and multipart form submissions still use the network.
+         * Only preemptive credentials such as {@link #withBasicCredentials(String, String)} work in this mode,
+         * and WebSockets are not supported.
+         *
+         * @return self for fluent method chaining
+         */
+        public WebClient withLocalConnector() throws IOException {
+            LocalConnector connector = Stream.of(server.getConnectors())
+                    .filter(LocalConnector.class::isInstance)
+                    .map(LocalConnector.class::cast)
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalStateException("no LocalConnector in " + server));
+            setWebConnection(new LocalWebConnection(this, connector, getURL(), getWebConnection()));
+            return this;
+        }
+
         /**
          * Logs in to Jenkins.
          */
@@ -2742,9 +3128,11 @@ public class JenkinsRule implements TestRule, MethodRule, RootAction {
         public Page goTo(String relative, @CheckForNull String expectedContentType) throws IOException, SAXException {
             assert !relative.startsWith("/");
             Page p;
+            long start = System.nanoTime();
             try {
                 p = super.getPage(getContextPath() + relative);
                 WebClientUtil.waitForJSExec(this);
+                pageLoadTimes.record(isLiteMode(), start);
             } catch (IOException x) {
                 Throwable cause = x.getCause();
                 if (cause instanceof SocketTimeoutException) {
@@ -0,0 +1,477 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.jvnet.hudson.test;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.BiConsumer;
+import javax.net.ssl.SSLContext;
+import net.sf.json.JSON;
+import net.sf.json.JSONObject;
+
+/**
+ * Client for the Jenkins REST API based on {@link HttpClient}, bypassing HtmlUnit.
+ * Connections are reused across requests, and with {@link #withHttp2} concurrent requests are multiplexed
+ * over a single HTTP/2 connection:
+ * cleartext (h2c) against a {@link JenkinsRule} run with {@code -Djth.jetty.http2=true},
+ * or h2 negotiated via ALPN against an HTTPS server such as {@code RealJenkinsFixture.https()}
+ * when the server supports it.
+ * <p>
+ * Session cookies are kept by each instance (unless {@linkplain #withoutCookies disabled}),
+ * and crumbs are added to modifying requests as needed.
+ * Large responses can be processed incrementally with {@link #openJSON} or {@link #walk}.
+ * <p>
+ * Create instances with {@link JenkinsRule#createJsonApiClient} or {@code RealJenkinsFixture.createJsonApiClient}.
+ */
+public final class JsonApiClient {
+
+    private final URL base;
+    private HttpClient.Version version = HttpClient.Version.HTTP_1_1;
+
+    @CheckForNull
+    private SSLContext sslContext;
+
+    private Duration timeout = Duration.ofMinutes(1);
+    private final Map<String, String> headers = new LinkedHashMap<>();
+
+    /** Whether the {@code Authorization} header holds an API token. */
+    private boolean apiToken;
+
+    private boolean keepCookies = true;
+
+    @CheckForNull
+    private HttpClient client;
+
+    /** Kept apart from {@link #client}, which may be shared with {@linkplain #copy copies} using other sessions. */
+    private final CookieManager cookies = new CookieManager();
+
+    /** Header name and value of the crumb, once fetched; empty if no crumb is needed. */
+    @CheckForNull
+    private Map.Entry<String, String> crumb;
+
+    /**
+     * @param base the root URL of Jenkins, ending with a slash
+     */
+    public JsonApiClient(@NonNull URL base) {
+        this.base = base;
+    }
+
+    /**
+     * Prefers HTTP/2, falling back to HTTP/1.1 if the server does not support it.
+     */
+    public JsonApiClient withHttp2() {
+        return withVersion(HttpClient.Version.HTTP_2);
+    }
+
+    public JsonApiClient withVersion(@NonNull HttpClient.Version version) {
+        this.version = version;
+        client = null;
+        return this;
+    }
+
+    /**
+     * Trusts the given TLS configuration, such as {@code RealJenkinsFixture.buildSSLContext()}.
+     */
+    public JsonApiClient withSslContext(@NonNull SSLContext sslContext) {
+        this.sslContext = sslContext;
+        client = null;
+        return this;
+    }
+
+    /**
+     * Sets the timeout of each request; defaults to one minute.
+     */
+    public JsonApiClient withTimeout(@NonNull Duration timeout) {
+        this.timeout = timeout;
+        return this;
+    }
+
+    /**
+     * Sends preemptive Basic authentication with a password.
+     * Jenkins still requires a crumb for modifying requests, which is added as usual.
+     * @see #withApiToken
+     */
+    public JsonApiClient withBasicCredentials(@NonNull String login, @NonNull String password) {
+        apiToken = false;
+        return withHeader("Authorization", basic(login, password));
+    }
+
+    /**
+     * Sends preemptive Basic authentication with an API token.
+     * Jenkins exempts such requests from CSRF protection, so no crumb is fetched.
+     * @see JenkinsRule#createApiToken
+     */
+    public JsonApiClient withApiToken(@NonNull String login, @NonNull String token) {
+        withHeader("Authorization", basic(login, token));
+        apiToken = true;
+        return this;
+    }
+
+    private static String basic(String login, String secret) {
+        return "Basic "
+                + Base64.getEncoder().encodeToString((login + ":" + secret).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Keeps no cookies, so that each request is handled on its own, as for a script calling the REST API.
+     * With password credentials, Jenkins then authenticates every request through the security realm
+     * rather than by the HTTP session.
+     * Modifying requests are only accepted {@linkplain #withApiToken with an API token},
+     * as crumbs are tied to a session.
+     */
+    public JsonApiClient withoutCookies() {
+        keepCookies = false;
+        return this;
+    }
+
+    /**
+     * Logs in through the login form, as a browser would,
+     * so that later requests are authenticated by the HTTP session kept in this client's cookies.
+     * @throws AssertionError if the credentials were rejected
+     */
+    public JsonApiClient login(@NonNull String user, @NonNull String password) throws IOException {
+        if (!keepCookies) {
+            throw new IllegalStateException("cannot log in without cookies");
+        }
+        // redirect to something cheap rather than to the dashboard
+        String form = "j_username=" + URLEncoder.encode(user, StandardCharsets.UTF_8)
+                + "&j_password=" + URLEncoder.encode(password, StandardCharsets.UTF_8)
+                + "&from=" + URLEncoder.encode(base.getPath() + "whoAmI/api/json", StandardCharsets.UTF_8);
+        HttpRequest request = request("j_spring_security_check")
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form, StandardCharsets.UTF_8))
+                .build();
+        Response response = join(sendAsync(request));
+        synchronized (this) {
+            // Jenkins starts a new session on login, invalidating any crumb
+            crumb = null;
+        }
+        if (response.response.uri().getPath().endsWith("/loginError")) {
+            throw new AssertionError("Could not log in as " + user);
+        }
+        response.assertSuccess();
+        return this;
+    }
+
+    /**
+     * Adds a header to every request.
+     * Credentials passed as an {@code Authorization} header this way are not assumed to be exempt from CSRF protection.
+     */
+    public JsonApiClient withHeader(@NonNull String name, @NonNull String value) {
+        if (name.equalsIgnoreCase("Authorization")) {
+            apiToken = false;
+        }
+        headers.put(name, value);
+        return this;
+    }
+
+    /**
+     * Creates a client with the same settings and headers which shares the connection pool of this one,
+     * for example to add credentials of another user.
+     * The copy starts a session of its own: it has no cookies and fetches its own crumb.
+     */
+    public JsonApiClient copy() {
+        JsonApiClient copy = new JsonApiClient(base);
+        copy.version = version;
+        copy.sslContext = sslContext;
+        copy.timeout = timeout;
+        copy.headers.putAll(headers);
+        copy.apiToken = apiToken;
+        copy.keepCookies = keepCookies;
+        copy.client = getHttpClient();
+        return copy;
+    }
+
+    /**
+     * Gets the underlying client, shared by all requests and by {@linkplain #copy copies}.
+     * It keeps no cookies; requests sent through it directly are not part of this client's session.
+     */
+    public synchronized HttpClient getHttpClient() {
+        if (client == null) {
+            HttpClient.Builder builder = HttpClient.newBuilder()
+                    .version(version)
+                    .connectTimeout(timeout)
+                    .followRedirects(HttpClient.Redirect.NORMAL);
+            if (sslContext != null) {
+                builder.sslContext(sslContext);
+            }
+            client = builder.build();
+        }
+        return client;
+    }
+
+    /**
+     * Creates a request builder for a path relative to the Jenkins root,
+     * with the configured headers and this client's session cookies applied.
+     */
+    public HttpRequest.Builder request(@NonNull String path) {
+        URI uri;
+        try {
+            uri = new URL(base, path).toURI();
+        } catch (IOException | URISyntaxException x) {
+            throw new IllegalArgumentException(path, x);
+        }
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri).timeout(timeout);
+        headers.forEach(builder::header);
+        try {
+            cookies.get(uri, Map.of()).forEach((name, values) -> values.forEach(value -> builder.header(name, value)));
+        } catch (IOException x) {
+            throw new IllegalArgumentException(path, x);
+        }
+        return builder;
+    }
+
+    /**
+     * Records cookies set by a response, including any redirects the client followed on the way.
+     */
+    private void storeCookies(HttpResponse<?> response) {
+        if (!keepCookies) {
+            return;
+        }
+        List<HttpResponse<?>> chain = new ArrayList<>();
+        for (HttpResponse<?> r = response; r != null; r = r.previousResponse().orElse(null)) {
+            chain.add(0, r);
+        }
+        try {
+            for (HttpResponse<?> r : chain) {
+                cookies.put(r.uri(), r.headers().map());
+            }
+        } catch (IOException x) {
+            throw new UncheckedIOException(x);
+        }
+    }
+
+    /**
+     * Sends a GET request.
+     */
+    public Response get(@NonNull String path) throws IOException {
+        return join(getAsync(path));
+    }
+
+    /**
+     * Sends a GET request without waiting for the response,
+     * so that many requests may be in flight at once (multiplexed under HTTP/2).
+     */
+    public CompletableFuture<Response> getAsync(@NonNull String path) {
+        return sendAsync(request(path).GET().build());
+    }
+
+    /**
+     * Sends a POST request with a JSON body.
+     */
+    public Response post(@NonNull String path, @NonNull JSON json) throws IOException {
+        HttpRequest.Builder request = request(path)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json.toString(), StandardCharsets.UTF_8));
+        addCrumb(request);
+        return join(sendAsync(request.build()));
+    }
+
+    /**
+     * Sends GET requests for all paths concurrently and waits for all responses, in the same order.
+     */
+    public List<Response> getAll(@NonNull Collection<String> paths) throws IOException {
+        List<CompletableFuture<Response>> futures = new ArrayList<>();
+        for (String path : paths) {
+            futures.add(getAsync(path));
+        }
+        List<Response> responses = new ArrayList<>();
+        for (CompletableFuture<Response> future : futures) {
+            responses.add(join(future));
+        }
+        return responses;
+    }
+
+    /**
+     * Adds a crumb header to a modifying request, unless authenticating {@linkplain #withApiToken with an API token},
+     * which Jenkins exempts from CSRF protection.
+     * The crumb is fetched once, and is valid for the session kept in this client's cookies.
+     */
+    public synchronized void addCrumb(@NonNull HttpRequest.Builder request) throws IOException {
+        if (apiToken) {
+            return;
+        }
+        if (crumb == null) {
+            Response response = get("crumbIssuer/api/json");
+            if (response.getStatusCode() == 404) {
+                crumb = Map.entry("", "");
+            } else {
+                JSONObject json = response.assertSuccess().getJSONObject();
+                crumb = Map.entry(json.getString("crumbRequestField"), json.getString("crumb"));
+            }
+        }
+        if (!crumb.getKey().isEmpty()) {
+            request.header(crumb.getKey(), crumb.getValue());
+        }
+    }
+
+    /**
+     * Gets a JSON object, failing unless the response is successful.
+     */
+    public JSONObject getJSON(@NonNull String path) throws IOException {
+        return get(path).assertSuccess().getJSONObject();
+    }
+
+    /**
+     * Opens a GET request and returns as soon as the headers arrive, for consuming streamed responses incrementally.
+     * The caller must close the body.
+     */
+    public HttpResponse<InputStream> stream(@NonNull String path) throws IOException {
+        try {
+            HttpResponse<InputStream> response =
+                    getHttpClient().send(request(path).GET().build(), HttpResponse.BodyHandlers.ofInputStream());
+            storeCookies(response);
+            return response;
+        } catch (InterruptedException x) {
+            Thread.currentThread().interrupt();
+            throw (IOException) new InterruptedIOException().initCause(x);
+        }
+    }
+
+    /**
+     * Opens a JSON response for streaming parsing, failing unless the response is successful.
+     * The caller must close the reader.
+     */
+    public JsonStreamReader openJSON(@NonNull String path) throws IOException {
+        HttpResponse<InputStream> response = stream(path);
+        if (response.statusCode() / 100 != 2) {
+            String body;
+            try (InputStream is = response.body()) {
+                body = new String(is.readAllBytes(), StandardCharsets.UTF_8);
+            }
+            throw new AssertionError("Got " + response.statusCode() + " from " + response.uri() + ": " + body);
+        }
+        return new JsonStreamReader(new InputStreamReader(response.body(), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Streams a JSON response, passing each scalar value along with its path such as {@code jobs[3].name}.
+     * Memory use does not depend on the size of the response.
+     * @see JsonStreamReader#forEachValue
+     */
+    public void walk(@NonNull String path, @NonNull BiConsumer<String, Object> consumer) throws IOException {
+        try (JsonStreamReader reader = openJSON(path)) {
+            reader.forEachValue(consumer);
+        }
+    }
+
+    private CompletableFuture<Response> sendAsync(HttpRequest request) {
+        return getHttpClient()
+                .sendAsync(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8))
+                .thenApply(response -> {
+                    storeCookies(response);
+                    return new Response(response);
+                });
+    }
+
+    private static Response join(CompletableFuture<Response> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException x) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw (IOException) new InterruptedIOException().initCause(x);
+        } catch (ExecutionException x) {
+            if (x.getCause() instanceof IOException ioe) {
+                throw new IOException(ioe.getMessage(), ioe);
+            }
+            throw new IOException(x.getCause());
+        }
+    }
+
+    /**
+     * A fully read response.
+     */
+    public static final class Response {
+
+        private final HttpResponse<String> response;
+
+        Response(HttpResponse<String> response) {
+            this.response = response;
+        }
+
+        public int getStatusCode() {
+            return response.statusCode();
+        }
+
+        /**
+         * The protocol actually used, for example to check that HTTP/2 was negotiated.
+         */
+        public HttpClient.Version getVersion() {
+            return response.version();
+        }
+
+        public HttpHeaders getHeaders() {
+            return response.headers();
+        }
+
+        public String getContentAsString() {
+            return response.body();
+        }
+
+        public JSONObject getJSONObject() {
+            return JSONObject.fromObject(response.body());
+        }
+
+        /**
+         * Fails unless the status code is 2xx.
+         */
+        public Response assertSuccess() {
+            if (getStatusCode() / 100 != 2) {
+                throw new AssertionError("Got " + getStatusCode() + " from " + response.uri() + ": " + response.body());
+            }
+            return this;
+        }
+
+        @Override
+        public String toString() {
+            return response.toString();
+        }
+    }
+}
@@ -0,0 +1,368 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.jvnet.hudson.test;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * Pull parser for JSON which never holds more than the current value in memory,
+ * for walking over very large responses such as {@code /api/json?tree=…} without building a {@code JSONObject}.
+ * <pre>{@code
+ * try (JsonStreamReader r = client.openJSON("api/json?tree=jobs[name,color]")) {
+ *     r.forEachValue((path, value) -> {
+ *         if (path.endsWith(".color")) {
+ *             assertEquals("blue", value);
+ *         }
+ *     });
+ * }
+ * }</pre>
+ * @see JsonApiClient#openJSON
+ */
+public final class JsonStreamReader implements Closeable {
+
+    public enum Token {
+        START_OBJECT,
+        END_OBJECT,
+        START_ARRAY,
+        END_ARRAY,
+        /** A property name; see {@link #getName}. */
+        NAME,
+        /** A string, number, boolean or null; see {@link #getValue}. */
+        VALUE,
+        END_DOCUMENT
+    }
+
+    private enum State {
+        FIRST,
+        NEXT,
+        VALUE,
+        AFTER_VALUE
+    }
+
+    private static final class Frame {
+        final boolean object;
+        State state = State.FIRST;
+
+        @CheckForNull
+        String name;
+
+        int index = -1;
+
+        Frame(boolean object) {
+            this.object = object;
+        }
+    }
+
+    private final Reader reader;
+    private final List<Frame> stack = new ArrayList<>();
+    private boolean started;
+    private int peeked = -2;
+    private long offset;
+
+    @CheckForNull
+    private Object value;
+
+    private final StringBuilder buffer = new StringBuilder();
+
+    public JsonStreamReader(@NonNull Reader reader) {
+        this.reader = reader instanceof BufferedReader ? reader : new BufferedReader(reader);
+    }
+
+    /**
+     * Advances to the next token.
+     */
+    public Token next() throws IOException {
+        value = null;
+        int c = readNonWhitespace();
+        if (stack.isEmpty()) {
+            if (!started) {
+                started = true;
+                return readValue(c);
+            }
+            if (c != -1) {
+                throw syntaxError("trailing content", c);
+            }
+            return Token.END_DOCUMENT;
+        }
+        Frame top = stack.get(stack.size() - 1);
+        if (top.object) {
+            switch (top.state) {
+                case FIRST:
+                    if (c == '}') {
+                        stack.remove(stack.size() - 1);
+                        return Token.END_OBJECT;
+                    }
+                    return readName(top, c);
+                case AFTER_VALUE:
+                    if (c == '}') {
+                        stack.remove(stack.size() - 1);
+                        return Token.END_OBJECT;
+                    }
+                    expect(',', c);
+                    return readName(top, readNonWhitespace());
+                default:
+                    top.state = State.AFTER_VALUE;
+                    return readValue(c);
+            }
+        } else {
+            if (c == ']' && top.state != State.NEXT) {
+                stack.remove(stack.size() - 1);
+                return Token.END_ARRAY;
+            }
+            if (top.state == State.AFTER_VALUE) {
+                expect(',', c);
+                top.state = State.NEXT;
+                return next();
+            }
+            top.index++;
+            top.state = State.AFTER_VALUE;
+            return readValue(c);
+        }
+    }
+
+    /**
+     * The property name after {@link Token#NAME}.
+     */
+    public String getName() {
+        Frame top = stack.get(stack.size() - 1);
+        if (!top.object || top.name == null) {
+            throw new IllegalStateException("not at a property name");
+        }
+        return top.name;
+    }
+
+    /**
+     * The value after {@link Token#VALUE}:
+     * a {@link String}, {@link Boolean}, {@link Long}, {@link BigInteger} (if too large for a long),
+     * {@link Double}, or null.
+     */
+    @CheckForNull
+    public Object getValue() {
+        return value;
+    }
+
+    /**
+     * The location of the current token, such as {@code jobs[3].name}; empty at the top level.
+     */
+    public String getPath() {
+        StringBuilder sb = new StringBuilder();
+        for (Frame f : stack) {
+            if (f.object && f.name != null) {
+                if (sb.length() > 0) {
+                    sb.append('.');
+                }
+                sb.append(f.name);
+            } else if (!f.object && f.index >= 0) {
+                sb.append('[').append(f.index).append(']');
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Skips the next value, including all of its contents if it is an object or array.
+     * Typically called after {@link Token#NAME}.
+     */
+    public void skipValue() throws IOException {
+        int depth = 0;
+        do {
+            switch (next()) {
+                case START_OBJECT, START_ARRAY -> depth++;
+                case END_OBJECT, END_ARRAY -> depth--;
+                case END_DOCUMENT -> throw new IOException("unexpected end of document");
+                default -> {}
+            }
+        } while (depth > 0);
+    }
+
+    /**
+     * Reads the rest of the document, passing each scalar value along with its {@link #getPath}.
+     */
+    public void forEachValue(@NonNull BiConsumer<String, Object> consumer) throws IOException {
+        Token t;
+        while ((t = next()) != Token.END_DOCUMENT) {
+            if (t == Token.VALUE) {
+                consumer.accept(getPath(), value);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private Token readName(Frame top, int c) throws IOException {
+        expect('"', c);
+        top.name = readString();
+        expect(':', readNonWhitespace());
+        top.state = State.VALUE;
+        return Token.NAME;
+    }
+
+    private Token readValue(int c) throws IOException {
+        switch (c) {
+            case '{':
+                stack.add(new Frame(true));
+                return Token.START_OBJECT;
+            case '[':
+                stack.add(new Frame(false));
+                return Token.START_ARRAY;
+            case '"':
+                value = readString();
+                return Token.VALUE;
+            case 't':
+                readLiteral("rue");
+                value = Boolean.TRUE;
+                return Token.VALUE;
+            case 'f':
+                readLiteral("alse");
+                value = Boolean.FALSE;
+                return Token.VALUE;
+            case 'n':
+                readLiteral("ull");
+                return Token.VALUE;
+            default:
+                if (c == '-' || c >= '0' && c <= '9') {
+                    value = readNumber(c);
+                    return Token.VALUE;
+                }
+                throw syntaxError("expected a value", c);
+        }
+    }
+
+    private String readString() throws IOException {
+        buffer.setLength(0);
+        while (true) {
+            int c = read();
+            switch (c) {
+                case -1:
+                    throw syntaxError("unterminated string", c);
+                case '"':
+                    return buffer.toString();
+                case '\\':
+                    int e = read();
+                    switch (e) {
+                        case 'b' -> buffer.append('\b');
+                        case 'f' -> buffer.append('\f');
+                        case 'n' -> buffer.append('\n');
+                        case 'r' -> buffer.append('\r');
+                        case 't' -> buffer.append('\t');
+                        case 'u' -> {
+                            int code = 0;
+                            for (int i = 0; i < 4; i++) {
+                                int digit = Character.digit(read(), 16);
+                                if (digit < 0) {
+                                    throw syntaxError("bad unicode escape", e);
+                                }
+                                code = code * 16 + digit;
+                            }
+                            buffer.append((char) code);
+                        }
+                        case '"', '\\', '/' -> buffer.append((char) e);
+                        default -> throw syntaxError("bad escape", e);
+                    }
+                    break;
+                default:
+                    buffer.append((char) c);
+            }
+        }
+    }
+
+    private Object readNumber(int first) throws IOException {
+        buffer.setLength(0);
+        buffer.append((char) first);
+        boolean integral = true;
+        while (true) {
+            int c = read();
+            if (c >= '0' && c <= '9' || c == '-' || c == '+') {
+                buffer.append((char) c);
+            } else if (c == '.' || c == 'e' || c == 'E') {
+                integral = false;
+                buffer.append((char) c);
+            } else {
+                peeked = c;
+                break;
+            }
+        }
+        String s = buffer.toString();
+        try {
+            if (integral) {
+                BigInteger i = new BigInteger(s);
+                return i.bitLength() < Long.SIZE ? (Object) i.longValue() : i;
+            }
+            return Double.parseDouble(s);
+        } catch (NumberFormatException x) {
+            throw new IOException("bad number " + s + " at offset " + offset, x);
+        }
+    }
+
+    private void readLiteral(String rest) throws IOException {
+        for (int i = 0; i < rest.length(); i++) {
+            int c = read();
+            if (c != rest.charAt(i)) {
+                throw syntaxError("bad literal", c);
+            }
+        }
+    }
+
+    private void expect(char expected, int c) throws IOException {
+        if (c != expected) {
+            throw syntaxError("expected '" + expected + "'", c);
+        }
+    }
+
+    private int readNonWhitespace() throws IOException {
+        int c;
+        do {
+            c = read();
+        } while (c == ' ' || c == '\n' || c == '\r' || c == '\t');
+        return c;
+    }
+
+    private int read() throws IOException {
+        if (peeked != -2) {
+            int c = peeked;
+            peeked = -2;
+            return c;
+        }
+        offset++;
+        return reader.read();
+    }
+
+    private IOException syntaxError(String message, int c) {
+        return new IOException(message + " but got " + (c == -1 ? "end of input" : "'" + (char) c + "'")
+                + " at offset " + offset + (stack.isEmpty() ? "" : " (" + getPath() + ")"));
+    }
+}
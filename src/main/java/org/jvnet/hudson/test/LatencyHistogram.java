@@ -0,0 +1,188 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.jvnet.hudson.test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe histogram of durations with bounded memory, suitable for recording millions of samples from many threads.
+ * Values are kept in log-linear buckets (16 per power of two), so percentiles are accurate to within about 6%.
+ * Minimum, maximum, count and mean are exact.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator min = new LongAccumulator(Math::min, Long.MAX_VALUE);
+    private final LongAccumulator max = new LongAccumulator(Math::max, Long.MIN_VALUE);
+
+    /**
+     * Records one sample.
+     * @param nanos a duration in nanoseconds; negative values are treated as zero
+     */
+    public void record(long nanos) {
+        long v = Math.max(nanos, 0);
+        buckets.incrementAndGet(index(v));
+        count.increment();
+        sum.add(v);
+        min.accumulate(v);
+        max.accumulate(v);
+    }
+
+    public void record(Duration d) {
+        record(d.toNanos());
+    }
+
+    /**
+     * Records the time elapsed since a start time obtained from {@link System#nanoTime}.
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Adds all samples of another histogram to this one.
+     */
+    public void add(LatencyHistogram other) {
+        long n = other.getCount();
+        if (n == 0) {
+            return;
+        }
+        for (int i = 0; i < BUCKETS; i++) {
+            long c = other.buckets.get(i);
+            if (c != 0) {
+                buckets.addAndGet(i, c);
+            }
+        }
+        count.add(n);
+        sum.add(other.sum.sum());
+        min.accumulate(other.min.get());
+        max.accumulate(other.max.get());
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public Duration getMin() {
+        return getCount() == 0 ? Duration.ZERO : Duration.ofNanos(min.get());
+    }
+
+    public Duration getMax() {
+        return getCount() == 0 ? Duration.ZERO : Duration.ofNanos(max.get());
+    }
+
+    public Duration getMean() {
+        long n = getCount();
+        return n == 0 ? Duration.ZERO : Duration.ofNanos(sum.sum() / n);
+    }
+
+    /**
+     * Estimates a percentile.
+     * @param percentile between 0 and 100
+     * @return an approximation of the value below which the given percentage of samples fall
+     */
+    public Duration getPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("percentile must be between 0 and 100: " + percentile);
+        }
+        long n = getCount();
+        if (n == 0) {
+            return Duration.ZERO;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * n));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += buckets.get(i);
+            if (seen >= rank) {
+                long value = Math.min(Math.max(upperBound(i), min.get()), max.get());
+                return Duration.ofNanos(value);
+            }
+        }
+        return getMax();
+    }
+
+    /**
+     * Clears all samples.
+     * Not atomic with respect to concurrent {@link #record} calls.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets.set(i, 0);
+        }
+        count.reset();
+        sum.reset();
+        min.reset();
+        max.reset();
+    }
+
+    static int index(long v) {
+        if (v < SUB_BUCKETS) {
+            return (int) v;
+        }
+        int shift = Long.SIZE - 1 - Long.numberOfLeadingZeros(v) - SUB_BUCKET_BITS;
+        int sub = (int) (v >>> shift) & (SUB_BUCKETS - 1);
+        return (shift + 1) * SUB_BUCKETS + sub;
+    }
+
+    static long upperBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long sub = index % SUB_BUCKETS;
+        long upper = (SUB_BUCKETS + sub + 1) << shift;
+        return upper <= 0 ? Long.MAX_VALUE : upper - 1;
+    }
+
+    @Override
+    public String toString() {
+        return "count=" + getCount() + " min=" + format(getMin()) + " mean=" + format(getMean()) + " p50="
+                + format(getPercentile(50)) + " p90=" + format(getPercentile(90)) + " p99="
+                + format(getPercentile(99)) + " max=" + format(getMax());
+    }
+
+    private static String format(Duration d) {
+        long nanos = d.toNanos();
+        if (nanos < TimeUnit.MICROSECONDS.toNanos(10)) {
+            return nanos + "ns";
+        } else if (nanos < TimeUnit.MILLISECONDS.toNanos(10)) {
+            return TimeUnit.NANOSECONDS.toMicros(nanos) + "µs";
+        } else if (nanos < TimeUnit.SECONDS.toNanos(10)) {
+            return TimeUnit.NANOSECONDS.toMillis(nanos) + "ms";
+        } else {
+            return TimeUnit.NANOSECONDS.toSeconds(nanos) + "s";
+        }
+    }
+}
@@ -0,0 +1,433 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.jvnet.hudson.test;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.model.User;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import net.sf.json.JSONObject;
+
+/**
+ * Drives concurrent simulated users against a {@link JenkinsRule} and records latency, throughput and errors.
+ * Each user gets its own {@link JsonApiClient} (sharing a connection pool), so no HtmlUnit is involved.
+ * Usage: <pre>{@code
+ * LoadGenerator.Result result = j.load()
+ *         .users(200)
+ *         .rampUp(Duration.ofSeconds(5))
+ *         .duration(Duration.ofSeconds(30))
+ *         .thinkTime(Duration.ofMillis(50), Duration.ofMillis(200))
+ *         .withBasicApiToken("alice", "bob")
+ *         .get("api/json?tree=jobs[name]")
+ *         .scenario("build", c -> c.post("job/p/build", new JSONObject()))
+ *         .run();
+ * result.assertErrorRate(0);
+ * result.assertPercentile(99, Duration.ofMillis(200));
+ * }</pre>
+ * @see JenkinsRule#load
+ */
+public final class LoadGenerator {
+
+    /**
+     * One timed step of a user's scenario.
+     * Throwing any exception, or an {@link AssertionError}, counts as an error.
+     */
+    @FunctionalInterface
+    public interface Step {
+        void run(JsonApiClient client) throws Exception;
+    }
+
+    private static final int MAX_RECORDED_FAILURES = 10;
+
+    private final JenkinsRule j;
+    private int users = 1;
+    private Duration rampUp = Duration.ZERO;
+
+    @CheckForNull
+    private Duration duration;
+
+    private int iterations = 1;
+    private Duration minThinkTime = Duration.ZERO;
+    private Duration maxThinkTime = Duration.ZERO;
+    private final List<String> logins = new ArrayList<>();
+    private boolean http2;
+    private long seed = 0;
+    private final Map<String, Step> steps = new LinkedHashMap<>();
+
+    LoadGenerator(JenkinsRule j) {
+        this.j = j;
+    }
+
+    /**
+     * Number of concurrent simulated users; defaults to 1.
+     */
+    public LoadGenerator users(int users) {
+        if (users < 1) {
+            throw new IllegalArgumentException("users must be positive");
+        }
+        this.users = users;
+        return this;
+    }
+
+    /**
+     * Spreads the start of the users evenly over the given period; by default all start at once.
+     */
+    public LoadGenerator rampUp(@NonNull Duration rampUp) {
+        this.rampUp = rampUp;
+        return this;
+    }
+
+    /**
+     * Keeps each user repeating its scenario until this much time has passed after the ramp-up.
+     * Overrides {@link #iterations}.
+     */
+    public LoadGenerator duration(@NonNull Duration duration) {
+        this.duration = duration;
+        return this;
+    }
+
+    /**
+     * Number of times each user runs its scenario, unless {@link #duration} is set; defaults to 1.
+     */
+    public LoadGenerator iterations(int iterations) {
+        if (iterations < 1) {
+            throw new IllegalArgumentException("iterations must be positive");
+        }
+        this.iterations = iterations;
+        return this;
+    }
+
+    /**
+     * Pauses each user for this long after every step.
+     */
+    public LoadGenerator thinkTime(@NonNull Duration thinkTime) {
+        return thinkTime(thinkTime, thinkTime);
+    }
+
+    /**
+     * Pauses each user for a uniformly random time in the given range after every step.
+     */
+    public LoadGenerator thinkTime(@NonNull Duration min, @NonNull Duration max) {
+        if (max.compareTo(min) < 0) {
+            throw new IllegalArgumentException("max think time must not be less than min");
+        }
+        this.minThinkTime = min;
+        this.maxThinkTime = max;
+        return this;
+    }
+
+    /**
+     * Authenticates users with API tokens of the given Jenkins users, assigned round-robin.
+     * @see JenkinsRule.WebClient#withBasicApiToken(String)
+     */
+    public LoadGenerator withBasicApiToken(@NonNull String... userIds) {
+        Collections.addAll(logins, userIds);
+        return this;
+    }
+
+    /**
+     * Uses HTTP/2 where available.
+     * @see JsonApiClient#withHttp2
+     */
+    public LoadGenerator withHttp2() {
+        http2 = true;
+        return this;
+    }
+
+    /**
+     * Seed for think time randomization, so that runs are repeatable.
+     */
+    public LoadGenerator withSeed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    /**
+     * Adds a step which requests a page or REST endpoint, failing unless the status code is 2xx.
+     * Statistics are recorded under the path.
+     */
+    public LoadGenerator get(@NonNull String path) {
+        return scenario(path, c -> c.get(path).assertSuccess());
+    }
+
+    /**
+     * Adds a custom step to the scenario every user runs, in the order added.
+     * Statistics are recorded under the given name.
+     */
+    public LoadGenerator scenario(@NonNull String name, @NonNull Step step) {
+        if (steps.putIfAbsent(name, step) != null) {
+            throw new IllegalArgumentException("duplicate step " + name);
+        }
+        return this;
+    }
+
+    /**
+     * Runs the load and waits for all users to finish.
+     */
+    public Result run() throws Exception {
+        if (steps.isEmpty()) {
+            throw new IllegalStateException("no steps defined");
+        }
+        JsonApiClient base = j.createJsonApiClient();
+        if (http2) {
+            base.withHttp2();
+        }
+        Map<String, String> tokens = new HashMap<>();
+        for (String login : logins) {
+            tokens.computeIfAbsent(login, id -> j.createApiToken(User.getById(id, true)));
+        }
+        Map<String, StepStats> stats = new LinkedHashMap<>();
+        steps.keySet().forEach(name -> stats.put(name, new StepStats()));
+        List<Callable<Void>> tasks = new ArrayList<>();
+        long start = System.nanoTime();
+        long deadline = duration == null ? Long.MAX_VALUE : start + rampUp.toNanos() + duration.toNanos();
+        for (int i = 0; i < users; i++) {
+            JsonApiClient client = base.copy();
+            if (!logins.isEmpty()) {
+                String login = logins.get(i % logins.size());
+                client.withApiToken(login, tokens.get(login));
+            }
+            long startAt = start + rampUp.toNanos() * i / users;
+            Random random = new Random(seed + i);
+            tasks.add(() -> {
+                sleep(startAt - System.nanoTime());
+                int iteration = 0;
+                while (duration == null ? iteration++ < iterations : System.nanoTime() < deadline) {
+                    for (Map.Entry<String, Step> step : steps.entrySet()) {
+                        stats.get(step.getKey()).run(step.getValue(), client);
+                        sleep(thinkTime(random));
+                    }
+                }
+                return null;
+            });
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(
+                users, new NamingThreadFactory(new DaemonThreadFactory(), "LoadGenerator"));
+        try {
+            for (Future<Void> f : executor.invokeAll(tasks)) {
+                f.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return new Result(users, Duration.ofNanos(System.nanoTime() - start), stats);
+    }
+
+    private long thinkTime(Random random) {
+        long min = minThinkTime.toNanos();
+        long max = maxThinkTime.toNanos();
+        return max == min ? min : min + (long) (random.nextDouble() * (max - min));
+    }
+
+    private static void sleep(long nanos) throws InterruptedException {
+        if (nanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        }
+    }
+
+    private static final class StepStats {
+        final LatencyHistogram latency = new LatencyHistogram();
+        final LongAdder errors = new LongAdder();
+        final List<String> failures = Collections.synchronizedList(new ArrayList<>());
+
+        void run(Step step, JsonApiClient client) {
+            long start = System.nanoTime();
+            try {
+                step.run(client);
+            } catch (Exception | AssertionError x) {
+                errors.increment();
+                if (failures.size() < MAX_RECORDED_FAILURES) {
+                    failures.add(x.toString());
+                }
+            } finally {
+                latency.recordSince(start);
+            }
+        }
+    }
+
+    /**
+     * Statistics of a completed run.
+     */
+    public static final class Result {
+
+        private final int users;
+        private final Duration elapsed;
+        private final Map<String, StepStats> stats;
+        private final LatencyHistogram overall = new LatencyHistogram();
+
+        Result(int users, Duration elapsed, Map<String, StepStats> stats) {
+            this.users = users;
+            this.elapsed = elapsed;
+            this.stats = stats;
+            stats.values().forEach(s -> overall.add(s.latency));
+        }
+
+        /**
+         * Wall-clock time of the run, including ramp-up.
+         */
+        public Duration getElapsed() {
+            return elapsed;
+        }
+
+        public long getRequests() {
+            return stats.values().stream().mapToLong(s -> s.latency.getCount()).sum();
+        }
+
+        public long getErrors() {
+            return stats.values().stream().mapToLong(s -> s.errors.sum()).sum();
+        }
+
+        /**
+         * Fraction of steps which failed, between 0 and 1.
+         */
+        public double getErrorRate() {
+            long requests = getRequests();
+            return requests == 0 ? 0 : (double) getErrors() / requests;
+        }
+
+        /**
+         * Completed steps per second.
+         */
+        public double getThroughput() {
+            return getRequests() / (elapsed.toNanos() / 1e9);
+        }
+
+        /**
+         * Latency of a single step.
+         */
+        public LatencyHistogram getLatency(@NonNull String step) {
+            StepStats s = stats.get(step);
+            if (s == null) {
+                throw new IllegalArgumentException("no such step " + step + " among " + stats.keySet());
+            }
+            return s.latency;
+        }
+
+        /**
+         * Latency of all steps combined.
+         */
+        public LatencyHistogram getLatency() {
+            return overall;
+        }
+
+        /**
+         * Fails if the given percentile of all steps combined exceeds a limit, such as {@code p99 < 200ms}.
+         */
+        public Result assertPercentile(double percentile, @NonNull Duration max) {
+            Duration actual = getLatency().getPercentile(percentile);
+            if (actual.compareTo(max) > 0) {
+                throw new AssertionError("p" + percentile + " was " + actual.toMillis() + "ms, above " + max.toMillis()
+                        + "ms\n" + this);
+            }
+            return this;
+        }
+
+        /**
+         * Fails if more than the given fraction of steps failed.
+         */
+        public Result assertErrorRate(double max) {
+            if (getErrorRate() > max) {
+                throw new AssertionError("error rate " + getErrorRate() + " above " + max + "\n" + this);
+            }
+            return this;
+        }
+
+        /**
+         * Exports the statistics, with durations in milliseconds.
+         */
+        public JSONObject toJSON() {
+            JSONObject json = new JSONObject();
+            json.put("users", users);
+            json.put("elapsed", elapsed.toMillis());
+            json.put("requests", getRequests());
+            json.put("errors", getErrors());
+            json.put("throughput", getThroughput());
+            json.put("latency", toJSON(getLatency()));
+            JSONObject steps = new JSONObject();
+            stats.forEach((name, s) -> {
+                JSONObject step = toJSON(s.latency);
+                step.put("errors", s.errors.sum());
+                step.put("failures", new ArrayList<>(s.failures));
+                steps.put(name, step);
+            });
+            json.put("steps", steps);
+            return json;
+        }
+
+        private static JSONObject toJSON(LatencyHistogram h) {
+            JSONObject json = new JSONObject();
+            json.put("count", h.getCount());
+            json.put("min", millis(h.getMin()));
+            json.put("mean", millis(h.getMean()));
+            json.put("p50", millis(h.getPercentile(50)));
+            json.put("p90", millis(h.getPercentile(90)));
+            json.put("p99", millis(h.getPercentile(99)));
+            json.put("p999", millis(h.getPercentile(99.9)));
+            json.put("max", millis(h.getMax()));
+            return json;
+        }
+
+        private static double millis(Duration d) {
+            return d.toNanos() / 1e6;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(users)
+                    .append(" users, ")
+                    .append(getRequests())
+                    .append(" requests in ")
+                    .append(elapsed.toMillis())
+                    .append("ms (")
+                    .append(String.format("%.1f", getThroughput()))
+                    .append("/s), ")
+                    .append(getErrors())
+                    .append(" errors");
+            stats.forEach((name, s) -> {
+                sb.append("\n  ").append(name).append(": ").append(s.latency);
+                if (s.errors.sum() > 0) {
+                    sb.append(" errors=").append(s.errors.sum()).append(' ').append(s.failures);
+                }
+            });
+            return sb.toString();
+        }
+    }
+}
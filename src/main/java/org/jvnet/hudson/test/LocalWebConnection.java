@@ -0,0 +1,239 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.jvnet.hudson.test;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.eclipse.jetty.server.LocalConnector;
+import org.htmlunit.FormEncodingType;
+import org.htmlunit.HttpMethod;
+import org.htmlunit.WebClient;
+import org.htmlunit.WebConnection;
+import org.htmlunit.WebRequest;
+import org.htmlunit.WebResponse;
+import org.htmlunit.WebResponseData;
+import org.htmlunit.util.NameValuePair;
+
+/**
+ * Sends HtmlUnit requests to the test server through a Jetty {@link LocalConnector}, without any socket.
+ * Requests to other hosts, and multipart form submissions, go through the original connection.
+ * Only preemptive authentication (such as {@link JenkinsRule.WebClient#withBasicCredentials}) is supported.
+ * @see JenkinsRule.WebClient#withLocalConnector
+ */
+final class LocalWebConnection implements WebConnection {
+
+    private final WebClient client;
+    private final LocalConnector connector;
+    private final URL base;
+    private final WebConnection fallback;
+
+    LocalWebConnection(WebClient client, LocalConnector connector, URL base, WebConnection fallback) {
+        this.client = client;
+        this.connector = connector;
+        this.base = base;
+        this.fallback = fallback;
+    }
+
+    @Override
+    public WebResponse getResponse(WebRequest request) throws IOException {
+        URL url = request.getUrl();
+        if (!url.getProtocol().equals(base.getProtocol())
+                || !url.getHost().equals(base.getHost())
+                || url.getPort() != base.getPort()
+                || request.getEncodingType() == FormEncodingType.MULTIPART
+                        && !request.getRequestParameters().isEmpty()) {
+            return fallback.getResponse(request);
+        }
+        long start = System.currentTimeMillis();
+        boolean head = request.getHttpMethod() == HttpMethod.HEAD;
+        ByteBuffer raw;
+        try {
+            long timeout = client.getOptions().getTimeout();
+            raw = connector.getResponse(
+                    ByteBuffer.wrap(encode(request)), head, timeout > 0 ? timeout : TimeUnit.MINUTES.toMillis(10),
+                    TimeUnit.MILLISECONDS);
+        } catch (IOException x) {
+            throw x;
+        } catch (Exception x) {
+            throw new IOException(x);
+        }
+        if (raw == null) {
+            throw new IOException("timed out waiting for a response to " + url);
+        }
+        WebResponseData data = decode(raw, head);
+        for (NameValuePair header : data.getResponseHeaders()) {
+            if (header.getName().equalsIgnoreCase("Set-Cookie")) {
+                client.addCookie(header.getValue(), url, this);
+            }
+        }
+        return new WebResponse(data, request, System.currentTimeMillis() - start);
+    }
+
+    private byte[] encode(WebRequest request) throws IOException {
+        URL url = request.getUrl();
+        Charset charset = request.getCharset() != null ? request.getCharset() : StandardCharsets.UTF_8;
+        String target = url.getPath().isEmpty() ? "/" : url.getPath();
+        String query = url.getQuery();
+        byte[] body = new byte[0];
+        String contentType = null;
+        String parameters = encode(request.getRequestParameters(), charset);
+        if (request.getHttpMethod() == HttpMethod.GET || request.getHttpMethod() == HttpMethod.HEAD) {
+            if (!parameters.isEmpty()) {
+                query = query == null ? parameters : query + "&" + parameters;
+            }
+        } else if (request.getRequestBody() != null) {
+            body = request.getRequestBody().getBytes(charset);
+        } else if (!parameters.isEmpty()) {
+            body = parameters.getBytes(StandardCharsets.US_ASCII);
+            contentType = FormEncodingType.URL_ENCODED.getName();
+        }
+        if (query != null) {
+            target += "?" + query;
+        }
+        StringBuilder head = new StringBuilder();
+        head.append(request.getHttpMethod().name()).append(' ').append(target).append(" HTTP/1.1\r\n");
+        head.append("Host: ").append(url.getHost()).append(':').append(url.getPort()).append("\r\n");
+        boolean hasContentType = false;
+        for (Map.Entry<String, String> header : request.getAdditionalHeaders().entrySet()) {
+            String name = header.getKey();
+            if (name.equalsIgnoreCase("Host")
+                    || name.equalsIgnoreCase("Content-Length")
+                    || name.equalsIgnoreCase("Connection")
+                    || name.equalsIgnoreCase("Accept-Encoding")) {
+                continue;
+            }
+            hasContentType |= name.equalsIgnoreCase("Content-Type");
+            head.append(name).append(": ").append(header.getValue()).append("\r\n");
+        }
+        if (contentType != null && !hasContentType) {
+            head.append("Content-Type: ").append(contentType).append("\r\n");
+        }
+        String cookies = client.getCookies(url).stream()
+                .map(c -> c.getName() + "=" + c.getValue())
+                .collect(Collectors.joining("; "));
+        if (!cookies.isEmpty()) {
+            head.append("Cookie: ").append(cookies).append("\r\n");
+        }
+        head.append("Content-Length: ").append(body.length).append("\r\n");
+        head.append("Connection: close\r\n\r\n");
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        baos.write(head.toString().getBytes(StandardCharsets.ISO_8859_1));
+        baos.write(body);
+        return baos.toByteArray();
+    }
+
+    private static String encode(List<NameValuePair> parameters, Charset charset) {
+        return parameters.stream()
+                .map(p -> URLEncoder.encode(p.getName(), charset) + "="
+                        + URLEncoder.encode(p.getValue() == null ? "" : p.getValue(), charset))
+                .collect(Collectors.joining("&"));
+    }
+
+    /**
+     * Parses one HTTP/1.1 response.
+     */
+    static WebResponseData decode(@NonNull ByteBuffer raw, boolean head) throws IOException {
+        byte[] bytes = new byte[raw.remaining()];
+        raw.get(bytes);
+        int end = indexOf(bytes, "\r\n\r\n".getBytes(StandardCharsets.US_ASCII), 0);
+        if (end < 0) {
+            throw new IOException("malformed response: " + new String(bytes, StandardCharsets.ISO_8859_1));
+        }
+        String[] lines = new String(bytes, 0, end, StandardCharsets.ISO_8859_1).split("\r\n");
+        String[] status = lines[0].split(" ", 3);
+        int code = Integer.parseInt(status[1]);
+        String message = status.length > 2 ? status[2] : "";
+        List<NameValuePair> headers = new ArrayList<>();
+        boolean chunked = false;
+        int contentLength = -1;
+        for (int i = 1; i < lines.length; i++) {
+            int colon = lines[i].indexOf(':');
+            String name = lines[i].substring(0, colon).trim();
+            String value = lines[i].substring(colon + 1).trim();
+            headers.add(new NameValuePair(name, value));
+            if (name.equalsIgnoreCase("Transfer-Encoding") && value.equalsIgnoreCase("chunked")) {
+                chunked = true;
+            } else if (name.equalsIgnoreCase("Content-Length")) {
+                contentLength = Integer.parseInt(value);
+            }
+        }
+        int bodyStart = end + 4;
+        byte[] body;
+        if (head || code == 204 || code == 304 || code / 100 == 1) {
+            body = new byte[0];
+        } else if (chunked) {
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            int pos = bodyStart;
+            while (true) {
+                int eol = indexOf(bytes, "\r\n".getBytes(StandardCharsets.US_ASCII), pos);
+                String size = new String(bytes, pos, eol - pos, StandardCharsets.US_ASCII);
+                int semicolon = size.indexOf(';');
+                int n = Integer.parseInt((semicolon >= 0 ? size.substring(0, semicolon) : size).trim(), 16);
+                if (n == 0) {
+                    break;
+                }
+                baos.write(bytes, eol + 2, n);
+                pos = eol + 2 + n + 2;
+            }
+            body = baos.toByteArray();
+        } else if (contentLength >= 0) {
+            body = new byte[contentLength];
+            System.arraycopy(bytes, bodyStart, body, 0, contentLength);
+        } else {
+            body = new byte[bytes.length - bodyStart];
+            System.arraycopy(bytes, bodyStart, body, 0, body.length);
+        }
+        return new WebResponseData(body, code, message, headers);
+    }
+
+    private static int indexOf(byte[] haystack, byte[] needle, int from) {
+        outer:
+        for (int i = from; i <= haystack.length - needle.length; i++) {
+            for (int j = 0; j < needle.length; j++) {
+                if (haystack[i + j] != needle[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    @Override
+    public void close() throws IOException {
+        fallback.close();
+    }
+}
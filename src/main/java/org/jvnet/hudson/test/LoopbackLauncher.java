@@ -0,0 +1,150 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.jvnet.hudson.test;
+
+import hudson.Extension;
+import hudson.model.Descriptor;
+import hudson.model.Slave;
+import hudson.model.TaskListener;
+import hudson.remoting.FastPipedInputStream;
+import hudson.remoting.FastPipedOutputStream;
+import hudson.slaves.ComputerLauncher;
+import hudson.slaves.SlaveComputer;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.kohsuke.stapler.DataBoundConstructor;
+
+/**
+ * Launches an agent inside the test JVM, running the remoting channel over in-memory pipes.
+ * <p>
+ * The agent side is loaded from {@code agent.jar} in a dedicated class loader (shared by all loopback agents),
+ * so callables are still serialized and their classes still go through remote class loading,
+ * just as they would with an agent in a separate JVM.
+ * What you save is the JVM startup and the memory of an extra process per agent,
+ * which makes it practical to attach hundreds of agents for queue or load balancer tests.
+ * <p>
+ * Processes launched by builds running on such an agent are still forked normally,
+ * and anything relying on agent JVM state (system properties, {@code System.exit}, etc.) is shared with the test.
+ *
+ * @see JenkinsRule#createLoopbackAgent()
+ */
+public class LoopbackLauncher extends ComputerLauncher {
+
+    private static final Logger LOGGER = Logger.getLogger(LoopbackLauncher.class.getName());
+
+    /**
+     * {@code hudson.remoting.Launcher#main(InputStream, OutputStream)} as loaded in the agent class loader.
+     */
+    private static Method agentMain;
+
+    private transient Thread agentThread;
+    private transient List<Closeable> pipes;
+
+    @DataBoundConstructor // in case anyone needs to configRoundtrip such a node
+    public LoopbackLauncher() {}
+
+    @Override
+    public synchronized void launch(SlaveComputer computer, TaskListener listener)
+            throws IOException, InterruptedException {
+        Method main = agentMain();
+        FastPipedInputStream controllerIn = new FastPipedInputStream();
+        FastPipedOutputStream agentOut = new FastPipedOutputStream(controllerIn);
+        FastPipedInputStream agentIn = new FastPipedInputStream();
+        FastPipedOutputStream controllerOut = new FastPipedOutputStream(agentIn);
+        pipes = List.of(controllerIn, agentOut, agentIn, controllerOut);
+        String name = computer.getName();
+        agentThread = new Thread(
+                () -> {
+                    try {
+                        main.invoke(null, agentIn, agentOut);
+                    } catch (InvocationTargetException x) {
+                        LOGGER.log(Level.WARNING, "loopback agent " + name + " failed", x.getCause());
+                    } catch (IllegalAccessException x) {
+                        LOGGER.log(Level.WARNING, null, x);
+                    } finally {
+                        LOGGER.fine(() -> "loopback agent " + name + " terminated");
+                    }
+                },
+                "loopback agent " + name);
+        agentThread.setContextClassLoader(main.getDeclaringClass().getClassLoader());
+        agentThread.setDaemon(true);
+        agentThread.start();
+        listener.getLogger().println("Started loopback agent " + name);
+        computer.setChannel(controllerIn, controllerOut, listener, null);
+        LOGGER.log(Level.INFO, "loopback agent launched for {0}", name);
+    }
+
+    @Override
+    public synchronized void afterDisconnect(SlaveComputer computer, TaskListener listener) {
+        if (pipes != null) {
+            for (Closeable pipe : pipes) {
+                try {
+                    pipe.close();
+                } catch (IOException x) {
+                    LOGGER.log(Level.FINE, null, x);
+                }
+            }
+            pipes = null;
+        }
+        if (agentThread != null) {
+            try {
+                agentThread.join(10_000);
+            } catch (InterruptedException x) {
+                Thread.currentThread().interrupt();
+            }
+            if (agentThread.isAlive()) {
+                LOGGER.warning(() -> "loopback agent for " + computer.getName() + " did not terminate");
+            }
+            agentThread = null;
+        }
+    }
+
+    private static synchronized Method agentMain() throws IOException {
+        if (agentMain == null) {
+            URL agentJar = new Slave.JnlpJar("agent.jar").getURL();
+            ClassLoader loader = new URLClassLoader(
+                    "loopback-agent", new URL[] {agentJar}, ClassLoader.getPlatformClassLoader());
+            try {
+                agentMain = loader.loadClass("hudson.remoting.Launcher")
+                        .getMethod("main", InputStream.class, OutputStream.class);
+            } catch (ReflectiveOperationException x) {
+                throw new IOException("could not load remoting from " + agentJar, x);
+            }
+        }
+        return agentMain;
+    }
+
+    @Extension
+    public static class DescriptorImpl extends Descriptor<ComputerLauncher> {}
+}
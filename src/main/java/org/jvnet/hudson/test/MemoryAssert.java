@@ -34,6 +34,7 @@ import java.lang.ref.Reference;
 import java.lang.ref.SoftReference;
 import java.lang.ref.WeakReference;
 import java.lang.reflect.Field;
+import java.lang.reflect.InaccessibleObjectException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -63,6 +64,9 @@ import org.netbeans.insane.scanner.ScannerUtils;
  */
 public class MemoryAssert {
 
+    /** Overrides the number of threads used by {@link #increasedMemory}. */
+    private static final Integer WALKER_THREADS = Integer.getInteger("jth.memoryAssert.threads");
+
     private MemoryAssert() {}
 
     /**
@@ -123,12 +127,36 @@ public class MemoryAssert {
 
     /**
      * Counts how much more memory is held in Jenkins by doing some operation.
+     * Static fields are not considered.
+     * <p>The object graph is walked on one thread per processor, or on one thread if any {@code filters} are passed,
+     * as they may not be safe to call concurrently; {@code -Djth.memoryAssert.threads} overrides this.
+     * The test is skipped if some field in the graph cannot be made accessible.
      * @param callable an action
      * @param filters things to exclude
      * @return a histogram of the heap delta after running the operation
      * @since 1.500
      */
     public static List<HistogramElement> increasedMemory(Callable<Void> callable, Filter... filters) throws Exception {
+        return increasedMemory(callable, false, Set.of(), filters);
+    }
+
+    /**
+     * Counts how much more memory is held in Jenkins by doing some operation.
+     * <p>The object graph is walked on one thread per processor, or on one thread if any {@code filters} are passed,
+     * as they may not be safe to call concurrently; {@code -Djth.memoryAssert.threads} overrides this.
+     * The test is skipped if some field in the graph cannot be made accessible.
+     * @param callable an action
+     * @param analyzeStatic whether to also walk the static fields and class loaders of classes which are reached,
+     *                      which typically covers most of the JVM
+     * @param prunedPackages when {@code analyzeStatic} is set,
+     *                       packages (including subpackages) whose classes’ static fields should not be walked,
+     *                       such as {@code java.beans} or {@code com.sun}
+     * @param filters things to exclude
+     * @return a histogram of the heap delta after running the operation
+     */
+    public static List<HistogramElement> increasedMemory(
+            Callable<Void> callable, boolean analyzeStatic, Collection<String> prunedPackages, Filter... filters)
+            throws Exception {
         Filter f = ScannerUtils.skipNonStrongReferencesFilter();
         if (filters.length > 0) {
             Filter[] fs = new Filter[filters.length + 1];
@@ -136,24 +164,35 @@ public class MemoryAssert {
             System.arraycopy(filters, 0, fs, 1, filters.length);
             f = ScannerUtils.compoundFilter(fs);
         }
-        CountingVisitor v1 = new CountingVisitor();
-        ScannerUtils.scan(f, v1, Set.of(Jenkins.get()), false);
-        Set<Class<?>> old = v1.getClasses();
+        int threads = WALKER_THREADS != null
+                ? WALKER_THREADS
+                : filters.length > 0 ? 1 : Runtime.getRuntime().availableProcessors();
+        ObjectGraphWalker walker = new ObjectGraphWalker(f, analyzeStatic, prunedPackages, threads);
+        ObjectGraphWalker.Histogram before = walkJenkins(walker);
         callable.call();
-        CountingVisitor v2 = new CountingVisitor();
-        ScannerUtils.scan(f, v2, Set.of(Jenkins.get()), false);
+        ObjectGraphWalker.Histogram after = walkJenkins(walker);
         List<HistogramElement> elements = new ArrayList<>();
-        for (Class<?> c : v2.getClasses()) {
-            int delta = v2.getCountForClass(c) - (old.contains(c) ? v1.getCountForClass(c) : 0);
+        for (Class<?> c : after.getClasses()) {
+            int delta = after.getCountForClass(c) - before.getCountForClass(c);
             if (delta > 0) {
                 elements.add(new HistogramElement(
-                        c.getName(), delta, v2.getSizeForClass(c) - (old.contains(c) ? v1.getSizeForClass(c) : 0)));
+                        c.getName(), delta, after.getSizeForClass(c) - before.getSizeForClass(c)));
             }
         }
         Collections.sort(elements);
         return elements;
     }
 
+    private static ObjectGraphWalker.Histogram walkJenkins(ObjectGraphWalker walker) {
+        try {
+            return walker.walk(Jenkins.get());
+        } catch (InaccessibleObjectException x) {
+            // like INSANE without its MakeAccessible hook
+            assumeNoException(x);
+            throw x;
+        }
+    }
+
     @Deprecated
     public static void assertGC(WeakReference<?> reference) {
         assertGC(reference, true);
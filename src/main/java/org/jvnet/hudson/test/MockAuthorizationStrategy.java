@@ -24,6 +24,7 @@
 
 package org.jvnet.hudson.test;
 
+import edu.umd.cs.findbugs.annotations.CheckForNull;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import hudson.model.AbstractItem;
 import hudson.model.Item;
@@ -37,9 +38,13 @@ import hudson.security.SidACL;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import jenkins.model.Jenkins;
@@ -52,8 +57,20 @@ import org.acegisecurity.acls.sid.Sid;
  */
 public class MockAuthorizationStrategy extends AuthorizationStrategy {
 
+    /** Bound on memoized decisions, beyond which the cache starts over. */
+    private static final int MAX_CACHED_DECISIONS = 100_000;
+
+    private static final Pattern QUOTED = Pattern.compile("\\\\Q((?:(?!\\\\E).)*)\\\\E");
+    private static final Pattern QUOTED_FOLDER = Pattern.compile("\\\\Q((?:(?!\\\\E).)*)\\\\E\\(\\|/\\.\\+\\)");
+    private static final Pattern LITERAL = Pattern.compile("[^\\\\.\\[\\]{}()*+?^$|]*");
+
     private final List<Grant.GrantOn.GrantOnTo> grantsOnTo = new ArrayList<>();
 
+    private boolean cacheDecisions;
+
+    /** Grants by SID and permission, rebuilt lazily after any grant is added. */
+    private transient volatile Index index;
+
     /** Creates a new strategy granting no permissions. */
     public MockAuthorizationStrategy() {}
 
@@ -74,6 +91,18 @@ public class MockAuthorizationStrategy extends AuthorizationStrategy {
         return new Grant(effective);
     }
 
+    /**
+     * Memoizes each decision by item path, SID and permission until the next grant is added.
+     * Useful when benchmarking code which performs many permission checks, so that the cost of this strategy
+     * does not dominate; the memory used is bounded.
+     * @return this strategy, for fluent configuration
+     */
+    public MockAuthorizationStrategy cacheDecisions() {
+        cacheDecisions = true;
+        index = null;
+        return this;
+    }
+
     /**
      * Like {@link #grant} but does <em>not</em> honor {@link Permission#impliedBy}.
      */
@@ -148,7 +177,7 @@ public class MockAuthorizationStrategy extends AuthorizationStrategy {
                 }
                 b.append("(?:").append(rx).append(')');
             }
-            return new GrantOn(b.toString());
+            return new GrantOn(b.toString(), List.of(pathRegexps));
         }
 
         /**
@@ -159,8 +188,12 @@ public class MockAuthorizationStrategy extends AuthorizationStrategy {
 
             private final Pattern regexp;
 
-            GrantOn(String regexp) {
+            /** The individual expressions {@link #regexp} was built from; null if loaded from an older version. */
+            private final List<String> pathRegexps;
+
+            GrantOn(String regexp, List<String> pathRegexps) {
                 this.regexp = Pattern.compile(regexp);
+                this.pathRegexps = pathRegexps;
             }
 
             /** To some users or groups. */
@@ -196,20 +229,164 @@ public class MockAuthorizationStrategy extends AuthorizationStrategy {
                 }
 
                 MockAuthorizationStrategy add() {
-                    grantsOnTo.add(this);
+                    synchronized (MockAuthorizationStrategy.this) {
+                        grantsOnTo.add(this);
+                        index = null;
+                    }
                     return MockAuthorizationStrategy.this;
                 }
 
-                boolean matches(String path, String name, Permission permission) {
-                    return regexp.matcher(path).matches()
-                            && sids.contains(name)
-                            && // TODO consider IdStrategy
-                            permissions.contains(permission.getId());
+                void addTo(Index index) {
+                    List<PathMatcher> matchers = new ArrayList<>();
+                    if (pathRegexps == null) {
+                        matchers.add(new PathMatcher(PathMatcher.Kind.REGEX, null, regexp));
+                    } else {
+                        for (String rx : pathRegexps) {
+                            matchers.add(PathMatcher.of(rx));
+                        }
+                    }
+                    // TODO consider IdStrategy
+                    for (String sid : sids) {
+                        for (String permission : permissions) {
+                            index.add(sid, permission, matchers);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private Index index() {
+        Index i = index;
+        if (i == null) {
+            synchronized (this) {
+                i = index;
+                if (i == null) {
+                    i = new Index(cacheDecisions);
+                    for (Grant.GrantOn.GrantOnTo grantOnTo : grantsOnTo) {
+                        grantOnTo.addTo(i);
+                    }
+                    index = i;
+                }
+            }
+        }
+        return i;
+    }
+
+    /**
+     * How an item path expression matches, classified so that common cases avoid regular expressions.
+     * @param value the exact path, or the folder path for {@link Kind#FOLDER}
+     */
+    private record PathMatcher(Kind kind, String value, Pattern regexp) {
+
+        enum Kind {
+            ANY,
+            EXACT,
+            /** The folder itself or anything inside it, as produced by {@link Grant#onFolders}. */
+            FOLDER,
+            REGEX
+        }
+
+        static PathMatcher of(String rx) {
+            if (rx.equals(".*")) {
+                return new PathMatcher(Kind.ANY, null, null);
+            }
+            Matcher m = QUOTED.matcher(rx);
+            if (m.matches()) {
+                return new PathMatcher(Kind.EXACT, m.group(1), null);
+            }
+            m = QUOTED_FOLDER.matcher(rx);
+            if (m.matches()) {
+                return new PathMatcher(Kind.FOLDER, m.group(1), null);
+            }
+            if (LITERAL.matcher(rx).matches()) {
+                return new PathMatcher(Kind.EXACT, rx, null);
+            }
+            return new PathMatcher(Kind.REGEX, null, Pattern.compile(rx));
+        }
+
+        boolean matches(String path) {
+            return switch (kind) {
+                case ANY -> true;
+                case EXACT -> path.equals(value);
+                case FOLDER -> path.equals(value)
+                        || path.length() > value.length() + 1
+                                && path.startsWith(value)
+                                && path.charAt(value.length()) == '/';
+                case REGEX -> regexp.matcher(path).matches();
+            };
+        }
+    }
+
+    /**
+     * Grants indexed by SID and permission ID, with exact paths in a set.
+     */
+    private static final class Index {
+
+        private final Map<String, Map<String, Paths>> grants = new HashMap<>();
+
+        @CheckForNull
+        private final Map<String, Boolean> decisions;
+
+        Index(boolean cacheDecisions) {
+            decisions = cacheDecisions ? new ConcurrentHashMap<>() : null;
+        }
+
+        void add(String sid, String permission, List<PathMatcher> matchers) {
+            Paths paths =
+                    grants.computeIfAbsent(sid, k -> new HashMap<>()).computeIfAbsent(permission, k -> new Paths());
+            for (PathMatcher matcher : matchers) {
+                switch (matcher.kind()) {
+                    case ANY -> paths.any = true;
+                    case EXACT -> paths.exact.add(matcher.value());
+                    default -> paths.others.add(matcher);
+                }
+            }
+        }
+
+        boolean matches(String path, String sid, Permission permission) {
+            if (decisions == null) {
+                return lookUp(path, sid, permission);
+            }
+            String key = path + '\n' + sid + '\n' + permission.getId();
+            Boolean decision = decisions.get(key);
+            if (decision == null) {
+                decision = lookUp(path, sid, permission);
+                if (decisions.size() >= MAX_CACHED_DECISIONS) {
+                    decisions.clear();
+                }
+                decisions.put(key, decision);
+            }
+            return decision;
+        }
+
+        private boolean lookUp(String path, String sid, Permission permission) {
+            Map<String, Paths> bySid = grants.get(sid);
+            if (bySid == null) {
+                return false;
+            }
+            Paths paths = bySid.get(permission.getId());
+            if (paths == null) {
+                return false;
+            }
+            if (paths.any || paths.exact.contains(path)) {
+                return true;
+            }
+            for (PathMatcher matcher : paths.others) {
+                if (matcher.matches(path)) {
+                    return true;
                 }
             }
+            return false;
         }
     }
 
+    private static final class Paths {
+        boolean any;
+        final Set<String> exact = new HashSet<>();
+        final List<PathMatcher> others = new ArrayList<>();
+    }
+
     @NonNull
     @Override
     public ACL getRootACL() {
@@ -238,11 +415,8 @@ public class MockAuthorizationStrategy extends AuthorizationStrategy {
 
         @Override
         protected Boolean hasPermission(Sid p, Permission permission) {
-            String name = toString(p);
-            for (Grant.GrantOn.GrantOnTo grantOnTo : grantsOnTo) {
-                if (grantOnTo.matches(path, name, permission)) {
-                    return true;
-                }
+            if (index().matches(path, toString(p), permission)) {
+                return true;
             }
             return null; // allow groups to be checked after users, etc.
         }
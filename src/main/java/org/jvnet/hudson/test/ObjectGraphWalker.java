@@ -0,0 +1,349 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.jvnet.hudson.test;
+
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Field;
+import java.lang.reflect.InaccessibleObjectException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountedCompleter;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+import org.netbeans.insane.scanner.Filter;
+import org.netbeans.insane.scanner.ScannerUtils;
+
+/**
+ * Walks the strong object graph reachable from a root and tallies instance counts and sizes per class,
+ * like INSANE’s {@link ScannerUtils#scan} with a {@link org.netbeans.insane.scanner.CountingVisitor},
+ * but in parallel on a {@link ForkJoinPool}.
+ * <p>Objects are sized with {@link ScannerUtils#sizeOf}, so the results are comparable to those of INSANE.
+ * {@link Class} objects are never counted. Like the {@code analyzeStaticData} flag of {@link ScannerUtils#scan},
+ * {@code analyzeStatic} decides whether a class reached from a counted object contributes its static fields
+ * and its {@link ClassLoader} to the graph; otherwise references to classes are not followed at all.
+ * <p>With a {@code parallelism} above one, the {@link Filter} may be called from several threads at once.
+ * <p>A field which cannot be made accessible, typically in a JDK package not opened to the test,
+ * makes the walk fail with {@link InaccessibleObjectException} rather than silently go uncounted.
+ */
+final class ObjectGraphWalker {
+
+    /** Once a task has this many objects pending, it offers half of them to idle workers. */
+    private static final int SPLIT_THRESHOLD = 256;
+
+    /** {@code org.netbeans.insane.hook.MakeAccessible#setAccessible}, if the INSANE hook is installed. */
+    private static final Method MAKE_ACCESSIBLE = findMakeAccessible();
+
+    private static final ClassValue<Field[]> INSTANCE_FIELDS = new ClassValue<>() {
+        @Override
+        protected Field[] computeValue(Class<?> type) {
+            List<Field> fields = new ArrayList<>();
+            for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+                addReferenceFields(c, false, fields);
+            }
+            return fields.toArray(new Field[0]);
+        }
+    };
+
+    private static final ClassValue<Field[]> STATIC_FIELDS = new ClassValue<>() {
+        @Override
+        protected Field[] computeValue(Class<?> type) {
+            List<Field> fields = new ArrayList<>();
+            addReferenceFields(type, true, fields);
+            return fields.toArray(new Field[0]);
+        }
+    };
+
+    private final Filter filter;
+    private final boolean analyzeStatic;
+    private final Set<String> prunedPackages;
+    private final int parallelism;
+
+    /**
+     * @param filter decides which references to follow
+     * @param analyzeStatic whether to walk the static fields and class loaders of classes which are reached
+     * @param prunedPackages packages (including subpackages) whose classes’ static fields are not walked
+     *                       even when {@code analyzeStatic} is set
+     * @param parallelism the number of threads to walk with
+     */
+    ObjectGraphWalker(Filter filter, boolean analyzeStatic, Collection<String> prunedPackages, int parallelism) {
+        this.filter = filter;
+        this.analyzeStatic = analyzeStatic;
+        this.prunedPackages = Set.copyOf(prunedPackages);
+        this.parallelism = parallelism;
+    }
+
+    Histogram walk(Object root) {
+        Histogram histogram = new Histogram();
+        IdentitySet visited = new IdentitySet();
+        ArrayDeque<Object> pending = new ArrayDeque<>();
+        if ((analyzeStatic || !(root instanceof Class)) && filter.accept(root, null, null) && visited.add(root)) {
+            pending.add(root);
+        }
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(new Walk(null, pending, visited, histogram));
+        } finally {
+            pool.shutdownNow();
+        }
+        return histogram;
+    }
+
+    private boolean isPruned(Class<?> c) {
+        String pkg = c.getPackageName();
+        for (String pruned : prunedPackages) {
+            if (pkg.equals(pruned) || pkg.startsWith(pruned + ".")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void addReferenceFields(Class<?> c, boolean statics, List<Field> fields) {
+        for (Field f : c.getDeclaredFields()) {
+            if (Modifier.isStatic(f.getModifiers()) == statics && !f.getType().isPrimitive()) {
+                makeAccessible(f);
+                fields.add(f);
+            }
+        }
+    }
+
+    private static void makeAccessible(Field f) {
+        if (f.trySetAccessible()) {
+            return;
+        }
+        if (MAKE_ACCESSIBLE == null) {
+            // throws, naming the package which would need to be opened
+            f.setAccessible(true);
+            return;
+        }
+        try {
+            MAKE_ACCESSIBLE.invoke(null, f, true);
+        } catch (InvocationTargetException | IllegalAccessException x) {
+            InaccessibleObjectException e = new InaccessibleObjectException("Unable to make " + f + " accessible");
+            e.initCause(x instanceof InvocationTargetException ite ? ite.getCause() : x);
+            throw e;
+        }
+    }
+
+    private static Method findMakeAccessible() {
+        try {
+            return Class.forName("org.netbeans.insane.hook.MakeAccessible")
+                    .getMethod("setAccessible", AccessibleObject.class, boolean.class);
+        } catch (ReflectiveOperationException | LinkageError x) {
+            return null;
+        }
+    }
+
+    private final class Walk extends CountedCompleter<Void> {
+        private final ArrayDeque<Object> pending;
+        private final IdentitySet visited;
+        private final Histogram histogram;
+
+        Walk(CountedCompleter<?> parent, ArrayDeque<Object> pending, IdentitySet visited, Histogram histogram) {
+            super(parent);
+            this.pending = pending;
+            this.visited = visited;
+            this.histogram = histogram;
+        }
+
+        @Override
+        public void compute() {
+            Object o;
+            while ((o = pending.pollLast()) != null) {
+                if (o instanceof Class<?> c) {
+                    visitClass(c);
+                } else {
+                    visitObject(o);
+                }
+                if (pending.size() >= SPLIT_THRESHOLD && getSurplusQueuedTaskCount() <= 0) {
+                    ArrayDeque<Object> half = new ArrayDeque<>();
+                    for (int i = pending.size() / 2; i > 0; i--) {
+                        half.add(pending.pollFirst());
+                    }
+                    addToPendingCount(1);
+                    new Walk(this, half, visited, histogram).fork();
+                }
+            }
+            tryComplete();
+        }
+
+        private void visitObject(Object o) {
+            Class<?> type = o.getClass();
+            histogram.add(type, ScannerUtils.sizeOf(o));
+            if (analyzeStatic && visited.add(type)) {
+                pending.add(type);
+            }
+            if (type.isArray()) {
+                if (o instanceof Object[] array) {
+                    for (Object element : array) {
+                        offer(element, o, null);
+                    }
+                }
+                return;
+            }
+            for (Field f : INSTANCE_FIELDS.get(type)) {
+                offer(read(f, o), o, f);
+            }
+        }
+
+        private void visitClass(Class<?> c) {
+            Class<?> superclass = c.getSuperclass();
+            if (superclass != null && visited.add(superclass)) {
+                pending.add(superclass);
+            }
+            if (!isPruned(c)) {
+                for (Field f : STATIC_FIELDS.get(c)) {
+                    offer(read(f, null), c, f);
+                }
+            }
+            offer(c.getClassLoader(), c, null);
+        }
+
+        private void offer(Object value, Object referredFrom, Field field) {
+            if (value != null
+                    && (analyzeStatic || !(value instanceof Class))
+                    && filter.accept(value, referredFrom, field)
+                    && visited.add(value)) {
+                pending.add(value);
+            }
+        }
+
+        private Object read(Field f, Object o) {
+            try {
+                return f.get(o);
+            } catch (IllegalAccessException x) {
+                throw new IllegalStateException("could not read " + f, x);
+            }
+        }
+    }
+
+    /**
+     * Instance counts and sizes per class found by {@link #walk}.
+     */
+    static final class Histogram {
+        private final Map<Class<?>, Tally> tallies = new ConcurrentHashMap<>();
+
+        void add(Class<?> c, int size) {
+            Tally tally = tallies.get(c);
+            if (tally == null) {
+                tally = tallies.computeIfAbsent(c, k -> new Tally());
+            }
+            tally.count.increment();
+            tally.size.add(size);
+        }
+
+        Set<Class<?>> getClasses() {
+            return tallies.keySet();
+        }
+
+        int getCountForClass(Class<?> c) {
+            Tally tally = tallies.get(c);
+            return tally == null ? 0 : tally.count.intValue();
+        }
+
+        int getSizeForClass(Class<?> c) {
+            Tally tally = tallies.get(c);
+            return tally == null ? 0 : tally.size.intValue();
+        }
+
+        private static final class Tally {
+            final LongAdder count = new LongAdder();
+            final LongAdder size = new LongAdder();
+        }
+    }
+
+    /**
+     * A concurrent set compared by identity, using open addressing with linear probing over identity hash codes.
+     * It is split into independently locked stripes so that workers rarely contend,
+     * and unlike {@link java.util.IdentityHashMap} it allocates nothing per entry.
+     */
+    static final class IdentitySet {
+        private static final int STRIPE_BITS = 8;
+        private static final int STRIPES = 1 << STRIPE_BITS;
+
+        private final Object[][] tables = new Object[STRIPES][];
+        private final int[] sizes = new int[STRIPES];
+        private final Object[] locks = new Object[STRIPES];
+
+        IdentitySet() {
+            for (int s = 0; s < STRIPES; s++) {
+                tables[s] = new Object[64];
+                locks[s] = new Object();
+            }
+        }
+
+        /**
+         * @return true if the object was not already present
+         */
+        boolean add(Object o) {
+            int h = hash(o);
+            int s = h >>> (Integer.SIZE - STRIPE_BITS);
+            synchronized (locks[s]) {
+                Object[] table = tables[s];
+                int mask = table.length - 1;
+                for (int i = h & mask; ; i = (i + 1) & mask) {
+                    Object e = table[i];
+                    if (e == null) {
+                        table[i] = o;
+                        if (++sizes[s] * 2 > table.length) {
+                            tables[s] = resize(table);
+                        }
+                        return true;
+                    }
+                    if (e == o) {
+                        return false;
+                    }
+                }
+            }
+        }
+
+        private static Object[] resize(Object[] table) {
+            Object[] bigger = new Object[table.length * 2];
+            int mask = bigger.length - 1;
+            for (Object e : table) {
+                if (e != null) {
+                    int i = hash(e) & mask;
+                    while (bigger[i] != null) {
+                        i = (i + 1) & mask;
+                    }
+                    bigger[i] = e;
+                }
+            }
+            return bigger;
+        }
+
+        private static int hash(Object o) {
+            return System.identityHashCode(o) * 0x9E3779B9;
+        }
+    }
+}
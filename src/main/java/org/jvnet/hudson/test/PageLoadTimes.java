@@ -0,0 +1,70 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.jvnet.hudson.test;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import java.time.Duration;
+
+/**
+ * Page load times of {@link JenkinsRule.WebClient#goTo}, split by whether the client was in lite mode,
+ * used to estimate how much time lite mode saved a test.
+ */
+final class PageLoadTimes {
+
+    /** Full page loads across all tests in this JVM, as a baseline for tests which use only lite clients. */
+    private static final LatencyHistogram FULL_BASELINE = new LatencyHistogram();
+
+    private final LatencyHistogram full = new LatencyHistogram();
+    private final LatencyHistogram lite = new LatencyHistogram();
+
+    void record(boolean liteMode, long startNanos) {
+        if (liteMode) {
+            lite.recordSince(startNanos);
+        } else {
+            long elapsed = System.nanoTime() - startNanos;
+            full.record(elapsed);
+            FULL_BASELINE.record(elapsed);
+        }
+    }
+
+    /**
+     * @return a summary of lite page loads with the estimated time saved, or null if there were none
+     */
+    @CheckForNull
+    String report() {
+        long pages = lite.getCount();
+        if (pages == 0) {
+            return null;
+        }
+        String summary = "Lite web clients loaded " + pages + " pages, mean " + lite.getMean().toMillis() + "ms";
+        LatencyHistogram baseline = full.getCount() > 0 ? full : FULL_BASELINE;
+        if (baseline.getCount() == 0) {
+            return summary + "; no full page loads to compare with";
+        }
+        Duration saved = baseline.getMean().minus(lite.getMean()).multipliedBy(pages);
+        return summary + " versus " + baseline.getMean().toMillis() + "ms for full clients"
+                + (baseline == full ? "" : " in earlier tests") + ", saving about " + saved.toMillis() + "ms";
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.jvnet.hudson.test;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Hands out TCP ports for test servers, coordinated across all JVMs on the machine (such as parallel Surefire forks).
+ * <p>
+ * Reservations are recorded in a shared file under {@code java.io.tmpdir}
+ * (overridable with the system property {@code jth.portAllocator.file}), guarded by a file lock.
+ * A port stays reserved to the current process until {@link #release}d or the process exits,
+ * so a test which restarts Jenkins can keep its port without another fork picking it up in the meantime.
+ * Servers are expected to bind with {@code SO_REUSEADDR}, as Jetty does by default,
+ * so that connections of a previous session lingering in {@code TIME_WAIT} do not prevent a rebind.
+ */
+public final class PortAllocator {
+
+    private static final Logger LOGGER = Logger.getLogger(PortAllocator.class.getName());
+
+    @SuppressFBWarnings(value = "PATH_TRAVERSAL_IN", justification = "set by the test author")
+    private static final Path FILE = Path.of(System.getProperty(
+            "jth.portAllocator.file",
+            Path.of(System.getProperty("java.io.tmpdir"), "jenkins-test-harness-ports.txt")
+                    .toString()));
+
+    private static final long PID = ProcessHandle.current().pid();
+
+    /** Ports reserved by this process. */
+    private static final Set<Integer> OWN = new HashSet<>();
+
+    private PortAllocator() {}
+
+    /**
+     * Reserves a port which is currently free and not reserved by any other test JVM.
+     */
+    public static synchronized int reserve() throws IOException {
+        Integer port;
+        try {
+            port = locked(reservations -> {
+                for (int i = 0; i < 100; i++) {
+                    int candidate;
+                    try {
+                        candidate = probe();
+                    } catch (IOException x) {
+                        throw new PortAllocationException(x);
+                    }
+                    if (!reservations.containsKey(candidate)) {
+                        reservations.put(candidate, PID);
+                        return candidate;
+                    }
+                }
+                return null;
+            });
+        } catch (PortAllocationException x) {
+            throw (IOException) x.getCause();
+        } catch (IOException x) {
+            LOGGER.log(Level.WARNING, "Could not use " + FILE + "; ports will not be coordinated with other JVMs", x);
+            port = probe();
+        }
+        if (port == null) {
+            throw new IOException("Could not find a free port not reserved in " + FILE);
+        }
+        OWN.add(port);
+        LOGGER.log(Level.FINE, "Reserved port {0}", port);
+        return port;
+    }
+
+    /**
+     * Releases a port previously returned by {@link #reserve}.
+     * Ports not reserved by this process are ignored.
+     */
+    public static synchronized void release(int port) {
+        if (!OWN.remove(port)) {
+            return;
+        }
+        try {
+            locked(reservations -> reservations.remove(port, PID));
+            LOGGER.log(Level.FINE, "Released port {0}", port);
+        } catch (IOException x) {
+            LOGGER.log(Level.FINE, "Could not release port " + port, x);
+        }
+    }
+
+    /**
+     * Checks whether a port is currently reserved by any live JVM.
+     */
+    public static synchronized boolean isReserved(int port) throws IOException {
+        return locked(reservations -> reservations.containsKey(port));
+    }
+
+    private static int probe() throws IOException {
+        try (ServerSocket ss = new ServerSocket()) {
+            ss.setReuseAddress(true);
+            ss.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+            return ss.getLocalPort();
+        }
+    }
+
+    /**
+     * Runs a function on the reservation table (port to PID) while holding the file lock, then saves it.
+     * Reservations of processes which are no longer alive are dropped.
+     * Callers must synchronize on this class, since a {@link FileLock} cannot be held twice within one JVM.
+     */
+    private static <T> T locked(Function<Map<Integer, Long>, T> fn) throws IOException {
+        try (FileChannel ch = FileChannel.open(
+                        FILE, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                FileLock lock = ch.lock()) {
+            ByteBuffer buf = ByteBuffer.allocate((int) ch.size());
+            while (buf.hasRemaining() && ch.read(buf, buf.position()) >= 0) {
+                // keep reading
+            }
+            Map<Integer, Long> reservations = new TreeMap<>();
+            for (String line : new String(buf.array(), StandardCharsets.US_ASCII).split("\n")) {
+                String[] fields = line.trim().split(" ");
+                if (fields.length != 2) {
+                    continue;
+                }
+                try {
+                    int port = Integer.parseInt(fields[0]);
+                    long pid = Long.parseLong(fields[1]);
+                    if (pid == PID || ProcessHandle.of(pid).map(ProcessHandle::isAlive).orElse(false)) {
+                        reservations.put(port, pid);
+                    }
+                } catch (NumberFormatException x) {
+                    // corrupt line, drop it
+                }
+            }
+            T result = fn.apply(reservations);
+            StringBuilder sb = new StringBuilder();
+            reservations.forEach((port, pid) -> sb.append(port).append(' ').append(pid).append('\n'));
+            ch.truncate(0);
+            ByteBuffer out = ByteBuffer.wrap(sb.toString().getBytes(StandardCharsets.US_ASCII));
+            while (out.hasRemaining()) {
+                ch.write(out, out.position());
+            }
+            return result;
+        }
+    }
+
+    private static final class PortAllocationException extends RuntimeException {
+        PortAllocationException(IOException cause) {
+            super(cause);
+        }
+    }
+}
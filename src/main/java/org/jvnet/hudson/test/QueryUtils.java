@@ -1,11 +1,27 @@
 package org.jvnet.hudson.test;
 
+import java.time.Duration;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import org.htmlunit.html.CharacterDataChangeEvent;
+import org.htmlunit.html.CharacterDataChangeListener;
+import org.htmlunit.html.DomChangeEvent;
+import org.htmlunit.html.DomChangeListener;
+import org.htmlunit.html.HtmlAttributeChangeEvent;
+import org.htmlunit.html.HtmlAttributeChangeListener;
 import org.htmlunit.html.HtmlElement;
 import org.htmlunit.html.HtmlPage;
 
 public final class QueryUtils {
 
+    private static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(3);
+
+    /**
+     * How long to wait for a DOM change before re-evaluating a condition anyway,
+     * in case it depends on something which is not a DOM mutation.
+     */
+    private static final long RECHECK_NANOS = TimeUnit.MILLISECONDS.toNanos(500);
+
     private QueryUtils() {}
 
     /**
@@ -15,23 +31,10 @@ public final class QueryUtils {
      * @throws RuntimeException if string is not present after three seconds
      */
     public static void waitUntilStringIsPresent(HtmlPage page, String value) {
-        long maxWaitTime = TimeUnit.SECONDS.toMillis(3);
-        long startTime = System.currentTimeMillis();
-
-        while (System.currentTimeMillis() - startTime < maxWaitTime) {
-            if (page.querySelector("*").getVisibleText().contains(value)) {
-                return;
-            } else {
-                try {
-                    Thread.sleep(100);
-                } catch (InterruptedException e) {
-                    throw new RuntimeException(e);
-                }
-            }
+        if (!waitUntil(page, p -> visibleText(p).contains(value), DEFAULT_TIMEOUT)) {
+            throw new RuntimeException("String '" + value + "' was not present '" + value + "' after '"
+                    + DEFAULT_TIMEOUT.toMillis() + "ms'");
         }
-
-        throw new RuntimeException(
-                "String '" + value + "' was not present '" + value + "' after '" + maxWaitTime + "s'");
     }
 
     /**
@@ -41,23 +44,10 @@ public final class QueryUtils {
      * @throws RuntimeException if string is present after three seconds
      */
     public static void waitUntilStringIsNotPresent(HtmlPage page, String value) {
-        long maxWaitTime = TimeUnit.SECONDS.toMillis(3);
-        long startTime = System.currentTimeMillis();
-
-        while (System.currentTimeMillis() - startTime < maxWaitTime) {
-            if (page.querySelector("*").getVisibleText().contains(value)) {
-                try {
-                    Thread.sleep(100);
-                } catch (InterruptedException e) {
-                    throw new RuntimeException(e);
-                }
-            } else {
-                return;
-            }
+        if (!waitUntil(page, p -> !visibleText(p).contains(value), DEFAULT_TIMEOUT)) {
+            throw new RuntimeException("String '" + value + "' is still present '" + value + "' after '"
+                    + DEFAULT_TIMEOUT.toMillis() + "ms'");
         }
-
-        throw new RuntimeException(
-                "String '" + value + "' is still present '" + value + "' after '" + maxWaitTime + "s'");
     }
 
     /**
@@ -66,27 +56,119 @@ public final class QueryUtils {
      * @param query the query selector for the element
      */
     public static HtmlElement waitUntilElementIsPresent(HtmlPage page, String query) {
-        long maxWaitTime = TimeUnit.SECONDS.toMillis(3);
-        long startTime = System.currentTimeMillis();
-
-        // Loop until the element is found or timeout occurs
-        HtmlElement element = null;
-        while (element == null && System.currentTimeMillis() - startTime < maxWaitTime) {
-            // Try to find the element
-            try {
-                element = page.querySelector(query);
-            } catch (Exception ignored) {
-            }
+        HtmlElement[] element = new HtmlElement[1];
+        waitUntil(
+                page,
+                p -> {
+                    try {
+                        element[0] = p.querySelector(query);
+                    } catch (Exception ignored) {
+                    }
+                    return element[0] != null;
+                },
+                DEFAULT_TIMEOUT);
+        return element[0];
+    }
 
-            // If the element is not found, wait for a short interval before trying again
-            if (element == null) {
+    /**
+     * Waits until a condition on the page holds.
+     * Rather than polling, the condition is re-evaluated as soon as a node, attribute or text of the page changes,
+     * for example as a result of JavaScript run by an XHR callback or a timer.
+     * @param page the page
+     * @param condition evaluated on the calling thread, at least once
+     * @param timeout how long to wait at most
+     * @return true if the condition held before the timeout, false otherwise
+     */
+    public static boolean waitUntil(HtmlPage page, Predicate<? super HtmlPage> condition, Duration timeout) {
+        MutationSignal signal = new MutationSignal();
+        page.addDomChangeListener(signal);
+        page.addHtmlAttributeChangeListener(signal);
+        page.addCharacterDataChangeListener(signal);
+        try {
+            long deadline = System.nanoTime() + timeout.toNanos();
+            while (true) {
+                long seen = signal.changes();
+                if (condition.test(page)) {
+                    return true;
+                }
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
                 try {
-                    Thread.sleep(100);
+                    signal.awaitChange(seen, Math.min(remaining, RECHECK_NANOS));
                 } catch (InterruptedException e) {
                     throw new RuntimeException(e);
                 }
             }
+        } finally {
+            page.removeDomChangeListener(signal);
+            page.removeHtmlAttributeChangeListener(signal);
+            page.removeCharacterDataChangeListener(signal);
+        }
+    }
+
+    private static String visibleText(HtmlPage page) {
+        HtmlElement root = page.getDocumentElement();
+        return root == null ? "" : root.getVisibleText();
+    }
+
+    /**
+     * Counts DOM mutations and wakes up a waiting thread on each.
+     * Mutations are made by the JavaScript thread of the page, while the test thread waits.
+     */
+    private static final class MutationSignal
+            implements DomChangeListener, HtmlAttributeChangeListener, CharacterDataChangeListener {
+        private static final long serialVersionUID = 1L;
+
+        private long changes;
+
+        synchronized long changes() {
+            return changes;
+        }
+
+        synchronized void awaitChange(long seen, long nanos) throws InterruptedException {
+            long deadline = System.nanoTime() + nanos;
+            long remaining = nanos;
+            while (changes == seen && remaining > 0) {
+                TimeUnit.NANOSECONDS.timedWait(this, remaining);
+                remaining = deadline - System.nanoTime();
+            }
+        }
+
+        private synchronized void changed() {
+            changes++;
+            notifyAll();
+        }
+
+        @Override
+        public void nodeAdded(DomChangeEvent event) {
+            changed();
+        }
+
+        @Override
+        public void nodeDeleted(DomChangeEvent event) {
+            changed();
+        }
+
+        @Override
+        public void attributeAdded(HtmlAttributeChangeEvent event) {
+            changed();
+        }
+
+        @Override
+        public void attributeRemoved(HtmlAttributeChangeEvent event) {
+            changed();
+        }
+
+        @Override
+        public void attributeReplaced(HtmlAttributeChangeEvent event) {
+            changed();
+        }
+
+        @Override
+        public void characterDataChanged(CharacterDataChangeEvent event) {
+            changed();
         }
-        return element;
     }
 }
@@ -0,0 +1,338 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.jvnet.hudson.test;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Server-side timings of the HTTP requests served by {@link JenkinsRule}.
+ * Each request is attributed to a <em>pattern</em> derived from the Stapler dispatch trace,
+ * such as {@code hudson.model.Hudson/hudson.model.FreeStyleProject/configure.jelly},
+ * so that requests for different jobs or builds rendered by the same view are aggregated together.
+ * <p>Obtain an instance from {@link JenkinsRule#requests} and assert on it with
+ * {@link JenkinsMatchers#noRequestSlowerThan} or {@link JenkinsMatchers#maxRequestsPerPageLoad}.
+ * Only the most recent {@code jth.requests.max} (default 10000) requests are retained individually;
+ * per-pattern histograms cover everything since the last {@link #clear}.
+ */
+public final class RequestStatistics {
+
+    private static final int MAX_REQUESTS = Integer.getInteger("jth.requests.max", 10000);
+
+    private static final Pattern TRACE_TYPE = Pattern.compile(" :([\\w.$]+),\"");
+    private static final Pattern TRACE_VIEW = Pattern.compile("([\\w-]+\\.(?:jelly|groovy))");
+    private static final Pattern TRACE_METHOD = Pattern.compile("\\.((?:do|js)\\w*)\\(");
+    private static final Pattern NUMERIC_SEGMENT = Pattern.compile("/\\d+(?=/|$)");
+
+    /**
+     * One request as seen by the server.
+     * @param method the HTTP method
+     * @param uri the path and query, including the context path
+     * @param pattern the aggregation key; see {@link #patternOf}
+     * @param dispatch the Stapler dispatch trace, outermost first; empty for requests not handled by Stapler
+     * @param view the Jelly or Groovy view rendered, if any
+     * @param status the response status code
+     * @param bytes the uncompressed size of the response body
+     * @param firstByte the time until the first byte of the body was written, or the whole duration if none was
+     * @param duration the time until the response was complete
+     * @param referer the path of the page which caused this request, if known
+     * @param navigation whether this loaded a new page, rather than a resource or XHR call of the current one;
+     *                   see {@link #getPageLoads}
+     */
+    public record Request(
+            @NonNull String method,
+            @NonNull String uri,
+            @NonNull String pattern,
+            @NonNull List<String> dispatch,
+            @CheckForNull String view,
+            int status,
+            long bytes,
+            @NonNull Duration firstByte,
+            @NonNull Duration duration,
+            @CheckForNull String referer,
+            boolean navigation) {
+
+        @Override
+        public String toString() {
+            return method + " " + uri + " → " + status + " in " + duration.toMillis() + "ms (" + bytes + " bytes, "
+                    + pattern + ")";
+        }
+    }
+
+    /**
+     * One page as loaded by a browser.
+     * @param page the request for the page itself
+     * @param requests the page followed by the requests it caused, such as scripts, stylesheets, images and XHR calls,
+     *                 in order of completion
+     */
+    public record PageLoad(@NonNull Request page, @NonNull List<Request> requests) {
+
+        @Override
+        public String toString() {
+            return page.uri() + ": " + requests.size() + " requests";
+        }
+    }
+
+    private final Deque<Request> requests = new ArrayDeque<>();
+    private final Map<String, LatencyHistogram> byPattern = new ConcurrentHashMap<>();
+    private final Map<String, LatencyHistogram> byView = new ConcurrentHashMap<>();
+    private final LongAdder total = new LongAdder();
+
+    /**
+     * Records a completed request.
+     * Called by the server instrumentation; not intended for use by tests.
+     */
+    @Restricted(NoExternalUse.class)
+    public void record(
+            @NonNull String method,
+            @NonNull String uri,
+            @NonNull List<String> dispatch,
+            int status,
+            long bytes,
+            @NonNull Duration firstByte,
+            @NonNull Duration duration,
+            @CheckForNull String referer,
+            @CheckForNull String fetchMode) {
+        String view = viewOf(dispatch);
+        String path = pathOf(uri);
+        Request r = new Request(
+                method,
+                uri,
+                patternOf(method, path, dispatch),
+                List.copyOf(dispatch),
+                view,
+                status,
+                bytes,
+                firstByte,
+                duration,
+                refererPath(referer),
+                isNavigation(view, referer, fetchMode));
+        byPattern.computeIfAbsent(r.pattern(), k -> new LatencyHistogram()).record(duration);
+        if (view != null) {
+            byView.computeIfAbsent(view, k -> new LatencyHistogram()).record(duration);
+        }
+        total.increment();
+        synchronized (requests) {
+            requests.addLast(r);
+            while (requests.size() > MAX_REQUESTS) {
+                requests.removeFirst();
+            }
+        }
+    }
+
+    /**
+     * Computes the aggregation key for a request.
+     * For requests dispatched by Stapler this is the sequence of distinct model types traversed
+     * followed by the web method or view which produced the response;
+     * otherwise it is the method and path with numeric segments (such as build numbers) replaced by {@code {n}}.
+     */
+    static String patternOf(String method, String path, List<String> dispatch) {
+        List<String> parts = new ArrayList<>();
+        String terminal = null;
+        for (String line : dispatch) {
+            Matcher m = TRACE_TYPE.matcher(line);
+            while (m.find()) {
+                String type = m.group(1);
+                if (parts.isEmpty() || !parts.get(parts.size() - 1).equals(type)) {
+                    parts.add(type);
+                }
+            }
+            Matcher v = TRACE_VIEW.matcher(line);
+            if (v.find()) {
+                terminal = v.group(1);
+            } else {
+                Matcher w = TRACE_METHOD.matcher(line);
+                if (w.find()) {
+                    terminal = w.group(1);
+                }
+            }
+        }
+        if (parts.isEmpty()) {
+            return method + " " + NUMERIC_SEGMENT.matcher(path).replaceAll("/{n}");
+        }
+        if (terminal != null) {
+            parts.add(terminal);
+        }
+        return method + " " + String.join("/", parts);
+    }
+
+    @CheckForNull
+    private static String viewOf(List<String> dispatch) {
+        String view = null;
+        for (String line : dispatch) {
+            Matcher v = TRACE_VIEW.matcher(line);
+            if (v.find()) {
+                view = v.group(1);
+            }
+        }
+        return view;
+    }
+
+    /**
+     * Whether a request loaded a new page.
+     * Browsers (including HtmlUnit) say so in {@code Sec-Fetch-Mode};
+     * for clients which do not, a view rendered without a {@code Referer} is taken to be a page.
+     */
+    private static boolean isNavigation(
+            @CheckForNull String view, @CheckForNull String referer, @CheckForNull String fetchMode) {
+        if (view == null) {
+            return false;
+        }
+        return fetchMode != null ? fetchMode.equals("navigate") : referer == null;
+    }
+
+    @CheckForNull
+    private static String refererPath(@CheckForNull String referer) {
+        if (referer == null) {
+            return null;
+        }
+        try {
+            return URI.create(referer).getRawPath();
+        } catch (IllegalArgumentException x) {
+            return referer;
+        }
+    }
+
+    /**
+     * @return the retained requests, oldest first
+     */
+    @NonNull
+    public List<Request> getRequests() {
+        synchronized (requests) {
+            return new ArrayList<>(requests);
+        }
+    }
+
+    /**
+     * @return the number of requests recorded since the last {@link #clear}, including any no longer retained
+     */
+    public long getCount() {
+        return total.sum();
+    }
+
+    /**
+     * @return the retained requests sorted by descending duration, at most {@code n} of them
+     */
+    @NonNull
+    public List<Request> getSlowest(int n) {
+        return getRequests().stream()
+                .sorted(Comparator.comparing(Request::duration).reversed())
+                .limit(n)
+                .toList();
+    }
+
+    /**
+     * @return durations of all requests recorded since the last {@link #clear}, keyed by pattern
+     */
+    @NonNull
+    public Map<String, LatencyHistogram> getPatterns() {
+        return new TreeMap<>(byPattern);
+    }
+
+    /**
+     * @return durations of all requests which rendered a given view, keyed by view name such as {@code index.jelly}
+     */
+    @NonNull
+    public Map<String, LatencyHistogram> getViews() {
+        return new TreeMap<>(byView);
+    }
+
+    /**
+     * Splits the retained requests into page loads.
+     * Each {@linkplain Request#navigation navigation} starts a page load, which then comprises every later request
+     * whose {@code Referer} is that page, until the same page is loaded again.
+     * Requests caused by no retained page, such as REST API calls, are not part of any page load.
+     * @return the page loads, in order
+     */
+    @NonNull
+    public List<PageLoad> getPageLoads() {
+        List<PageLoad> loads = new ArrayList<>();
+        Map<String, List<Request>> current = new HashMap<>();
+        for (Request r : getRequests()) {
+            if (r.navigation()) {
+                List<Request> load = new ArrayList<>();
+                load.add(r);
+                current.put(pathOf(r.uri()), load);
+                loads.add(new PageLoad(r, load));
+            } else if (r.referer() != null) {
+                List<Request> load = current.get(r.referer());
+                if (load != null) {
+                    load.add(r);
+                }
+            }
+        }
+        return loads.stream()
+                .map(l -> new PageLoad(l.page(), List.copyOf(l.requests())))
+                .toList();
+    }
+
+    private static String pathOf(String uri) {
+        return uri.contains("?") ? uri.substring(0, uri.indexOf('?')) : uri;
+    }
+
+    /**
+     * Discards everything recorded so far, for example after warming up.
+     */
+    public void clear() {
+        synchronized (requests) {
+            requests.clear();
+        }
+        byPattern.clear();
+        byView.clear();
+        total.reset();
+    }
+
+    /**
+     * @return a report of the patterns by total time spent, suitable for printing from a test
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(getCount()).append(" requests\n");
+        byPattern.entrySet().stream()
+                .sorted(Comparator.comparingLong(
+                                (Map.Entry<String, LatencyHistogram> e) ->
+                                        e.getValue().getMean().toNanos() * e.getValue().getCount())
+                        .reversed())
+                .forEach(e -> sb.append(e.getKey()).append(": ").append(e.getValue()).append('\n'));
+        return sb.toString();
+    }
+}
@@ -0,0 +1,324 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.jvnet.hudson.test;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Launcher.ProcStarter;
+import hudson.Proc;
+import hudson.remoting.FastPipedInputStream;
+import hudson.remoting.FastPipedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Field;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * {@link FakeLauncher} which plays back a script instead of forking a process.
+ * Use with {@link JenkinsRule#createPretendSlave}:
+ * <pre>{@code
+ * PretendSlave agent = j.createPretendSlave(new ScriptedFakeLauncher()
+ *         .when(p -> p.cmds().contains("make"))
+ *         .stdout("building…\n")
+ *         .stdout(1L << 30, 100L << 20) // 1GiB of filler at 100MiB/s
+ *         .stderr("warning: something\n")
+ *         .delay(Duration.ofSeconds(1))
+ *         .expectStdin("yes\n")
+ *         .exit(2));
+ * }</pre>
+ * Steps run in order on a background thread, writing to the streams given in {@link ProcStarter#stdout(OutputStream)}
+ * and {@link ProcStarter#stderr(OutputStream)} or, when the caller asked to read them itself, to {@link Proc#getStdout}
+ * and {@link Proc#getStderr}. Stdin is likewise read from {@link ProcStarter#stdin()} or {@link Proc#getStdin}.
+ * A failed stdin expectation makes {@link Proc#join} throw {@link AssertionError}.
+ * The same script is played for every matching launch; others fall through to a real process.
+ */
+public class ScriptedFakeLauncher implements FakeLauncher {
+
+    private static final int CHUNK = 8192;
+
+    private interface Step {
+        void run(Streams streams) throws IOException, InterruptedException;
+    }
+
+    private final List<Step> steps = new ArrayList<>();
+    private Predicate<ProcStarter> filter = p -> true;
+    private int exitCode;
+    private final AtomicInteger launches = new AtomicInteger();
+
+    /**
+     * Only plays the script for launches matching a condition, such as on {@link ProcStarter#cmds}.
+     */
+    public ScriptedFakeLauncher when(@NonNull Predicate<ProcStarter> filter) {
+        this.filter = filter;
+        return this;
+    }
+
+    public ScriptedFakeLauncher stdout(@NonNull String text) {
+        return stdout(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public ScriptedFakeLauncher stdout(@NonNull byte[] data) {
+        byte[] copy = data.clone();
+        steps.add(s -> write(s.stdout, copy, copy.length, 0));
+        return this;
+    }
+
+    /**
+     * Writes synthetic lines of text to stdout.
+     * @param size number of bytes
+     * @param bytesPerSecond rate limit, or 0 to write as fast as the reader allows
+     */
+    public ScriptedFakeLauncher stdout(long size, long bytesPerSecond) {
+        steps.add(s -> write(s.stdout, filler(), size, bytesPerSecond));
+        return this;
+    }
+
+    public ScriptedFakeLauncher stderr(@NonNull String text) {
+        return stderr(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public ScriptedFakeLauncher stderr(@NonNull byte[] data) {
+        byte[] copy = data.clone();
+        steps.add(s -> write(s.stderr, copy, copy.length, 0));
+        return this;
+    }
+
+    /**
+     * Writes synthetic lines of text to stderr.
+     * @param size number of bytes
+     * @param bytesPerSecond rate limit, or 0 to write as fast as the reader allows
+     */
+    public ScriptedFakeLauncher stderr(long size, long bytesPerSecond) {
+        steps.add(s -> write(s.stderr, filler(), size, bytesPerSecond));
+        return this;
+    }
+
+    public ScriptedFakeLauncher delay(@NonNull Duration delay) {
+        steps.add(s -> Thread.sleep(delay.toMillis()));
+        return this;
+    }
+
+    /**
+     * Reads stdin to the end and checks that it is as expected.
+     */
+    public ScriptedFakeLauncher expectStdin(@NonNull String expected) {
+        return expectStdin(expected, StandardCharsets.UTF_8);
+    }
+
+    public ScriptedFakeLauncher expectStdin(@NonNull String expected, @NonNull Charset charset) {
+        steps.add(s -> {
+            String actual = new String(s.stdin.readAllBytes(), charset);
+            if (!expected.equals(actual)) {
+                throw new AssertionError("expected stdin <" + expected + "> but was <" + actual + ">");
+            }
+        });
+        return this;
+    }
+
+    public ScriptedFakeLauncher exit(int exitCode) {
+        this.exitCode = exitCode;
+        return this;
+    }
+
+    /**
+     * Number of launches which played this script.
+     */
+    public int getLaunches() {
+        return launches.get();
+    }
+
+    @Override
+    public Proc onLaunch(ProcStarter p) throws IOException {
+        if (!filter.test(p)) {
+            return null;
+        }
+        launches.incrementAndGet();
+        return new ScriptedProc(p, List.copyOf(steps), exitCode);
+    }
+
+    private static void write(OutputStream out, byte[] pattern, long size, long bytesPerSecond)
+            throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        long written = 0;
+        while (written < size) {
+            int n = (int) Math.min(Math.min(CHUNK, pattern.length), size - written);
+            int offset = (int) (written % pattern.length);
+            n = Math.min(n, pattern.length - offset);
+            out.write(pattern, offset, n);
+            written += n;
+            if (bytesPerSecond > 0) {
+                long due = start + written * 1_000_000_000L / bytesPerSecond;
+                long wait = due - System.nanoTime();
+                if (wait > 0) {
+                    Thread.sleep(wait / 1_000_000, (int) (wait % 1_000_000));
+                }
+            }
+        }
+        out.flush();
+    }
+
+    private static byte[] filler() {
+        byte[] line = "The quick brown fox jumps over the lazy dog 0123456789\n".getBytes(StandardCharsets.US_ASCII);
+        byte[] data = new byte[line.length * (CHUNK / line.length)];
+        for (int i = 0; i < data.length; i += line.length) {
+            System.arraycopy(line, 0, data, i, line.length);
+        }
+        return data;
+    }
+
+    private record Streams(OutputStream stdout, OutputStream stderr, InputStream stdin) {}
+
+    private static boolean reversed(ProcStarter p, String field) {
+        try {
+            Field f = ProcStarter.class.getDeclaredField(field);
+            f.setAccessible(true);
+            return f.getBoolean(p);
+        } catch (NoSuchFieldException | IllegalAccessException x) {
+            throw new AssertionError(x);
+        }
+    }
+
+    /**
+     * A running script.
+     */
+    private static final class ScriptedProc extends Proc {
+        private final Thread thread;
+        private final int exitCode;
+
+        @CheckForNull
+        private final FastPipedInputStream stdout, stderr;
+
+        @CheckForNull
+        private final FastPipedOutputStream stdin;
+
+        private volatile Throwable failure;
+        private volatile boolean killed;
+
+        ScriptedProc(ProcStarter p, List<Step> steps, int exitCode) throws IOException {
+            this.exitCode = exitCode;
+            List<OutputStream> toClose = new ArrayList<>();
+            OutputStream out;
+            if (reversed(p, "reverseStdout")) {
+                stdout = new FastPipedInputStream();
+                out = new FastPipedOutputStream(stdout);
+                toClose.add(out);
+            } else {
+                stdout = null;
+                out = p.stdout() != null ? p.stdout() : OutputStream.nullOutputStream();
+            }
+            OutputStream err;
+            if (reversed(p, "reverseStderr")) {
+                stderr = new FastPipedInputStream();
+                err = new FastPipedOutputStream(stderr);
+                toClose.add(err);
+            } else {
+                stderr = null;
+                err = p.stderr() != null ? p.stderr() : out; // like redirectErrorStream
+            }
+            InputStream in;
+            if (reversed(p, "reverseStdin")) {
+                in = new FastPipedInputStream();
+                stdin = new FastPipedOutputStream((FastPipedInputStream) in);
+            } else {
+                stdin = null;
+                in = p.stdin() != null ? p.stdin() : InputStream.nullInputStream();
+            }
+            Streams streams = new Streams(out, err, in);
+            thread = new Thread(
+                    () -> {
+                        try {
+                            for (Step step : steps) {
+                                step.run(streams);
+                            }
+                        } catch (InterruptedException | IOException | RuntimeException | AssertionError x) {
+                            if (!killed) {
+                                failure = x;
+                            }
+                        } finally {
+                            for (OutputStream os : toClose) {
+                                try {
+                                    os.close();
+                                } catch (IOException x) {
+                                    // ignore
+                                }
+                            }
+                        }
+                    },
+                    "Fake process " + p.cmds());
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        @Override
+        public boolean isAlive() {
+            return thread.isAlive();
+        }
+
+        @Override
+        public void kill() throws InterruptedException {
+            killed = true;
+            thread.interrupt();
+            thread.join();
+        }
+
+        @Override
+        public int join() throws IOException, InterruptedException {
+            thread.join();
+            Throwable t = failure;
+            if (t instanceof IOException x) {
+                throw x;
+            } else if (t instanceof InterruptedException x) {
+                throw x;
+            } else if (t instanceof RuntimeException x) {
+                throw x;
+            } else if (t instanceof AssertionError x) {
+                throw x;
+            }
+            return killed ? 143 : exitCode;
+        }
+
+        @Override
+        public InputStream getStdout() {
+            return stdout;
+        }
+
+        @Override
+        public InputStream getStderr() {
+            return stderr;
+        }
+
+        @Override
+        public OutputStream getStdin() {
+            return stdin;
+        }
+    }
+}
@@ -0,0 +1,460 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.jvnet.hudson.test;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.model.User;
+import hudson.security.SecurityRealm;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+import jenkins.model.Jenkins;
+import jenkins.security.ApiTokenProperty;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+/**
+ * Simulates many users with concurrent authenticated sessions, to measure the cost of authentication and
+ * authorization as the number of users grows.
+ * Users, their groups and their API tokens are created in bulk in a {@link JenkinsRule.DummySecurityRealm},
+ * which is installed unless the test already uses one.
+ * Each session then repeatedly requests the given paths as its user, in one of three ways:
+ * <ul>
+ * <li>with the password in HTTP Basic authentication and no cookies,
+ * so that {@link SecurityRealm} authenticates every request;
+ * <li>with an API token, likewise without cookies;
+ * <li>after logging in through the login form, keeping the HTTP session as a browser would,
+ * so that the realm is only involved in the login itself.
+ * </ul>
+ * Sessions never share cookies.
+ * Alongside the HTTP latency of each kind of session, the in-process cost of authenticating the user and
+ * checking {@link Jenkins#READ} is measured separately, without HTTP overhead.
+ * Usage: <pre>{@code
+ * j.jenkins.setAuthorizationStrategy(new MockAuthorizationStrategy().grant(Jenkins.READ).everywhere().to("group0"));
+ * SessionSimulator.Result result = j.sessions()
+ *         .users(2000)
+ *         .groups(50)
+ *         .sessions(200)
+ *         .tokenRatio(0.4)
+ *         .loginRatio(0.2)
+ *         .iterations(20)
+ *         .run();
+ * result.assertErrorRate(0);
+ * }</pre>
+ * @see JenkinsRule#sessions
+ */
+public final class SessionSimulator {
+
+    private static final int MAX_RECORDED_FAILURES = 10;
+
+    private final JenkinsRule j;
+    private int users = 100;
+    private int groups = 0;
+    private String prefix = "user";
+    private int sessions = 10;
+    private double tokenRatio = 0.5;
+    private double loginRatio = 0;
+    private int iterations = 1;
+
+    @CheckForNull
+    private Duration duration;
+
+    private final List<String> paths = new ArrayList<>();
+    private boolean http2;
+
+    @CheckForNull
+    private Map<String, String> tokens;
+
+    SessionSimulator(JenkinsRule j) {
+        this.j = j;
+    }
+
+    /**
+     * Number of distinct users, named with the {@link #prefix} and a number from 0; defaults to 100.
+     */
+    public SessionSimulator users(int users) {
+        if (users < 1) {
+            throw new IllegalArgumentException("users must be positive");
+        }
+        this.users = users;
+        return this;
+    }
+
+    /**
+     * Number of groups, named {@code group0}, {@code group1} and so on; user number {@code i} is a member of group
+     * number {@code i % groups}. Defaults to none.
+     */
+    public SessionSimulator groups(int groups) {
+        if (groups < 0) {
+            throw new IllegalArgumentException("groups must not be negative");
+        }
+        this.groups = groups;
+        return this;
+    }
+
+    /**
+     * Prefix of user IDs; defaults to {@code user}.
+     */
+    public SessionSimulator prefix(@NonNull String prefix) {
+        this.prefix = prefix;
+        return this;
+    }
+
+    /**
+     * Number of concurrent sessions, assigned to users round-robin; defaults to 10.
+     */
+    public SessionSimulator sessions(int sessions) {
+        if (sessions < 1) {
+            throw new IllegalArgumentException("sessions must be positive");
+        }
+        this.sessions = sessions;
+        return this;
+    }
+
+    /**
+     * Fraction of sessions, between 0 and 1, which authenticate with an API token rather than a password;
+     * defaults to one half.
+     */
+    public SessionSimulator tokenRatio(double tokenRatio) {
+        if (tokenRatio < 0 || tokenRatio > 1) {
+            throw new IllegalArgumentException("token ratio must be between 0 and 1");
+        }
+        this.tokenRatio = tokenRatio;
+        return this;
+    }
+
+    /**
+     * Fraction of sessions, between 0 and 1, which log in through the login form and then keep their HTTP session;
+     * defaults to none.
+     * Sessions which neither use a token nor log in send their password with each request.
+     */
+    public SessionSimulator loginRatio(double loginRatio) {
+        if (loginRatio < 0 || loginRatio > 1) {
+            throw new IllegalArgumentException("login ratio must be between 0 and 1");
+        }
+        this.loginRatio = loginRatio;
+        return this;
+    }
+
+    /**
+     * Number of times each session requests all paths, unless {@link #duration} is set; defaults to 1.
+     */
+    public SessionSimulator iterations(int iterations) {
+        if (iterations < 1) {
+            throw new IllegalArgumentException("iterations must be positive");
+        }
+        this.iterations = iterations;
+        return this;
+    }
+
+    /**
+     * Keeps each session requesting its paths until this much time has passed.
+     * Overrides {@link #iterations}.
+     */
+    public SessionSimulator duration(@NonNull Duration duration) {
+        this.duration = duration;
+        return this;
+    }
+
+    /**
+     * Adds a path which every session requests, failing unless the status code is 2xx;
+     * defaults to {@code whoAmI/api/json}.
+     */
+    public SessionSimulator get(@NonNull String path) {
+        paths.add(path);
+        return this;
+    }
+
+    /**
+     * Uses HTTP/2 where available.
+     * @see JsonApiClient#withHttp2
+     */
+    public SessionSimulator withHttp2() {
+        http2 = true;
+        return this;
+    }
+
+    /**
+     * Creates the users, their groups and API tokens, unless already done.
+     * Called by {@link #run}; call it separately to measure or exclude the setup time.
+     * @return the API token of each user, keyed by user ID
+     */
+    public Map<String, String> setUp() throws Exception {
+        if (tokens != null) {
+            return tokens;
+        }
+        JenkinsRule.DummySecurityRealm realm;
+        if (j.jenkins.getSecurityRealm() instanceof JenkinsRule.DummySecurityRealm existing) {
+            realm = existing;
+        } else {
+            realm = j.createDummySecurityRealm();
+            j.jenkins.setSecurityRealm(realm);
+        }
+        List<User> created = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            String id = userId(i);
+            created.add(User.getById(id, true));
+            if (groups > 0) {
+                realm.addGroups(id, "group" + (i % groups));
+            }
+        }
+        tokens = Collections.unmodifiableMap(j.createApiTokens(created));
+        return tokens;
+    }
+
+    private String userId(int i) {
+        return prefix + i;
+    }
+
+    /**
+     * Runs all sessions and waits for them to finish.
+     */
+    public Result run() throws Exception {
+        int tokenSessions = (int) Math.round(sessions * tokenRatio);
+        int loginSessions = (int) Math.round(sessions * loginRatio);
+        if (tokenSessions + loginSessions > sessions) {
+            throw new IllegalArgumentException("token and login ratios add up to more than 1");
+        }
+        Map<String, String> tokens = setUp();
+        List<String> paths = this.paths.isEmpty() ? List.of("whoAmI/api/json") : this.paths;
+        Map<String, Stats> stats = new LinkedHashMap<>();
+        for (String name : List.of(
+                "password requests",
+                "token requests",
+                "logged-in requests",
+                "login",
+                "password authentication",
+                "token authentication",
+                "authorization")) {
+            stats.put(name, new Stats());
+        }
+        JsonApiClient base = j.createJsonApiClient();
+        if (http2) {
+            base.withHttp2();
+        }
+        SecurityRealm realm = j.jenkins.getSecurityRealm();
+        List<Callable<Void>> tasks = new ArrayList<>();
+        long start = System.nanoTime();
+        long deadline = duration == null ? Long.MAX_VALUE : start + duration.toNanos();
+        for (int i = 0; i < sessions; i++) {
+            String id = userId(i % users);
+            boolean token = i < tokenSessions;
+            boolean login = !token && i < tokenSessions + loginSessions;
+            String secret = token ? tokens.get(id) : id;
+            // a copy shares connections with the others, but has its own cookies if any
+            JsonApiClient client = base.copy();
+            if (token) {
+                client.withoutCookies().withApiToken(id, secret);
+            } else if (!login) {
+                client.withoutCookies().withBasicCredentials(id, secret);
+            }
+            Stats requests =
+                    stats.get(token ? "token requests" : login ? "logged-in requests" : "password requests");
+            Stats loginStats = stats.get("login");
+            Stats authentication = stats.get(token ? "token authentication" : "password authentication");
+            Stats authorization = stats.get("authorization");
+            tasks.add(() -> {
+                User user = User.getById(id, false);
+                if (login) {
+                    loginStats.run(() -> client.login(id, secret));
+                }
+                int iteration = 0;
+                while (duration == null ? iteration++ < iterations : System.nanoTime() < deadline) {
+                    for (String path : paths) {
+                        requests.run(() -> client.get(path).assertSuccess());
+                    }
+                    if (login) {
+                        // authenticated once by the login, not per request
+                        continue;
+                    }
+                    Authentication[] auth = new Authentication[1];
+                    authentication.run(() -> {
+                        if (token) {
+                            if (!user.getProperty(ApiTokenProperty.class).matchesPassword(secret)) {
+                                throw new AssertionError("token of " + id + " was not accepted");
+                            }
+                            auth[0] = user.impersonate2();
+                        } else {
+                            auth[0] = realm.getSecurityComponents()
+                                    .manager2
+                                    .authenticate(new UsernamePasswordAuthenticationToken(id, secret));
+                        }
+                    });
+                    if (auth[0] != null) {
+                        authorization.run(() -> j.jenkins.getACL().hasPermission2(auth[0], Jenkins.READ));
+                    }
+                }
+                return null;
+            });
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(
+                sessions, new NamingThreadFactory(new DaemonThreadFactory(), "SessionSimulator"));
+        try {
+            for (Future<Void> f : executor.invokeAll(tasks)) {
+                f.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return new Result(users, sessions, Duration.ofNanos(System.nanoTime() - start), stats);
+    }
+
+    @FunctionalInterface
+    private interface Action {
+        void run() throws Exception;
+    }
+
+    private static final class Stats {
+        final LatencyHistogram latency = new LatencyHistogram();
+        final LongAdder errors = new LongAdder();
+        final List<String> failures = Collections.synchronizedList(new ArrayList<>());
+
+        void run(Action action) {
+            long start = System.nanoTime();
+            try {
+                action.run();
+            } catch (Exception | AssertionError x) {
+                errors.increment();
+                if (failures.size() < MAX_RECORDED_FAILURES) {
+                    failures.add(x.toString());
+                }
+            } finally {
+                latency.recordSince(start);
+            }
+        }
+    }
+
+    /**
+     * Statistics of a completed run.
+     */
+    public static final class Result {
+
+        private final int users;
+        private final int sessions;
+        private final Duration elapsed;
+        private final Map<String, Stats> stats;
+
+        Result(int users, int sessions, Duration elapsed, Map<String, Stats> stats) {
+            this.users = users;
+            this.sessions = sessions;
+            this.elapsed = elapsed;
+            this.stats = stats;
+        }
+
+        public Duration getElapsed() {
+            return elapsed;
+        }
+
+        /**
+         * HTTP latency of sessions sending a password or a token with each request.
+         */
+        public LatencyHistogram getRequestLatency(boolean token) {
+            return stats.get(token ? "token requests" : "password requests").latency;
+        }
+
+        /**
+         * HTTP latency of sessions which logged in through the login form, authenticated by their HTTP session.
+         */
+        public LatencyHistogram getLoggedInRequestLatency() {
+            return stats.get("logged-in requests").latency;
+        }
+
+        /**
+         * HTTP latency of logging in through the login form, including the redirect which follows.
+         */
+        public LatencyHistogram getLoginLatency() {
+            return stats.get("login").latency;
+        }
+
+        /**
+         * In-process latency of authenticating with a password through the security realm, or with a token.
+         */
+        public LatencyHistogram getAuthenticationLatency(boolean token) {
+            return stats.get(token ? "token authentication" : "password authentication").latency;
+        }
+
+        /**
+         * In-process latency of checking {@link Jenkins#READ} for an authenticated user.
+         */
+        public LatencyHistogram getAuthorizationLatency() {
+            return stats.get("authorization").latency;
+        }
+
+        public long getErrors() {
+            return stats.values().stream().mapToLong(s -> s.errors.sum()).sum();
+        }
+
+        /**
+         * Fraction of requests and checks which failed, between 0 and 1.
+         */
+        public double getErrorRate() {
+            long total = stats.values().stream().mapToLong(s -> s.latency.getCount()).sum();
+            return total == 0 ? 0 : (double) getErrors() / total;
+        }
+
+        /**
+         * Fails if more than the given fraction of requests and checks failed.
+         */
+        public Result assertErrorRate(double max) {
+            if (getErrorRate() > max) {
+                throw new AssertionError("error rate " + getErrorRate() + " above " + max + "\n" + this);
+            }
+            return this;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(sessions)
+                    .append(" sessions of ")
+                    .append(users)
+                    .append(" users in ")
+                    .append(elapsed.toMillis())
+                    .append("ms, ")
+                    .append(getErrors())
+                    .append(" errors");
+            stats.forEach((name, s) -> {
+                if (s.latency.getCount() > 0) {
+                    sb.append("\n  ").append(name).append(": ").append(s.latency);
+                    if (s.errors.sum() > 0) {
+                        sb.append(" errors=").append(s.errors.sum()).append(' ').append(s.failures);
+                    }
+                }
+            });
+            return sb.toString();
+        }
+    }
+}
@@ -0,0 +1,275 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.jvnet.hudson.test;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+import org.htmlunit.Cache;
+import org.htmlunit.WebClient;
+import org.htmlunit.WebRequest;
+import org.htmlunit.WebResponse;
+import org.htmlunit.corejs.javascript.Script;
+import org.htmlunit.corejs.javascript.Scriptable;
+import org.htmlunit.html.HtmlPage;
+import org.htmlunit.javascript.JavaScriptEngine;
+
+/**
+ * JVM-wide cache shared by all {@link JenkinsRule.WebClient}s, across tests,
+ * so that the same adjunct JavaScript and CSS is not downloaded and compiled again for every client.
+ * <ul>
+ * <li>Static resources are kept in a single HtmlUnit {@link Cache}, which only stores responses
+ * with caching headers (as Jenkins sends for {@code /static/…} and {@code /adjuncts/…}).
+ * It is not cleared when a client is closed, but is by an explicit {@code getCache().clear()}.
+ * HtmlUnit never revalidates cached responses, so entries are only reused while the Jenkins instance which served
+ * them is still the one listening at that address.
+ * <li>Compiled scripts are kept by a hash of their source (and source name), so identical scripts are compiled
+ * only once even when served from another Jenkins instance on another port.
+ * Compiled Rhino scripts hold no per-page state and may be executed in any scope.
+ * </ul>
+ * Disable with {@code -Djth.webClient.sharedCache=false}.
+ */
+public final class SharedWebClientCache {
+
+    static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("jth.webClient.sharedCache", "true"));
+
+    private static final int MAX_SCRIPTS = Integer.getInteger("jth.webClient.sharedCache.maxScripts", 1000);
+
+    private static final ResourceCache RESOURCES = new ResourceCache();
+
+    private static final Map<String, Script> SCRIPTS = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Script> eldest) {
+            return size() > MAX_SCRIPTS;
+        }
+    };
+
+    private static final LongAdder HITS = new LongAdder();
+    private static final LongAdder MISSES = new LongAdder();
+
+    private SharedWebClientCache() {}
+
+    /**
+     * Makes a client use the shared caches.
+     */
+    static void install(@NonNull WebClient client, @NonNull BooleanSupplier debugging) {
+        client.setCache(RESOURCES);
+        if (client.getJavaScriptEngine() != null && client.getJavaScriptEngine().getClass() == JavaScriptEngine.class) {
+            client.getJavaScriptEngine().shutdown();
+            client.setJavaScriptEngine(new CachingJavaScriptEngine(client, debugging));
+        }
+    }
+
+    /**
+     * Stops a client from using the shared resource cache, so that closing it does not clear the cache.
+     */
+    static void detach(@NonNull WebClient client) {
+        if (client.getCache() == RESOURCES) {
+            client.setCache(new Cache());
+        }
+    }
+
+    /**
+     * Stops reusing resources served by an earlier Jenkins instance at the same address,
+     * which may serve different content at the same URLs.
+     */
+    static void serverStarted(@NonNull URL url) {
+        RESOURCES.serverStarted(url);
+    }
+
+    /**
+     * Number of script compilations avoided so far.
+     */
+    public static long getScriptHits() {
+        return HITS.sum();
+    }
+
+    /**
+     * Number of scripts compiled so far.
+     */
+    public static long getScriptMisses() {
+        return MISSES.sum();
+    }
+
+    /**
+     * Number of static resources currently cached.
+     */
+    public static int getResourceCount() {
+        return RESOURCES.getSize();
+    }
+
+    /**
+     * Drops everything cached, such as when a test serves different content at the same URL as a previous one.
+     */
+    public static void clear() {
+        RESOURCES.clear();
+        synchronized (SCRIPTS) {
+            SCRIPTS.clear();
+        }
+    }
+
+    static Script compile(String source, String sourceName, boolean debug, Supplier<Script> compiler) {
+        String key = key(source, sourceName, debug);
+        Script script;
+        synchronized (SCRIPTS) {
+            script = SCRIPTS.get(key);
+        }
+        if (script != null) {
+            HITS.increment();
+            return script;
+        }
+        // compile outside the lock; at worst two threads compile the same script
+        script = compiler.get();
+        if (script != null) {
+            MISSES.increment();
+            synchronized (SCRIPTS) {
+                SCRIPTS.put(key, script);
+            }
+        }
+        return script;
+    }
+
+    private static String key(String source, String sourceName, boolean debug) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException x) {
+            throw new AssertionError(x);
+        }
+        digest.update(source.getBytes(StandardCharsets.UTF_8));
+        // the host and port differ from test to test, but only the path shows up in stack traces anyway
+        return HexFormat.of().formatHex(digest.digest()) + ':' + stripAuthority(sourceName) + ':' + debug;
+    }
+
+    private static String stripAuthority(String sourceName) {
+        int scheme = sourceName.indexOf("://");
+        if (scheme < 0) {
+            return sourceName;
+        }
+        int path = sourceName.indexOf('/', scheme + 3);
+        return path < 0 ? "" : sourceName.substring(path);
+    }
+
+    /**
+     * A {@link Cache} which knows which server instance each entry came from.
+     */
+    private static final class ResourceCache extends Cache {
+        private static final long serialVersionUID = 1L;
+
+        /** Incremented for an address (host and port) whenever a Jenkins starts listening there. */
+        private final Map<String, Integer> generations = new ConcurrentHashMap<>();
+
+        /** Generation of the address which served each cached URL; bounded like the entries themselves. */
+        private final Map<String, Integer> servedBy = Collections.synchronizedMap(new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Integer> eldest) {
+                return size() > 2 * getMaxSize();
+            }
+        });
+
+        ResourceCache() {
+            setMaxSize(Integer.getInteger("jth.webClient.sharedCache.maxResources", 500));
+        }
+
+        void serverStarted(URL url) {
+            generations.merge(url.getAuthority(), 1, Integer::sum);
+        }
+
+        private int generation(URL url) {
+            return generations.getOrDefault(url.getAuthority(), 0);
+        }
+
+        private boolean isCurrent(WebRequest request) {
+            Integer served = servedBy.get(request.getUrl().toExternalForm());
+            return served != null && served == generation(request.getUrl());
+        }
+
+        @Override
+        public boolean cacheIfPossible(WebRequest request, WebResponse response, Object toCache) {
+            int generation = generation(request.getUrl());
+            boolean cached = super.cacheIfPossible(request, response, toCache);
+            if (cached) {
+                servedBy.put(request.getUrl().toExternalForm(), generation);
+            }
+            return cached;
+        }
+
+        @Override
+        public WebResponse getCachedResponse(WebRequest request) {
+            return isCurrent(request) ? super.getCachedResponse(request) : null;
+        }
+
+        @Override
+        public Object getCachedObject(WebRequest request) {
+            return isCurrent(request) ? super.getCachedObject(request) : null;
+        }
+
+        @Override
+        public void clear() {
+            super.clear();
+            servedBy.clear();
+        }
+    }
+
+    /**
+     * Looks up compiled scripts in the shared cache before compiling.
+     */
+    private static final class CachingJavaScriptEngine extends JavaScriptEngine {
+
+        /**
+         * Whether a debugger is attached to the contexts of the client, so scripts compiled now carry debug information.
+         */
+        private final BooleanSupplier debugging;
+
+        CachingJavaScriptEngine(WebClient client, BooleanSupplier debugging) {
+            super(client);
+            this.debugging = debugging;
+        }
+
+        @Override
+        public Script compile(
+                HtmlPage owningPage, Scriptable scope, String sourceCode, String sourceName, int startLine) {
+            if (startLine != 1) {
+                // inline scripts inside a page; unlikely to repeat verbatim at the same position
+                return super.compile(owningPage, scope, sourceCode, sourceName, startLine);
+            }
+            return SharedWebClientCache.compile(
+                    sourceCode,
+                    sourceName,
+                    debugging.getAsBoolean(),
+                    () -> super.compile(owningPage, scope, sourceCode, sourceName, startLine));
+        }
+    }
+}
@@ -2,8 +2,11 @@ package org.jvnet.hudson.test;
 
 import edu.umd.cs.findbugs.annotations.NonNull;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.eclipse.jetty.util.component.AbstractLifeCycle;
 import org.eclipse.jetty.util.thread.ThreadPool;
 
@@ -12,6 +15,7 @@ import org.eclipse.jetty.util.thread.ThreadPool;
  */
 public class ThreadPoolImpl extends AbstractLifeCycle implements ThreadPool {
     private final ExecutorService es;
+    private final AtomicInteger busy = new AtomicInteger();
 
     public ThreadPoolImpl(ExecutorService es) {
         this.es = es;
@@ -23,7 +27,14 @@ public class ThreadPoolImpl extends AbstractLifeCycle implements ThreadPool {
             throw new RejectedExecutionException();
         }
 
-        es.submit(job);
+        es.submit(() -> {
+            busy.incrementAndGet();
+            try {
+                job.run();
+            } finally {
+                busy.decrementAndGet();
+            }
+        });
     }
 
     @Override
@@ -33,18 +44,35 @@ public class ThreadPoolImpl extends AbstractLifeCycle implements ThreadPool {
         }
     }
 
+    /**
+     * For a {@link ThreadPoolExecutor} or {@link ForkJoinPool}, the size of the pool;
+     * otherwise (such as for a virtual thread per task executor) the number of jobs running.
+     */
     @Override
     public int getThreads() {
-        return 999;
+        if (es instanceof ThreadPoolExecutor tpe) {
+            return tpe.getPoolSize();
+        } else if (es instanceof ForkJoinPool fjp) {
+            return fjp.getPoolSize();
+        }
+        return busy.get();
     }
 
     @Override
     public int getIdleThreads() {
-        return 999;
+        if (es instanceof ThreadPoolExecutor tpe) {
+            return Math.max(0, tpe.getPoolSize() - tpe.getActiveCount());
+        } else if (es instanceof ForkJoinPool fjp) {
+            return Math.max(0, fjp.getPoolSize() - fjp.getActiveThreadCount());
+        }
+        return 0;
     }
 
     @Override
     public boolean isLowOnThreads() {
+        if (es instanceof ThreadPoolExecutor tpe) {
+            return tpe.getActiveCount() >= tpe.getMaximumPoolSize() && !tpe.getQueue().isEmpty();
+        }
         return false;
     }
 
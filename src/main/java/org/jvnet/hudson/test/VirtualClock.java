@@ -0,0 +1,237 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.jvnet.hudson.test;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import hudson.Extension;
+import hudson.ExtensionComponent;
+import hudson.model.AsyncPeriodicWork;
+import hudson.model.LoadStatistics;
+import hudson.model.PeriodicWork;
+import hudson.slaves.NodeProvisioner;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Logger;
+import jenkins.ExtensionFilter;
+import jenkins.model.Jenkins;
+import jenkins.util.Timer;
+import org.jvnet.hudson.test.recipes.WithVirtualClock;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Runs periodic background work in virtual time, so tests do not need to wait for it or tweak global statics.
+ * In a test annotated with {@link WithVirtualClock}, {@link PeriodicWork} (including {@link AsyncPeriodicWork})
+ * is never scheduled on the {@link Timer}; instead {@link #advance} runs every task falling due within the given
+ * duration, synchronously and in a deterministic order (by due time, then by extension order).
+ * This covers {@link LoadStatistics} ticks, {@link NodeProvisioner} passes and computer retention checks.
+ * Queue maintenance, normally done every five seconds, is also run at that pace.
+ * <pre>{@code
+ * @WithVirtualClock
+ * @Test
+ * public void provisioning() throws Exception {
+ *     VirtualClock clock = VirtualClock.get();
+ *     j.jenkins.clouds.add(new SimulatedCloud("sim"));
+ *     p.scheduleBuild2(0);
+ *     clock.advance(Duration.ofMinutes(1)); // provisions an agent for the queued build
+ * }
+ * }</pre>
+ * Virtual time starts when Jenkins starts,
+ * and each task first falls due after its {@link PeriodicWork#getInitialDelay}.
+ *
+ * <p>
+ * Periodic work is kept off the timer by hiding it from {@link PeriodicWork#all}, so lookups of a specific
+ * implementation such as {@code ExtensionList.lookupSingleton} still work,
+ * but iterating over all periodic work does not find it. Work which is not a {@link PeriodicWork}, such as provisioning passes requested by the queue, still happens
+ * in real time, as do cron triggers; and code reading {@link System#currentTimeMillis}
+ * (such as idle timeouts of retention strategies) still sees wall-clock time.
+ * Only one Jenkins per JVM may use a virtual clock at a time.
+ */
+public final class VirtualClock {
+
+    private static final Logger LOGGER = Logger.getLogger(VirtualClock.class.getName());
+
+    private static final long QUEUE_MAINTENANCE_PERIOD = 5_000;
+
+    /** How long {@link #advance} waits for each run of an {@link AsyncPeriodicWork}. */
+    private static final Duration ASYNC_TIMEOUT = Duration.ofMinutes(1);
+
+    @CheckForNull
+    private static volatile VirtualClock current;
+
+    /** Periodic work kept off the timer, in extension order. */
+    private final List<ExtensionComponent<PeriodicWork>> adopted = new ArrayList<>();
+
+    private final Map<PeriodicWork, Long> due = new LinkedHashMap<>();
+    private long nextQueueMaintenance = QUEUE_MAINTENANCE_PERIOD;
+    private long now;
+
+    private VirtualClock() {}
+
+    /**
+     * Gets the clock of the current test.
+     * @throws IllegalStateException unless the test is annotated with {@link WithVirtualClock}
+     */
+    public static VirtualClock get() {
+        VirtualClock clock = current;
+        if (clock == null) {
+            throw new IllegalStateException("annotate the test with @WithVirtualClock");
+        }
+        return clock;
+    }
+
+    /**
+     * Called by {@link WithVirtualClock} before Jenkins starts.
+     */
+    @Restricted(NoExternalUse.class)
+    public static void install() {
+        if (current != null) {
+            throw new IllegalStateException("a virtual clock is already installed in this JVM");
+        }
+        current = new VirtualClock();
+    }
+
+    /**
+     * Called by {@link WithVirtualClock} after the test.
+     */
+    @Restricted(NoExternalUse.class)
+    public static void uninstall() {
+        current = null;
+    }
+
+    /**
+     * Virtual time elapsed since Jenkins started.
+     */
+    public synchronized Duration elapsed() {
+        return Duration.ofMillis(now);
+    }
+
+    /**
+     * Moves time forward, running whatever falls due before returning.
+     * Failures of periodic work are logged, as they would be when run by the timer.
+     * @throws TimeoutException if an {@link AsyncPeriodicWork} did not finish within a minute
+     * @throws InterruptedException if interrupted while waiting for an {@link AsyncPeriodicWork} to finish
+     */
+    public synchronized void advance(Duration duration) throws InterruptedException, TimeoutException {
+        if (duration.isNegative()) {
+            throw new IllegalArgumentException("cannot go back in time: " + duration);
+        }
+        long target = now + duration.toMillis();
+        while (true) {
+            refresh();
+            PeriodicWork next = null;
+            long nextDue = nextQueueMaintenance;
+            for (Map.Entry<PeriodicWork, Long> entry : due.entrySet()) {
+                // on ties, periodic work in extension order runs before queue maintenance
+                if (entry.getValue() < nextDue || (entry.getValue() == nextDue && next == null)) {
+                    next = entry.getKey();
+                    nextDue = entry.getValue();
+                }
+            }
+            if (nextDue > target) {
+                break;
+            }
+            now = nextDue;
+            if (next == null) {
+                nextQueueMaintenance += QUEUE_MAINTENANCE_PERIOD;
+                Jenkins.get().getQueue().maintain();
+            } else {
+                due.put(next, nextDue + Math.max(1, next.getRecurrencePeriod()));
+                run(next);
+            }
+        }
+        now = target;
+    }
+
+    /**
+     * Picks up periodic work loaded since the last check, such as from dynamically loaded plugins.
+     */
+    private void refresh() {
+        List<ExtensionComponent<PeriodicWork>> components;
+        synchronized (adopted) {
+            components = new ArrayList<>(adopted);
+        }
+        Collections.sort(components);
+        Map<PeriodicWork, Long> ordered = new LinkedHashMap<>();
+        for (ExtensionComponent<PeriodicWork> component : components) {
+            PeriodicWork work = component.getInstance();
+            Long when = due.get(work);
+            ordered.put(work, when != null ? when : now + Math.max(0, work.getInitialDelay()));
+        }
+        due.clear();
+        due.putAll(ordered);
+    }
+
+    private void run(PeriodicWork work) throws InterruptedException, TimeoutException {
+        LOGGER.fine(() -> "Running " + work + " at " + Duration.ofMillis(now));
+        if (work instanceof AsyncPeriodicWork async) {
+            // run() starts a thread named after the work; wait for it so the work is done when we return
+            String threadName = async.name + " thread";
+            Set<Thread> before = new HashSet<>(Thread.getAllStackTraces().keySet());
+            work.run();
+            long deadline = System.nanoTime() + ASYNC_TIMEOUT.toNanos();
+            for (Thread t : Thread.getAllStackTraces().keySet()) {
+                if (!before.contains(t) && t.getName().equals(threadName)) {
+                    t.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+                    if (t.isAlive()) {
+                        throw new TimeoutException(async.name + " did not finish within " + ASYNC_TIMEOUT);
+                    }
+                }
+            }
+        } else {
+            work.run();
+        }
+    }
+
+    /**
+     * Keeps periodic work away from {@link PeriodicWork#all}, which schedules it on the {@link Timer},
+     * while a virtual clock is installed.
+     */
+    @Restricted(NoExternalUse.class)
+    @Extension
+    public static final class Adopter extends ExtensionFilter {
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> boolean allows(Class<T> type, ExtensionComponent<T> component) {
+            VirtualClock clock = current;
+            if (clock == null || (type != PeriodicWork.class && type != AsyncPeriodicWork.class)) {
+                return true;
+            }
+            if (type == PeriodicWork.class) {
+                synchronized (clock.adopted) {
+                    clock.adopted.add((ExtensionComponent<PeriodicWork>) component);
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -32,31 +32,52 @@ import hudson.model.Descriptor;
 import hudson.model.Node;
 import hudson.model.Slave;
 import hudson.remoting.VirtualChannel;
+import hudson.remoting.Which;
 import hudson.slaves.DumbSlave;
 import hudson.slaves.JNLPLauncher;
 import hudson.slaves.RetentionStrategy;
 import hudson.slaves.SlaveComputer;
+import hudson.util.NamingThreadFactory;
 import hudson.util.ProcessTree;
 import hudson.util.StreamCopyThread;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
 import java.io.Serializable;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.HexFormat;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import jenkins.model.Jenkins;
 import org.apache.commons.io.FileUtils;
 import org.apache.tools.ant.util.JavaEnvUtils;
+import org.jvnet.hudson.test.ChannelStatistics;
+import org.jvnet.hudson.test.ComputerStateListener;
 import org.jvnet.hudson.test.JenkinsRule;
 import org.jvnet.hudson.test.PrefixedOutputStream;
 import org.jvnet.hudson.test.junit.jupiter.RealJenkinsExtension;
@@ -96,12 +117,46 @@ public class InboundAgentFixture {
 
     private static final Logger LOGGER = Logger.getLogger(InboundAgentFixture.class.getName());
 
+    private static final String HOST_NAME = "(shared JVM)";
+
+    /**
+     * Where {@link #getAgentArguments} keeps copies of {@code agent.jar}, named by content hash.
+     */
+    private static final Path AGENT_JAR_CACHE =
+            Path.of(System.getProperty("java.io.tmpdir"), "jenkins-test-harness-agent-jars");
+
+    /**
+     * {@link Slave.JnlpJar#getURL} to cached copy, to avoid even hashing the same file repeatedly.
+     */
+    private static final Map<String, File> cachedAgentJars = new ConcurrentHashMap<>();
+
+    /**
+     * Agent-host JVMs kept running across fixtures for {@link Options#isReuseJvm}, keyed by command line.
+     */
+    private static final Map<List<String>, Host> reusableHosts = new HashMap<>();
+
+    /**
+     * Stands in for {@link #id} in the environment of agent-host JVMs in {@link #reusableHosts}.
+     */
+    private static final String REUSABLE_HOST_ID = UUID.randomUUID().toString();
+
     private final String id = UUID.randomUUID().toString();
     private final Map<String, List<Process>> procs = Collections.synchronizedMap(new HashMap<>());
 
     private final Set<String> workDirs = Collections.synchronizedSet(new HashSet<>());
     private final Set<File> jars = Collections.synchronizedSet(new HashSet<>());
 
+    /**
+     * Agents running in {@link #host}.
+     */
+    private final Set<String> hosted = Collections.synchronizedSet(new HashSet<>());
+
+    /**
+     * The agent-host JVM used for {@link Options#isSharedJvm}, if started.
+     */
+    @CheckForNull
+    private Host host;
+
     /**
      * The options used to (re)start an inbound agent.
      */
@@ -125,6 +180,8 @@ public class InboundAgentFixture {
         protected String trustStorePassword;
         protected String cert;
         protected boolean noCertificateCheck;
+        protected boolean sharedJvm;
+        protected boolean reuseJvm;
 
         protected Options() {}
 
@@ -218,6 +275,22 @@ public class InboundAgentFixture {
             this.noCertificateCheck = noCertificateCheck;
         }
 
+        public boolean isSharedJvm() {
+            return sharedJvm;
+        }
+
+        public void setSharedJvm(boolean sharedJvm) {
+            this.sharedJvm = sharedJvm;
+        }
+
+        public boolean isReuseJvm() {
+            return reuseJvm;
+        }
+
+        public void setReuseJvm(boolean reuseJvm) {
+            this.reuseJvm = reuseJvm;
+        }
+
         /**
          * Compute java options required to connect to the underlying instance.
          * If {@link #cert} or {@link #noCertificateCheck} is set, trustStore options are not computed.
@@ -340,6 +413,37 @@ public class InboundAgentFixture {
                 return (B) this;
             }
 
+            /**
+             * Run the agent in an agent-host JVM shared with all other such agents of this fixture,
+             * rather than forking a JVM of its own.
+             * Each agent still gets its own Remoting engine and work directory.
+             * JVM-level settings such as {@link #javaOptions} are taken from whichever agent starts the host.
+             * {@link #cert} is not supported in this mode.
+             *
+             * @return this builder
+             * @see InboundAgentHost
+             */
+            public B sharedJvm() {
+                options.sharedJvm = true;
+                return (B) this;
+            }
+
+            /**
+             * Like {@link #sharedJvm}, but keep the agent-host JVM running after {@link InboundAgentFixture#tearDown}
+             * so that later fixtures in this test JVM reuse it, as long as they use the same {@code agent.jar}
+             * and JVM options.
+             * The agents of the finished test are disconnected, and new agents simply connect
+             * to the new controller with their own secret, saving a JVM startup per test.
+             * Any static state in the agent JVM, such as logger levels, carries over between tests.
+             *
+             * @return this builder
+             */
+            public B reuseJvm() {
+                options.sharedJvm = true;
+                options.reuseJvm = true;
+                return (B) this;
+            }
+
             /**
              * Skip starting the agent.
              *
@@ -420,6 +524,69 @@ public class InboundAgentFixture {
         return s;
     }
 
+    /**
+     * Creates, attaches, and optionally starts several new inbound agents.
+     * The agents are created one after another, then started and awaited in parallel.
+     * Combine with {@link Options.Builder#sharedJvm} to connect hundreds of agents without hundreds of JVMs.
+     *
+     * @param options the options for each agent; each must be a distinct instance
+     * @return the agents, in the same order as {@code options}
+     */
+    @SuppressWarnings("rawtypes")
+    public List<Slave> createAgents(@NonNull JenkinsRule r, @NonNull List<? extends Options> options)
+            throws Exception {
+        List<Slave> agents = new ArrayList<>();
+        for (Options o : options) {
+            Slave s = createAgentJR(r, o);
+            workDirs.add(s.getRemoteFS());
+            agents.add(s);
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(
+                Math.max(1, Math.min(options.size(), Runtime.getRuntime().availableProcessors() * 4)),
+                new NamingThreadFactory(Executors.defaultThreadFactory(), "InboundAgentFixture.createAgents"));
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (Options o : options) {
+                if (o.isStart()) {
+                    futures.add(executor.submit(() -> {
+                        start(r, o);
+                        return null;
+                    }));
+                }
+            }
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException x) {
+                    Throwable cause = x.getCause();
+                    if (cause instanceof Exception e) {
+                        throw e;
+                    }
+                    throw x;
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return agents;
+    }
+
+    /**
+     * Creates, attaches, and starts {@code count} new inbound agents.
+     *
+     * @param options supplies a fresh {@link Options} for each agent
+     * @see #createAgents(JenkinsRule, List)
+     */
+    @SuppressWarnings("rawtypes")
+    public List<Slave> createAgents(@NonNull JenkinsRule r, int count, @NonNull Supplier<? extends Options> options)
+            throws Exception {
+        List<Options> all = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            all.add(options.get());
+        }
+        return createAgents(r, all);
+    }
+
     /**
      * (Re-)starts an existing inbound agent.
      */
@@ -453,6 +620,10 @@ public class InboundAgentFixture {
         if (stop) {
             stop(Objects.requireNonNull(options.getName()));
         }
+        if (options.isSharedJvm()) {
+            startHosted(agentArguments, options);
+            return;
+        }
         List<String> cmd = new ArrayList<>(List.of(
                 JavaEnvUtils.getJreExecutable("java"),
                 "-Xmx512m",
@@ -501,11 +672,121 @@ public class InboundAgentFixture {
                 .start();
     }
 
+    @SuppressWarnings("rawtypes")
+    private synchronized void startHosted(AgentArguments agentArguments, Options options) throws IOException {
+        if (options.cert != null) {
+            throw new IllegalArgumentException("-cert is not supported for agents in a shared JVM");
+        }
+        if (host == null || !host.isAlive()) {
+            List<String> cmd = new ArrayList<>(List.of(
+                    JavaEnvUtils.getJreExecutable("java"),
+                    "-Xmx512m",
+                    "-XX:+PrintCommandLineFlags",
+                    "-Djava.awt.headless=true"));
+            cmd.addAll(options.javaOptions);
+            cmd.addAll(List.of(
+                    "-cp",
+                    agentArguments.agentJar.getAbsolutePath()
+                            + File.pathSeparator
+                            + Which.jarFile(InboundAgentHost.class).getAbsolutePath(),
+                    InboundAgentHost.class.getName()));
+            if (options.isReuseJvm()) {
+                synchronized (reusableHosts) {
+                    Host reusable = reusableHosts.get(cmd);
+                    if (reusable == null || !reusable.isAlive()) {
+                        reusable = new Host(cmd, REUSABLE_HOST_ID, true, options);
+                        reusableHosts.put(cmd, reusable);
+                    } else {
+                        LOGGER.info("Reusing agent-host JVM");
+                    }
+                    host = reusable;
+                }
+            } else {
+                host = new Host(cmd, id, false, options);
+            }
+        }
+        List<String> command = new ArrayList<>(List.of(
+                "start", "-url", agentArguments.url, "-name", agentArguments.name, "-secret", agentArguments.secret));
+        if (options.isWebSocket()) {
+            command.add("-webSocket");
+        }
+        if (options.getTunnel() != null) {
+            command.addAll(List.of("-tunnel", options.getTunnel()));
+        }
+        if (options.noCertificateCheck) {
+            command.add("-noCertificateCheck");
+        }
+        command.addAll(agentArguments.commandLineArgs);
+        hosted.add(options.getName());
+        host.send(command);
+    }
+
+    /**
+     * A running {@link InboundAgentHost}.
+     */
+    private static final class Host {
+
+        private final Process process;
+        private final PrintWriter commands;
+        private final String id;
+        final boolean reusable;
+
+        @SuppressWarnings("rawtypes")
+        @SuppressFBWarnings(value = "COMMAND_INJECTION", justification = "just for test code")
+        Host(List<String> cmd, String id, boolean reusable, Options options) throws IOException {
+            this.id = id;
+            this.reusable = reusable;
+            ProcessBuilder pb = new ProcessBuilder(cmd);
+            pb.redirectErrorStream(true);
+            pb.environment().put("INBOUND_AGENT_FIXTURE_ID", id);
+            pb.environment().put("INBOUND_AGENT_FIXTURE_NAME", HOST_NAME);
+            LOGGER.info(() -> "Running: " + pb.command());
+            process = pb.start();
+            commands = new PrintWriter(new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8), true);
+            new StreamCopyThread(
+                            "inbound-agent-host",
+                            process.getInputStream(),
+                            options.prefixedOutputStreamBuilder.build(System.err))
+                    .start();
+        }
+
+        boolean isAlive() {
+            return process.isAlive();
+        }
+
+        synchronized void send(List<String> command) {
+            commands.println(String.join("\t", command));
+        }
+
+        /**
+         * Closing standard input tells the host to stop all its agents, but kill it anyway, as for other agent JVMs.
+         */
+        synchronized void kill() {
+            commands.close();
+            stop(HOST_NAME, List.of(process));
+            try {
+                ProcessTree.get()
+                        .killAll(null, Map.of("INBOUND_AGENT_FIXTURE_ID", id, "INBOUND_AGENT_FIXTURE_NAME", HOST_NAME));
+            } catch (InterruptedException e) {
+                e.printStackTrace();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
     /**
      * Stop an existing inbound agent and wait for it to go offline.
      */
     public void stop(@NonNull JenkinsRule r, @NonNull String name) throws InterruptedException {
+        boolean wasHosted = hosted.contains(name);
         stop(name);
+        if (wasHosted) {
+            // the shared JVM keeps running, so make sure the connection is closed from this side too
+            Computer c = r.jenkins.getComputer(name);
+            if (c != null) {
+                c.disconnect(null);
+            }
+        }
         waitForAgentOffline(r, name);
     }
 
@@ -514,6 +795,14 @@ public class InboundAgentFixture {
      * You need only call this to simulate an agent crash, followed by {@link #start}.
      */
     public void stop(@NonNull String name) {
+        if (hosted.remove(name)) {
+            synchronized (this) {
+                if (host != null) {
+                    LOGGER.info(() -> "Stopping " + name + " agent in shared JVM");
+                    host.send(List.of("stop", name));
+                }
+            }
+        }
         procs.computeIfPresent(name, (k, v) -> {
             stop(name, v);
             return null;
@@ -538,7 +827,13 @@ public class InboundAgentFixture {
      * (This is distinct from whether Jenkins considers the computer to be connected.)
      */
     public boolean isAlive(String name) {
-        return procs.get(name).stream().anyMatch(Process::isAlive);
+        if (hosted.contains(name)) {
+            synchronized (this) {
+                return host != null && host.isAlive();
+            }
+        }
+        List<Process> v = procs.get(name);
+        return v != null && v.stream().anyMatch(Process::isAlive);
     }
 
     @SuppressFBWarnings(value = "PATH_TRAVERSAL_IN", justification = "test code")
@@ -556,6 +851,21 @@ public class InboundAgentFixture {
             }
         }
         procs.clear();
+        synchronized (this) {
+            if (host != null) {
+                if (host.reusable && host.isAlive()) {
+                    LOGGER.info(() -> "Stopping agents in reusable shared JVM: " + hosted);
+                    for (String name : hosted) {
+                        host.send(List.of("stop", name));
+                    }
+                } else {
+                    LOGGER.info(() -> "Stopping agents in shared JVM: " + hosted);
+                    host.kill();
+                }
+                host = null;
+            }
+        }
+        hosted.clear();
         for (var workDir : workDirs) {
             LOGGER.info(() -> "Deleting " + workDir);
             try {
@@ -565,6 +875,9 @@ public class InboundAgentFixture {
             }
         }
         for (var jar : jars) {
+            if (jar.toPath().startsWith(AGENT_JAR_CACHE)) {
+                continue; // shared with other agents
+            }
             LOGGER.info(() -> "Deleting " + jar);
             try {
                 Files.deleteIfExists(jar.toPath());
@@ -650,7 +963,16 @@ public class InboundAgentFixture {
     }
 
     public static AgentArguments getAgentArguments(JenkinsRule r, String name) throws IOException {
-        Node node = r.jenkins.getNode(name);
+        return getAgentArguments(r.jenkins, name);
+    }
+
+    /**
+     * Computes the arguments to launch an existing inbound agent of a controller not managed by {@link JenkinsRule},
+     * such as the one in a {@link jenkins.benchmark.jmh.JmhBenchmarkState}.
+     * Pass them to {@link #start(AgentArguments, Options)}.
+     */
+    public static AgentArguments getAgentArguments(Jenkins jenkins, String name) throws IOException {
+        Node node = jenkins.getNode(name);
         if (node == null) {
             throw new AssertionError("no such agent: " + name);
         }
@@ -663,18 +985,53 @@ public class InboundAgentFixture {
         if (!launcher.getWorkDirSettings().isDisabled()) {
             commandLineArgs = launcher.getWorkDirSettings().toCommandLineArgs(c);
         }
-        File agentJar = Files.createTempFile(Path.of(System.getProperty("java.io.tmpdir")), "agent", ".jar")
-                .toFile();
-        FileUtils.copyURLToFile(new Slave.JnlpJar("agent.jar").getURL(), agentJar);
         return new AgentArguments(
-                agentJar,
-                r.jenkins.getRootUrl(),
+                cachedAgentJar(),
+                jenkins.getRootUrl(),
                 name,
                 c.getJnlpMac(),
-                r.jenkins.getNodes().size(),
+                jenkins.getNodes().size(),
                 commandLineArgs);
     }
 
+    /**
+     * Gets a copy of {@code agent.jar} which may be shared by all agents (and test JVMs) using the same version.
+     * Copies are named by content hash and are not deleted by {@link #tearDown}.
+     */
+    static File cachedAgentJar() throws IOException {
+        URL url = new Slave.JnlpJar("agent.jar").getURL();
+        File cached = cachedAgentJars.get(url.toExternalForm());
+        if (cached != null && cached.isFile()) {
+            return cached;
+        }
+        byte[] content;
+        try (InputStream is = url.openStream()) {
+            content = is.readAllBytes();
+        }
+        String hash;
+        try {
+            hash = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException x) {
+            throw new AssertionError(x);
+        }
+        Files.createDirectories(AGENT_JAR_CACHE);
+        Path jar = AGENT_JAR_CACHE.resolve("agent-" + hash + ".jar");
+        if (!Files.isRegularFile(jar)) {
+            // other test JVMs may be doing the same thing concurrently
+            Path tmp = Files.createTempFile(AGENT_JAR_CACHE, "agent", ".jar.tmp");
+            try {
+                Files.write(tmp, content);
+                Files.move(tmp, jar, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+            LOGGER.info(() -> "Cached " + url + " as " + jar);
+        }
+        cached = jar.toFile();
+        cachedAgentJars.put(url.toExternalForm(), cached);
+        return cached;
+    }
+
     public static void waitForAgentOnline(JenkinsRule r, String name, Map<String, Level> loggers) throws Exception {
         Node node = r.jenkins.getNode(name);
         if (node == null) {
@@ -691,12 +1048,23 @@ public class InboundAgentFixture {
         }
     }
 
+    /**
+     * Gets the remoting traffic recorded between the controller and an agent.
+     * Only applicable when the controller runs in the same JVM, as with {@link JenkinsRule}.
+     */
+    public static ChannelStatistics channelStatistics(JenkinsRule r, String name) {
+        Node node = r.jenkins.getNode(name);
+        if (node == null) {
+            throw new AssertionError("no such agent: " + name);
+        }
+        return r.channelStatistics(node);
+    }
+
     public static void waitForAgentOffline(JenkinsRule r, String name) throws InterruptedException {
-        Computer c = r.jenkins.getComputer(name);
-        if (c != null) {
-            while (c.isOnline()) {
-                Thread.sleep(100);
-            }
+        try {
+            ComputerStateListener.whenOffline(name).get();
+        } catch (ExecutionException x) {
+            throw new AssertionError(x);
         }
     }
 
@@ -721,12 +1089,13 @@ public class InboundAgentFixture {
                 launcher);
         s.setLabelString(options.getLabel());
         s.setRetentionStrategy(RetentionStrategy.NOOP);
-        r.jenkins.addNode(s);
         // SlaveComputer#_connect runs asynchronously. Wait for it to finish for a more deterministic test.
-        Computer computer = s.toComputer();
-        while (computer == null || computer.getOfflineCause() == null) {
-            Thread.sleep(100);
-            computer = s.toComputer();
+        CompletableFuture<Computer> launched = ComputerStateListener.whenLaunchFailed(options.getName());
+        r.jenkins.addNode(s);
+        try {
+            launched.get();
+        } catch (ExecutionException x) {
+            throw new IOException(x);
         }
         return s;
     }
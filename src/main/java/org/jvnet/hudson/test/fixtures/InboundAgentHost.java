@@ -0,0 +1,213 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.jvnet.hudson.test.fixtures;
+
+import hudson.remoting.Engine;
+import hudson.remoting.EngineListener;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Entry point of the agent-host JVM used by {@link InboundAgentFixture.Options.Builder#sharedJvm}.
+ * Runs one remoting {@link Engine} per inbound agent, each with its own work directory.
+ * <p>
+ * Commands are read line by line from standard input, with tab-separated fields:
+ * <dl>
+ * <dt>{@code start}, followed by agent arguments</dt>
+ * <dd>as for {@code agent.jar}: {@code -url}, {@code -name}, {@code -secret}, {@code -webSocket}, {@code -tunnel},
+ * {@code -noCertificateCheck}, {@code -workDir}, {@code -internalDir}, {@code -failIfWorkDirIsMissing}</dd>
+ * <dt>{@code stop}, followed by an agent name</dt>
+ * <dd>stops that agent</dd>
+ * </dl>
+ * The JVM exits once standard input is closed.
+ * <p>
+ * This class runs with only {@code agent.jar} and the test harness on the class path,
+ * so it must not refer to anything beyond the JDK and Remoting.
+ */
+public final class InboundAgentHost {
+
+    private static final Logger LOGGER = Logger.getLogger(InboundAgentHost.class.getName());
+
+    private static final Map<String, Engine> engines = new ConcurrentHashMap<>();
+
+    private InboundAgentHost() {}
+
+    public static void main(String[] args) throws IOException {
+        BufferedReader commands = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+        String line;
+        while ((line = commands.readLine()) != null) {
+            List<String> tokens = List.of(line.split("\t"));
+            try {
+                switch (tokens.get(0)) {
+                    case "start":
+                        start(tokens.subList(1, tokens.size()));
+                        break;
+                    case "stop":
+                        stop(tokens.get(1));
+                        break;
+                    default:
+                        // do not echo the whole line, it may contain a secret
+                        LOGGER.warning(() -> "Unknown command: " + tokens.get(0));
+                }
+            } catch (Exception x) {
+                LOGGER.log(Level.WARNING, "Failed to " + tokens.get(0), x);
+            }
+        }
+        LOGGER.info("Controller went away, shutting down");
+        for (String name : engines.keySet()) {
+            stop(name);
+        }
+        System.exit(0);
+    }
+
+    private static void start(List<String> args) throws IOException {
+        String url = null;
+        String name = null;
+        String secret = null;
+        boolean webSocket = false;
+        String tunnel = null;
+        boolean noCertificateCheck = false;
+        Path workDir = null;
+        String internalDir = null;
+        boolean failIfWorkDirIsMissing = false;
+        for (int i = 0; i < args.size(); i++) {
+            String arg = args.get(i);
+            switch (arg) {
+                case "-url":
+                    url = args.get(++i);
+                    break;
+                case "-name":
+                    name = args.get(++i);
+                    break;
+                case "-secret":
+                    secret = args.get(++i);
+                    break;
+                case "-webSocket":
+                    webSocket = true;
+                    break;
+                case "-tunnel":
+                    tunnel = args.get(++i);
+                    break;
+                case "-noCertificateCheck":
+                    noCertificateCheck = true;
+                    break;
+                case "-workDir":
+                    workDir = Path.of(args.get(++i));
+                    break;
+                case "-internalDir":
+                    internalDir = args.get(++i);
+                    break;
+                case "-failIfWorkDirIsMissing":
+                    failIfWorkDirIsMissing = true;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unsupported agent argument: " + arg);
+            }
+        }
+        if (url == null || name == null || secret == null) {
+            throw new IllegalArgumentException("-url, -name, and -secret are mandatory");
+        }
+        stop(name);
+        Engine engine = new Engine(new Listener(name), List.of(new URL(url)), secret, name);
+        engine.setWebSocket(webSocket);
+        engine.setTunnel(tunnel);
+        engine.setDisableHttpsCertValidation(noCertificateCheck);
+        if (workDir != null) {
+            engine.setWorkDirectory(workDir);
+        }
+        if (internalDir != null) {
+            engine.setInternalDir(internalDir);
+        }
+        engine.setFailIfWorkDirIsMissing(failIfWorkDirIsMissing);
+        engine.setName("Engine " + name);
+        engine.setDaemon(true);
+        engines.put(name, engine);
+        LOGGER.info(() -> "Starting " + name);
+        engine.startEngine();
+    }
+
+    private static void stop(String name) {
+        Engine engine = engines.remove(name);
+        if (engine == null) {
+            return;
+        }
+        LOGGER.info(() -> "Stopping " + name);
+        engine.setNoReconnect(true);
+        engine.interrupt();
+        try {
+            engine.join(10_000);
+        } catch (InterruptedException x) {
+            Thread.currentThread().interrupt();
+        }
+        if (engine.isAlive()) {
+            LOGGER.warning(() -> name + " did not stop");
+        }
+    }
+
+    private static final class Listener implements EngineListener {
+
+        private final String name;
+
+        Listener(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public void status(String msg) {
+            LOGGER.info(() -> "[" + name + "] " + msg);
+        }
+
+        @Override
+        public void status(String msg, Throwable t) {
+            LOGGER.log(Level.INFO, "[" + name + "] " + msg, t);
+        }
+
+        @Override
+        public void error(Throwable t) {
+            // unlike the standalone agent, do not exit: other agents are still running in this JVM
+            LOGGER.log(Level.SEVERE, "[" + name + "] failed", t);
+            engines.remove(name, Thread.currentThread());
+        }
+
+        @Override
+        public void onDisconnect() {
+            LOGGER.info(() -> "[" + name + "] disconnected");
+        }
+
+        @Override
+        public void onReconnect() {
+            LOGGER.info(() -> "[" + name + "] reconnected");
+        }
+    }
+}
@@ -25,12 +25,14 @@
 package org.jvnet.hudson.test.fixtures;
 
 import java.io.File;
+import java.io.IOException;
 import java.lang.annotation.Annotation;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.junit.runner.Description;
 import org.junit.runners.model.Statement;
 import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.PortAllocator;
 import org.jvnet.hudson.test.TemporaryDirectoryAllocator;
 
 /**
@@ -68,6 +70,7 @@ public class JenkinsSessionFixture {
     /**
      * TCP/IP port that the server is listening on.
      * Like the home directory, this will be consistent across restarts.
+     * It is reserved from {@link PortAllocator} for the whole fixture so that no other test grabs it between sessions.
      */
     private int port;
 
@@ -90,9 +93,17 @@ public class JenkinsSessionFixture {
         } catch (Exception x) {
             LOGGER.log(Level.WARNING, null, x);
         }
+        if (System.getProperty("port") == null) {
+            try {
+                port = PortAllocator.reserve();
+            } catch (IOException x) {
+                LOGGER.log(Level.WARNING, null, x);
+            }
+        }
     }
 
     public void tearDown() {
+        PortAllocator.release(port);
         try {
             tmp.dispose();
         } catch (Exception x) {
@@ -38,6 +38,7 @@ import hudson.util.NamingThreadFactory;
 import hudson.util.StreamCopyThread;
 import io.jenkins.test.fips.FIPSTestBundleProvider;
 import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
@@ -66,6 +67,7 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.attribute.FileAttribute;
 import java.security.KeyManagementException;
 import java.security.KeyStore;
@@ -131,8 +133,10 @@ import org.junit.rules.TemporaryFolder;
 import org.junit.runner.Description;
 import org.jvnet.hudson.test.HudsonHomeLoader;
 import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.JsonApiClient;
 import org.jvnet.hudson.test.LoggerRule;
 import org.jvnet.hudson.test.PluginUtils;
+import org.jvnet.hudson.test.PortAllocator;
 import org.jvnet.hudson.test.PrefixedOutputStream;
 import org.jvnet.hudson.test.TailLog;
 import org.jvnet.hudson.test.TemporaryDirectoryAllocator;
@@ -219,7 +223,8 @@ public class RealJenkinsFixture {
     /**
      * TCP/IP port that the server is listening on.
      * <p>
-     * Before the first start, it will be 0. Once started, it is set to the actual port Jenkins is listening to.
+     * Before the first start, it will be 0. Unless set by {@link #withPort}, the first start reserves one from
+     * {@link PortAllocator}, held until {@link #tearDown}.
      * <p>
      * Like the home directory, this will be consistent across restarts.
      */
@@ -272,6 +277,10 @@ public class RealJenkinsFixture {
     private SSLSocketFactory sslSocketFactory;
     private X509Certificate rootCA;
 
+    /** Reused by {@link #buildSSLContext} so that clients can resume TLS sessions. */
+    @CheckForNull
+    private SSLContext sslContext;
+
     @NonNull
     private String prefix = "/jenkins";
 
@@ -659,6 +668,7 @@ public class RealJenkinsFixture {
 
     public void tearDown() throws Exception {
         stopJenkins();
+        PortAllocator.release(port);
 
         try {
             tmp.dispose();
@@ -914,19 +924,35 @@ public class RealJenkinsFixture {
      * @see #createWebClient()
      */
     public RealJenkinsFixture https() {
-        try {
-            var keyStorePath = tmp.allocate().toPath().resolve("test-keystore.p12");
-            IOUtils.copy(getClass().getResource("/https/test-keystore.p12"), keyStorePath.toFile());
-            var keyStoreManager = new KeyStoreManager(keyStorePath, "changeit");
-            try (var is = getClass().getResourceAsStream("/https/test-cert.pem")) {
-                var cert = (X509Certificate)
-                        CertificateFactory.getInstance("X.509").generateCertificate(is);
-                https("localhost", keyStoreManager, cert);
+        return https("localhost", BundledHttps.KEY_STORE_MANAGER, BundledHttps.ROOT_CA);
+    }
+
+    /**
+     * The bundled key store for <em>localhost</em> and its root CA, loaded once per JVM.
+     * Sharing the {@link KeyStoreManager} also shares its client {@link SSLContext} across fixtures.
+     */
+    private static final class BundledHttps {
+        static final KeyStoreManager KEY_STORE_MANAGER;
+        static final String ROOT_CA_PEM;
+        static final X509Certificate ROOT_CA;
+
+        static {
+            try {
+                Path keyStorePath = Files.createTempFile("jth-https", ".p12");
+                keyStorePath.toFile().deleteOnExit();
+                try (var is = RealJenkinsFixture.class.getResourceAsStream("/https/test-keystore.p12")) {
+                    Files.copy(is, keyStorePath, StandardCopyOption.REPLACE_EXISTING);
+                }
+                KEY_STORE_MANAGER = new KeyStoreManager(keyStorePath, "changeit");
+                try (var is = RealJenkinsFixture.class.getResourceAsStream("/https/test-cert.pem")) {
+                    ROOT_CA_PEM = IOUtils.toString(is, StandardCharsets.UTF_8);
+                }
+                ROOT_CA = (X509Certificate) CertificateFactory.getInstance("X.509")
+                        .generateCertificate(new ByteArrayInputStream(ROOT_CA_PEM.getBytes(StandardCharsets.UTF_8)));
+            } catch (CertificateException | KeyStoreException | NoSuchAlgorithmException | IOException e) {
+                throw new ExceptionInInitializerError(e);
             }
-        } catch (CertificateException | KeyStoreException | NoSuchAlgorithmException | IOException e) {
-            throw new RuntimeException(e);
         }
-        return this;
     }
 
     /**
@@ -946,6 +972,7 @@ public class RealJenkinsFixture {
         this.host = host;
         this.https = true;
         this.keyStoreManager = keyStoreManager;
+        this.sslContext = null;
         try {
             this.sslSocketFactory = keyStoreManager.buildClientSSLContext().getSocketFactory();
         } catch (NoSuchAlgorithmException
@@ -978,20 +1005,20 @@ public class RealJenkinsFixture {
         if (rootCA == null) {
             return null;
         }
-        try (var is = getClass().getResourceAsStream("/https/test-cert.pem")) {
-            assert is != null;
-            return IOUtils.toString(is, StandardCharsets.UTF_8);
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
+        return BundledHttps.ROOT_CA_PEM;
     }
 
     /**
      * Builds a {@link SSLContext} trusting the current instance.
+     * The same context is returned until {@link #https} is called again, so that TLS sessions are resumed
+     * by clients using it rather than each connection performing a full handshake.
      */
     @NonNull
-    public SSLContext buildSSLContext() throws NoSuchAlgorithmException {
+    public synchronized SSLContext buildSSLContext() throws NoSuchAlgorithmException {
         if (rootCA != null) {
+            if (sslContext != null) {
+                return sslContext;
+            }
             try {
                 var myTrustStore = KeyStore.getInstance(KeyStore.getDefaultType());
                 myTrustStore.load(null, null);
@@ -1001,6 +1028,7 @@ public class RealJenkinsFixture {
                 trustManagerFactory.init(myTrustStore);
                 var context = SSLContext.getInstance("TLS");
                 context.init(null, trustManagerFactory.getTrustManagers(), null);
+                sslContext = context;
                 return context;
             } catch (CertificateException | KeyManagementException | IOException | KeyStoreException e) {
                 throw new RuntimeException(e);
@@ -1061,6 +1089,18 @@ public class RealJenkinsFixture {
         return wc;
     }
 
+    /**
+     * Create a REST API client for the running instance, trusting any self-signed certificate used by it.
+     * With {@link #https}, {@link JsonApiClient#withHttp2} negotiates HTTP/2 if the server offers it.
+     */
+    public JsonApiClient createJsonApiClient() throws IOException, NoSuchAlgorithmException {
+        var client = new JsonApiClient(getUrl());
+        if (https) {
+            client.withSslContext(buildSSLContext());
+        }
+        return client;
+    }
+
     @SuppressFBWarnings(
             value = {"PATH_TRAVERSAL_IN", "URLCONNECTION_SSRF_FD", "COMMAND_INJECTION"},
             justification = "irrelevant")
@@ -1209,8 +1249,11 @@ public class RealJenkinsFixture {
         addTimeout();
     }
 
-    private Collection<String> getPortOptions() {
-        // Initially port=0. On subsequent runs, this is set to the port allocated randomly on the first run.
+    private Collection<String> getPortOptions() throws IOException {
+        // Initially port=0. The first run reserves one, kept for subsequent runs.
+        if (port == 0) {
+            port = PortAllocator.reserve();
+        }
         if (https) {
             return List.of("--httpPort=-1", "--httpsPort=" + port);
         } else {
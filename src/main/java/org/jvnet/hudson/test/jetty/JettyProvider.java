@@ -27,17 +27,22 @@ package org.jvnet.hudson.test.jetty;
 import jakarta.servlet.ServletContext;
 import java.io.File;
 import java.util.function.Supplier;
+import java.util.logging.Logger;
 import org.eclipse.jetty.http.HttpCompliance;
 import org.eclipse.jetty.http.UriCompliance;
+import org.eclipse.jetty.http2.server.HTTP2CServerConnectionFactory;
 import org.eclipse.jetty.security.LoginService;
 import org.eclipse.jetty.server.Handler;
 import org.eclipse.jetty.server.HttpConfiguration;
 import org.eclipse.jetty.server.HttpConnectionFactory;
+import org.eclipse.jetty.server.LocalConnector;
 import org.eclipse.jetty.server.Server;
 import org.eclipse.jetty.server.ServerConnector;
 import org.eclipse.jetty.server.handler.gzip.GzipHandler;
+import org.eclipse.jetty.util.VirtualThreads;
 import org.eclipse.jetty.util.thread.QueuedThreadPool;
 import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.RequestStatistics;
 
 /**
  * Defines a way for {@link JenkinsRule} to run Jetty. This permits the test harness to select the appropriate Jakarta
@@ -48,6 +53,8 @@ import org.jvnet.hudson.test.JenkinsRule;
  */
 public abstract class JettyProvider {
 
+    private static final Logger LOGGER = Logger.getLogger(JettyProvider.class.getName());
+
     protected Server server;
 
     public record Context(ServletContext servletContext, int localPort, Server server, File explodedWarDir) {}
@@ -60,9 +67,27 @@ public abstract class JettyProvider {
             int localPort, String contextPath, Supplier<LoginService> loginServiceSupplier) throws Exception;
 
     protected final void createServer() {
+        server = new Server(createThreadPool("Jetty (JenkinsRule)"));
+    }
+
+    /**
+     * Creates the thread pool for an embedded Jetty server.
+     * If the system property {@code jth.jetty.virtualThreads} is {@code true} and the JVM supports it, requests are
+     * handled on a new virtual thread each, so that high-concurrency tests are not limited by the size of the pool;
+     * only Jetty's own selector and acceptor threads then come from the pool.
+     */
+    public static QueuedThreadPool createThreadPool(String name) {
         QueuedThreadPool qtp = new QueuedThreadPool();
-        qtp.setName("Jetty (JenkinsRule)");
-        server = new Server(qtp);
+        qtp.setName(name);
+        if (Boolean.getBoolean("jth.jetty.virtualThreads")) {
+            if (VirtualThreads.areSupported()) {
+                qtp.setVirtualThreadsExecutor(VirtualThreads.getNamedVirtualThreadsExecutor(name + " virtual-"));
+            } else {
+                LOGGER.warning(() -> "Virtual threads are not supported on Java " + Runtime.version()
+                        + "; " + name + " uses platform threads");
+            }
+        }
+        return qtp;
     }
 
     protected final ServerConnector createConnector(int localPort) {
@@ -73,6 +98,10 @@ public abstract class JettyProvider {
         config.setRequestHeaderSize(12 * 1024);
         config.setHttpCompliance(HttpCompliance.RFC7230);
         config.setUriCompliance(UriCompliance.LEGACY);
+        if (Boolean.getBoolean("jth.jetty.http2")) {
+            // HTTP/2 over cleartext, negotiated via Upgrade or prior knowledge; see JsonApiClient#withHttp2
+            connector.addConnectionFactory(new HTTP2CServerConnectionFactory(config));
+        }
         connector.setHost("localhost");
         if (System.getProperty("port") != null) {
             connector.setPort(Integer.parseInt(System.getProperty("port")));
@@ -80,10 +109,14 @@ public abstract class JettyProvider {
             connector.setPort(localPort);
         }
         server.addConnector(connector);
+        // in-memory transport for JenkinsRule.WebClient.withLocalConnector, sharing the same HTTP settings
+        server.addConnector(new LocalConnector(server, new HttpConnectionFactory(config)));
         return connector;
     }
 
     protected final void configureCompression(Handler handler) {
+        // inside any compression, so that recorded sizes are those of the content as rendered
+        handler = new RequestRecorder(handler);
         String compression = System.getProperty("jth.compression", "gzip");
         if (compression.equals("gzip")) {
             GzipHandler gzipHandler = new GzipHandler();
@@ -95,4 +128,16 @@ public abstract class JettyProvider {
             throw new IllegalArgumentException("Unexpected compression scheme: " + compression);
         }
     }
+
+    /**
+     * @return statistics of the requests served so far by a server created by a provider
+     * @throws IllegalStateException if the server was not created by a provider
+     */
+    public static RequestStatistics getRequestStatistics(Server server) {
+        RequestRecorder recorder = server.getDescendant(RequestRecorder.class);
+        if (recorder == null) {
+            throw new IllegalStateException("Request recording is not installed");
+        }
+        return recorder.getStatistics();
+    }
 }
@@ -0,0 +1,133 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.jvnet.hudson.test.jetty;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import org.eclipse.jetty.http.HttpField;
+import org.eclipse.jetty.http.HttpHeader;
+import org.eclipse.jetty.server.Handler;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.Response;
+import org.eclipse.jetty.util.Callback;
+import org.jvnet.hudson.test.RequestStatistics;
+
+/**
+ * Records the timing, size and Stapler dispatch trace of every request into {@link RequestStatistics}.
+ * Installed inside any compression handler, so that sizes are those of the uncompressed content.
+ */
+final class RequestRecorder extends Handler.Wrapper {
+
+    private static final String TRACE_HEADER = "Stapler-Trace-";
+
+    private final RequestStatistics statistics = new RequestStatistics();
+
+    RequestRecorder(Handler handler) {
+        super(handler);
+    }
+
+    RequestStatistics getStatistics() {
+        return statistics;
+    }
+
+    @Override
+    public boolean handle(Request request, Response response, Callback callback) throws Exception {
+        long start = System.nanoTime();
+        RecordingResponse recording = new RecordingResponse(request, response);
+        AtomicBoolean done = new AtomicBoolean();
+        Callback completion = new Callback() {
+            @Override
+            public void succeeded() {
+                record();
+                callback.succeeded();
+            }
+
+            @Override
+            public void failed(Throwable x) {
+                record();
+                callback.failed(x);
+            }
+
+            @Override
+            public InvocationType getInvocationType() {
+                return callback.getInvocationType();
+            }
+
+            private void record() {
+                if (done.compareAndSet(false, true)) {
+                    RequestRecorder.this.record(request, recording, start);
+                }
+            }
+        };
+        return super.handle(request, recording, completion);
+    }
+
+    private void record(Request request, RecordingResponse response, long start) {
+        long end = System.nanoTime();
+        List<String> dispatch = new ArrayList<>();
+        for (HttpField field : response.getHeaders()) {
+            if (field.getName().startsWith(TRACE_HEADER)) {
+                dispatch.add(field.getValue());
+            }
+        }
+        int status = response.getStatus() == 0 ? 200 : response.getStatus();
+        long firstByte = response.firstByte == 0 ? end : response.firstByte;
+        statistics.record(
+                request.getMethod(),
+                request.getHttpURI().getPathQuery(),
+                dispatch,
+                status,
+                response.bytes.get(),
+                Duration.ofNanos(firstByte - start),
+                Duration.ofNanos(end - start),
+                request.getHeaders().get(HttpHeader.REFERER),
+                request.getHeaders().get("Sec-Fetch-Mode"));
+    }
+
+    private static final class RecordingResponse extends Response.Wrapper {
+
+        private final AtomicLong bytes = new AtomicLong();
+        private volatile long firstByte;
+
+        RecordingResponse(Request request, Response wrapped) {
+            super(request, wrapped);
+        }
+
+        @Override
+        public void write(boolean last, ByteBuffer byteBuffer, Callback callback) {
+            if (byteBuffer != null && byteBuffer.hasRemaining()) {
+                if (firstByte == 0) {
+                    firstByte = System.nanoTime();
+                }
+                bytes.addAndGet(byteBuffer.remaining());
+            }
+            super.write(last, byteBuffer, callback);
+        }
+    }
+}
@@ -72,6 +72,8 @@ public class InboundAgentExtension implements AfterEachCallback {
             this.trustStorePassword = source.getTrustStorePassword();
             this.cert = source.getCert();
             this.noCertificateCheck = source.isNoCertificateCheck();
+            this.sharedJvm = source.isSharedJvm();
+            this.reuseJvm = source.isReuseJvm();
         }
 
         /**
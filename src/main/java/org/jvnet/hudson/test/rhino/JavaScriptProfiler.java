@@ -0,0 +1,295 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.jvnet.hudson.test.rhino;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import org.htmlunit.corejs.javascript.Context;
+import org.htmlunit.corejs.javascript.Scriptable;
+import org.htmlunit.corejs.javascript.VarScope;
+import org.htmlunit.corejs.javascript.debug.DebugFrame;
+import org.htmlunit.corejs.javascript.debug.DebuggableScript;
+import org.htmlunit.corejs.javascript.debug.Debugger;
+
+/**
+ * Records how often each JavaScript function is called and how long it takes, inclusive and exclusive of callees.
+ * Timings include the overhead of the profiler itself, so compare them relative to each other or to a baseline.
+ * <p>
+ * Typical use is one profile per page load:
+ * <pre>{@code
+ * JavaScriptProfiler profiler = new JavaScriptProfiler();
+ * try (JenkinsRule.WebClient wc = j.createWebClient().withJavaScriptProfiler(profiler)) {
+ *     wc.goTo("job/p/configure");
+ *     wc.waitForBackgroundJavaScript(1000);
+ *     System.out.println(profiler);
+ *     profiler.writeCollapsedStacks(Path.of("target/configure.folded"));
+ *     profiler.reset();
+ * }
+ * }</pre>
+ * The collapsed stacks file can be rendered with {@code flamegraph.pl} or loaded into speedscope.
+ */
+public final class JavaScriptProfiler implements Debugger {
+
+    /**
+     * Statistics of one function.
+     * @param name function name with its source location
+     * @param calls number of calls
+     * @param self time spent in the function itself
+     * @param total time spent in the function including its callees (counted once per frame, so recursive functions
+     *     overlap)
+     */
+    public record FunctionProfile(String name, long calls, Duration self, Duration total) {}
+
+    private static final class Stats {
+        final LongAdder calls = new LongAdder();
+        final LongAdder self = new LongAdder();
+        final LongAdder total = new LongAdder();
+    }
+
+    private final Map<DebuggableScript, String> names = new ConcurrentHashMap<>();
+    private final Map<String, Stats> functions = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> stacks = new ConcurrentHashMap<>();
+    private final ThreadLocal<Deque<ProfileFrame>> current = ThreadLocal.withInitial(ArrayDeque::new);
+
+    @Override
+    public void handleCompilationDone(Context cx, DebuggableScript fnOrScript, String source) {}
+
+    @Override
+    public DebugFrame getFrame(Context cx, DebuggableScript fnOrScript) {
+        return new ProfileFrame(names.computeIfAbsent(fnOrScript, JavaScriptProfiler::describe));
+    }
+
+    /**
+     * Combines this profiler with another debugger, such as a {@link JavaScriptDebugger}.
+     */
+    public Debugger andThen(@NonNull Debugger other) {
+        return new Debugger() {
+            @Override
+            public void handleCompilationDone(Context cx, DebuggableScript fnOrScript, String source) {
+                JavaScriptProfiler.this.handleCompilationDone(cx, fnOrScript, source);
+                other.handleCompilationDone(cx, fnOrScript, source);
+            }
+
+            @Override
+            public DebugFrame getFrame(Context cx, DebuggableScript fnOrScript) {
+                DebugFrame first = JavaScriptProfiler.this.getFrame(cx, fnOrScript);
+                DebugFrame second = other.getFrame(cx, fnOrScript);
+                return second == null ? first : new CompositeFrame(first, second);
+            }
+        };
+    }
+
+    /**
+     * Per-function statistics, most expensive (by self time) first.
+     */
+    public List<FunctionProfile> getFunctions() {
+        List<FunctionProfile> result = new ArrayList<>();
+        functions.forEach((name, s) -> result.add(new FunctionProfile(
+                name, s.calls.sum(), Duration.ofNanos(s.self.sum()), Duration.ofNanos(s.total.sum()))));
+        result.sort(Comparator.comparing(FunctionProfile::self).reversed());
+        return result;
+    }
+
+    /**
+     * Statistics of the first function whose name starts with the given prefix, such as a plain function name.
+     */
+    @CheckForNull
+    public FunctionProfile getFunction(@NonNull String prefix) {
+        return getFunctions().stream()
+                .filter(f -> f.name().startsWith(prefix))
+                .findFirst()
+                .orElse(null);
+    }
+
+    /**
+     * Self time per call stack in the collapsed format used by flame graph tools:
+     * one line per stack, frames separated by {@code ;}, followed by a space and the time in microseconds.
+     */
+    public String toCollapsedStacks() {
+        StringBuilder sb = new StringBuilder();
+        stacks.entrySet().stream().sorted(Map.Entry.comparingByKey()).forEach(e -> {
+            long micros = e.getValue().sum() / 1000;
+            if (micros > 0) {
+                sb.append(e.getKey()).append(' ').append(micros).append('\n');
+            }
+        });
+        return sb.toString();
+    }
+
+    /**
+     * Writes {@link #toCollapsedStacks} to a file.
+     */
+    public void writeCollapsedStacks(@NonNull Path file) throws IOException {
+        Files.writeString(file, toCollapsedStacks(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Discards everything recorded so far, such as between page loads.
+     */
+    public void reset() {
+        functions.clear();
+        stacks.clear();
+    }
+
+    /**
+     * Formats the most expensive functions as a table.
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb =
+                new StringBuilder(String.format("%10s %10s %10s  %s%n", "calls", "self ms", "total ms", "function"));
+        getFunctions().stream()
+                .limit(30)
+                .forEach(f -> sb.append(String.format(
+                        "%10d %10.1f %10.1f  %s%n",
+                        f.calls(), f.self().toNanos() / 1e6, f.total().toNanos() / 1e6, f.name())));
+        return sb.toString();
+    }
+
+    private static String describe(DebuggableScript fnOrScript) {
+        String function = fnOrScript.getFunctionName();
+        if (function == null || function.isEmpty()) {
+            function = fnOrScript.isFunction() ? "(anonymous)" : "(script)";
+        }
+        String source = fnOrScript.getSourceName();
+        if (source != null) {
+            // keep the path only; host and port are irrelevant and differ between runs
+            int scheme = source.indexOf("://");
+            int path = scheme < 0 ? -1 : source.indexOf('/', scheme + 3);
+            if (path >= 0) {
+                source = source.substring(path);
+            }
+        }
+        int line = Integer.MAX_VALUE;
+        for (int l : fnOrScript.getLineNumbers()) {
+            line = Math.min(line, l);
+        }
+        String name = function + " (" + source + (line == Integer.MAX_VALUE ? "" : ":" + line) + ")";
+        // ';' separates frames in collapsed stacks
+        return name.replace(';', ',');
+    }
+
+    private final class ProfileFrame implements DebugFrame {
+        final String name;
+        String stack;
+        long start;
+        long children;
+
+        ProfileFrame(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public void onEnter(Context cx, VarScope activation, Scriptable thisObj, Object[] args) {
+            Deque<ProfileFrame> frames = current.get();
+            ProfileFrame parent = frames.peek();
+            stack = parent == null ? name : parent.stack + ';' + name;
+            frames.push(this);
+            start = System.nanoTime();
+        }
+
+        @Override
+        public void onExit(Context cx, boolean byThrow, Object resultOrException) {
+            long elapsed = System.nanoTime() - start;
+            Deque<ProfileFrame> frames = current.get();
+            // frames dropped by tail call elimination never exit, so unwind up to this one
+            while (!frames.isEmpty() && frames.pop() != this) {
+                // skip
+            }
+            ProfileFrame parent = frames.peek();
+            if (parent != null) {
+                parent.children += elapsed;
+            }
+            long self = Math.max(elapsed - children, 0);
+            Stats s = functions.computeIfAbsent(name, k -> new Stats());
+            s.calls.increment();
+            s.self.add(self);
+            s.total.add(elapsed);
+            stacks.computeIfAbsent(stack, k -> new LongAdder()).add(self);
+        }
+
+        @Override
+        public void onLineChange(Context cx, int lineNumber) {}
+
+        @Override
+        public void onExceptionThrown(Context cx, Throwable ex) {}
+
+        @Override
+        public void onDebuggerStatement(Context cx) {}
+    }
+
+    private static final class CompositeFrame implements DebugFrame {
+        private final DebugFrame first;
+        private final DebugFrame second;
+
+        CompositeFrame(DebugFrame first, DebugFrame second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public void onEnter(Context cx, VarScope activation, Scriptable thisObj, Object[] args) {
+            first.onEnter(cx, activation, thisObj, args);
+            second.onEnter(cx, activation, thisObj, args);
+        }
+
+        @Override
+        public void onExit(Context cx, boolean byThrow, Object resultOrException) {
+            second.onExit(cx, byThrow, resultOrException);
+            first.onExit(cx, byThrow, resultOrException);
+        }
+
+        @Override
+        public void onLineChange(Context cx, int lineNumber) {
+            first.onLineChange(cx, lineNumber);
+            second.onLineChange(cx, lineNumber);
+        }
+
+        @Override
+        public void onExceptionThrown(Context cx, Throwable ex) {
+            first.onExceptionThrown(cx, ex);
+            second.onExceptionThrown(cx, ex);
+        }
+
+        @Override
+        public void onDebuggerStatement(Context cx) {
+            first.onDebuggerStatement(cx);
+            second.onDebuggerStatement(cx);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package hudson.slaves;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThrows;
+
+import hudson.ExtensionList;
+import hudson.model.Label;
+import hudson.model.Node;
+import hudson.slaves.NodeProvisioner.PlannedNode;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import jenkins.model.Jenkins;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.ComputerStateListener;
+import org.jvnet.hudson.test.JenkinsRule;
+
+public class SimulatedCloudTest {
+
+    @Rule
+    public JenkinsRule j = new JenkinsRule();
+
+    @Test
+    public void capacityAndStats() throws Exception {
+        SimulatedCloud cloud = new SimulatedCloud("sim")
+                .withLabels("sim")
+                .withLatency(SimulatedCloud.uniform(Duration.ofMillis(10), Duration.ofMillis(50)))
+                .withCapacity(3);
+        j.jenkins.clouds.add(cloud);
+        assertThat(cloud.canProvision(Label.get("other")), is(false));
+        List<PlannedNode> planned = new ArrayList<>(cloud.provision(Label.get("sim"), 5));
+        assertThat(planned, hasSize(3));
+        assertThat(cloud.getStats().getCapped(), is(1L));
+        for (PlannedNode p : planned) {
+            Node node = p.future.get(1, TimeUnit.MINUTES);
+            j.jenkins.addNode(node);
+            ComputerStateListener.whenOnline(node.getNodeName()).get(1, TimeUnit.MINUTES);
+        }
+        assertThat(cloud.provision(Label.get("sim"), 1).isEmpty(), is(true));
+        SimulatedCloud.Stats stats = cloud.getStats();
+        assertThat(stats.getRequested(), is(3L));
+        assertThat(stats.getProvisioned(), is(3L));
+        assertThat(stats.getProvisioningTime().getCount(), is(3L));
+        assertThat(stats.getTimeToOnline().getCount(), is(3L));
+        assertThat(stats.getFailed() + stats.getTimedOut(), is(0L));
+        assertThat(stats.getThroughput(), greaterThan(0.0));
+        assertThat(stats.toString(), containsString("provisioned=3"));
+        j.jenkins.removeNode(j.jenkins.getNode(planned.get(0).displayName));
+        assertThat(cloud.provision(Label.get("sim"), 5), hasSize(1));
+    }
+
+    @Test
+    public void releasesNodesNeverAdded() throws Exception {
+        SimulatedCloud cloud = new SimulatedCloud("sim")
+                .withLatency(SimulatedCloud.fixed(Duration.ofMillis(100)))
+                .withCapacity(1);
+        j.jenkins.clouds.add(cloud);
+        cloud.provision(null, 1).iterator().next().future.cancel(false);
+        // capacity comes back once the cancelled attempt would have completed
+        long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(1);
+        List<PlannedNode> planned;
+        while ((planned = new ArrayList<>(cloud.provision(null, 1))).isEmpty()) {
+            assertThat(System.nanoTime() < deadline, is(true));
+            Thread.sleep(10);
+        }
+        Node node = planned.get(0).future.get(1, TimeUnit.MINUTES);
+        assertThat(cloud.provision(null, 1).isEmpty(), is(true));
+        ExtensionList.lookupSingleton(SimulatedCloud.RollbackListener.class)
+                .onRollback(planned.get(0), node, new IOException("could not add"));
+        assertThat(cloud.provision(null, 1), hasSize(1));
+    }
+
+    @Test
+    public void failuresAndTimeouts() throws Exception {
+        SimulatedCloud failing = new SimulatedCloud("failing").withFailureRate(1);
+        ExecutionException x = assertThrows(ExecutionException.class, () -> failing.provision(null, 1)
+                .iterator()
+                .next()
+                .future
+                .get(1, TimeUnit.MINUTES));
+        assertThat(x.getCause(), instanceOf(IOException.class));
+        assertThat(failing.getStats().getFailed(), is(1L));
+        SimulatedCloud hanging = new SimulatedCloud("hanging").withTimeouts(1, Duration.ofMillis(10));
+        x = assertThrows(ExecutionException.class, () -> hanging.provision(null, 1)
+                .iterator()
+                .next()
+                .future
+                .get(1, TimeUnit.MINUTES));
+        assertThat(x.getCause(), instanceOf(TimeoutException.class));
+        assertThat(hanging.getStats().getTimedOut(), is(1L));
+    }
+
+    @Test
+    public void describableAndReloadable() throws Exception {
+        SimulatedCloud cloud = new SimulatedCloud("sim").withCapacity(1);
+        j.jenkins.clouds.add(cloud);
+        assertThat(cloud.getDescriptor(), sameInstance(j.jenkins.getDescriptor(SimulatedCloud.class)));
+        j.jenkins.save();
+        SimulatedCloud reloaded = (SimulatedCloud) Jenkins.XSTREAM2.fromXML(Jenkins.XSTREAM2.toXML(cloud));
+        assertThat(reloaded.name, is("sim"));
+        assertThat(reloaded.provision(null, 2), hasSize(2));
+        assertThat(reloaded.getStats().getRequested(), is(2L));
+    }
+}
@@ -4,6 +4,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.concurrent.TimeUnit;
+import jenkins.benchmark.jmh.remoting.RemotingTransportBenchmark;
 import org.junit.Test;
 import org.openjdk.jmh.results.format.ResultFormatType;
 import org.openjdk.jmh.runner.Runner;
@@ -32,6 +33,10 @@ public class BenchmarkTest {
                 .timeUnit(TimeUnit.MICROSECONDS)
                 .resultFormat(ResultFormatType.JSON);
         new BenchmarkFinder(getClass()).findBenchmarks(optionsBuilder);
+        if (!Boolean.getBoolean("jth.benchmark.remoting")) {
+            // starts several agent JVMs for each benchmark and transport, which takes minutes
+            optionsBuilder.exclude(RemotingTransportBenchmark.class.getName());
+        }
         new Runner(optionsBuilder.build()).run();
     }
 }
@@ -0,0 +1,158 @@
+package jenkins.benchmark.jmh.remoting;
+
+import hudson.FilePath;
+import hudson.remoting.Pipe;
+import hudson.remoting.VirtualChannel;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import jenkins.benchmark.jmh.InboundAgentBenchmarkState;
+import jenkins.benchmark.jmh.JmhBenchmark;
+import jenkins.security.MasterToSlaveCallable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+
+/**
+ * Compares agent transports: run with {@code -p transport=TCP,WEB_SOCKET} (the default) and compare the JSON results.
+ * Since this starts Jenkins and several agent JVMs for each benchmark and transport,
+ * {@code BenchmarkTest} skips it unless run with {@code -Djth.benchmark.remoting=true}.
+ */
+@JmhBenchmark
+public class RemotingTransportBenchmark {
+
+    private static final int MIB = 1 << 20;
+
+    public static class AgentState extends InboundAgentBenchmarkState {
+        /**
+         * Number of agents called by {@link #fanOut}; the other benchmarks only use the first.
+         */
+        @Param("8")
+        public int agents;
+
+        Path source;
+        List<FilePath> targets;
+
+        @Override
+        protected int getAgentCount() {
+            return agents;
+        }
+
+        @Override
+        public void setup() throws Exception {
+            super.setup();
+            source = Files.createTempFile("remoting-benchmark", ".bin");
+            byte[] data = new byte[MIB];
+            new Random(0).nextBytes(data);
+            Files.write(source, data);
+            targets = new ArrayList<>();
+            for (int i = 0; i < getAgents().size(); i++) {
+                targets.add(new FilePath(getChannel(i), getAgents().get(i).getRemoteFS() + "/copy.bin"));
+            }
+        }
+
+        @Override
+        public void tearDown() {
+            try {
+                Files.deleteIfExists(source);
+            } catch (IOException x) {
+                // ignore
+            }
+            super.tearDown();
+        }
+    }
+
+    /**
+     * Round trip of a trivial {@link hudson.remoting.Callable}.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public int smallCallable(AgentState state) throws Exception {
+        return state.getChannel(0).call(new Echo(42));
+    }
+
+    /**
+     * Copies 1MiB to an agent; operations per second are MiB/s.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public void filePathCopy(AgentState state) throws Exception {
+        new FilePath(state.source.toFile()).copyTo(state.targets.get(0));
+    }
+
+    /**
+     * Streams 1MiB to an agent through a {@link Pipe}; operations per second are MiB/s.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public long pipeStreaming(AgentState state) throws Exception {
+        Pipe pipe = Pipe.createLocalToRemote();
+        Future<Long> received = state.getChannel(0).callAsync(new Drain(pipe));
+        byte[] buffer = new byte[8192];
+        try (OutputStream os = pipe.getOut()) {
+            for (int i = 0; i < MIB / buffer.length; i++) {
+                os.write(buffer);
+            }
+        }
+        return received.get();
+    }
+
+    /**
+     * Calls every agent concurrently and waits for all of them.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public int fanOut(AgentState state) throws Exception {
+        List<Future<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < state.getAgents().size(); i++) {
+            VirtualChannel channel = state.getChannel(i);
+            futures.add(channel.callAsync(new Echo(i)));
+        }
+        int sum = 0;
+        for (Future<Integer> f : futures) {
+            sum += f.get();
+        }
+        return sum;
+    }
+
+    private static final class Echo extends MasterToSlaveCallable<Integer, RuntimeException> {
+        private final int value;
+
+        Echo(int value) {
+            this.value = value;
+        }
+
+        @Override
+        public Integer call() {
+            return value;
+        }
+    }
+
+    private static final class Drain extends MasterToSlaveCallable<Long, IOException> {
+        private final Pipe pipe;
+
+        Drain(Pipe pipe) {
+            this.pipe = pipe;
+        }
+
+        @Override
+        public Long call() throws IOException {
+            try (InputStream is = pipe.getIn()) {
+                return is.transferTo(OutputStream.nullOutputStream());
+            }
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package jenkins.benchmark.jmh.security;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.model.AbstractItem;
+import hudson.model.FreeStyleProject;
+import hudson.model.Item;
+import hudson.model.Job;
+import hudson.security.ACL;
+import hudson.security.AuthorizationStrategy;
+import hudson.security.Permission;
+import hudson.security.SecurityRealm;
+import hudson.security.SidACL;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import jenkins.benchmark.jmh.JmhBenchmark;
+import jenkins.benchmark.jmh.JmhBenchmarkState;
+import jenkins.model.Jenkins;
+import org.acegisecurity.acls.sid.Sid;
+import org.jvnet.hudson.test.MockAuthorizationStrategy;
+import org.jvnet.hudson.test.MockFolder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+/**
+ * Filters a few hundred items by {@link Item#READ} for a user who is a member of a group,
+ * as a view or {@code getAllItems} would, under {@link MockAuthorizationStrategy}.
+ * Run with {@code -p strategy=scan,indexed,cached} (the default) to compare with a linear scan over all grants.
+ */
+@JmhBenchmark
+public class MockAuthorizationStrategyBenchmark {
+
+    private static final int FOLDERS = 20;
+    private static final int JOBS_PER_FOLDER = 20;
+    private static final int USERS = 100;
+
+    public static class StrategyState extends JmhBenchmarkState {
+
+        @Param({"scan", "indexed", "cached"})
+        String strategy;
+
+        final List<Item> items = new ArrayList<>();
+        Authentication user;
+
+        @Override
+        public void setup() throws Exception {
+            Jenkins j = getJenkins();
+            List<MockFolder> folders = new ArrayList<>();
+            for (int f = 0; f < FOLDERS; f++) {
+                MockFolder folder = j.createProject(MockFolder.class, "folder" + f);
+                folders.add(folder);
+                items.add(folder);
+                for (int i = 0; i < JOBS_PER_FOLDER; i++) {
+                    items.add(folder.createProject(FreeStyleProject.class, "job" + i));
+                }
+            }
+            MockAuthorizationStrategy mock = new MockAuthorizationStrategy();
+            ScanStrategy scan = new ScanStrategy();
+            if (strategy.equals("cached")) {
+                mock.cacheDecisions();
+            }
+            mock.grant(Jenkins.ADMINISTER).everywhere().to("admin");
+            scan.add(".*", "admin", Jenkins.ADMINISTER);
+            mock.grant(Jenkins.READ).onRoot().toAuthenticated();
+            scan.add("", "authenticated", Jenkins.READ);
+            for (int u = 0; u < USERS; u++) {
+                Item a = items.get((u * 7) % items.size());
+                Item b = items.get((u * 13) % items.size());
+                mock.grant(Item.READ).onItems(a, b).to("user" + u);
+                scan.add(Pattern.quote(a.getFullName()) + "|" + Pattern.quote(b.getFullName()), "user" + u, Item.READ);
+            }
+            for (int f = 0; f < FOLDERS; f++) {
+                MockFolder folder = folders.get(f);
+                mock.grant(Item.READ).onFolders(folder).to("group" + f);
+                scan.add(Pattern.quote(folder.getFullName()) + "(|/.+)", "group" + f, Item.READ);
+            }
+            j.setAuthorizationStrategy(strategy.equals("scan") ? scan : mock);
+            user = new UsernamePasswordAuthenticationToken(
+                    "user42",
+                    "",
+                    List.of(new SimpleGrantedAuthority("group3"), SecurityRealm.AUTHENTICATED_AUTHORITY2));
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public int filterReadable(StrategyState state) {
+        int readable = 0;
+        for (Item item : state.items) {
+            if (item.getACL().hasPermission2(state.user, Item.READ)) {
+                readable++;
+            }
+        }
+        return readable;
+    }
+
+    /**
+     * Checks every grant in turn with a regular expression, as {@link MockAuthorizationStrategy} formerly did.
+     */
+    private static final class ScanStrategy extends AuthorizationStrategy {
+
+        private record Grant(Pattern path, Set<String> sids, Set<String> permissions) {}
+
+        private final List<Grant> grants = new ArrayList<>();
+
+        void add(String path, String sid, Permission permission) {
+            Set<Permission> implied = new HashSet<>(Set.of(permission));
+            boolean added = true;
+            while (added) {
+                added = false;
+                for (Permission p : Permission.getAll()) {
+                    added |= implied.contains(p.impliedBy) && implied.add(p);
+                }
+            }
+            Set<String> ids = new HashSet<>();
+            implied.forEach(p -> ids.add(p.getId()));
+            grants.add(new Grant(Pattern.compile(path), Set.of(sid), ids));
+        }
+
+        @NonNull
+        @Override
+        public ACL getRootACL() {
+            return acl("");
+        }
+
+        @NonNull
+        @Override
+        public ACL getACL(@NonNull AbstractItem item) {
+            return acl(item.getFullName());
+        }
+
+        @NonNull
+        @Override
+        public ACL getACL(@NonNull Job<?, ?> project) {
+            return getACL((AbstractItem) project);
+        }
+
+        private ACL acl(String path) {
+            return new SidACL() {
+                @Override
+                protected Boolean hasPermission(Sid p, Permission permission) {
+                    String name = toString(p);
+                    for (Grant grant : grants) {
+                        if (grant.path().matcher(path).matches()
+                                && grant.sids().contains(name)
+                                && grant.permissions().contains(permission.getId())) {
+                            return true;
+                        }
+                    }
+                    return null;
+                }
+            };
+        }
+
+        @NonNull
+        @Override
+        public Collection<String> getGroups() {
+            return Set.of();
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package jenkins.test.https;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class KeyStoreManagerTest {
+
+    @Test
+    void clientSSLContextReusedUntilSaved(@TempDir Path tmpDir) throws Exception {
+        var keyStoreManager = new KeyStoreManager(tmpDir.resolve("test.jks"), "changeit");
+        keyStoreManager.save();
+        var context = keyStoreManager.buildClientSSLContext();
+        assertThat(keyStoreManager.buildClientSSLContext(), sameInstance(context));
+        keyStoreManager.save();
+        assertThat(keyStoreManager.buildClientSSLContext(), not(sameInstance(context)));
+    }
+}
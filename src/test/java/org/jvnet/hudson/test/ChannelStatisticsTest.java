@@ -0,0 +1,59 @@
+package org.jvnet.hudson.test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.hasEntry;
+import static org.hamcrest.Matchers.hasKey;
+import static org.junit.Assert.assertThrows;
+
+import hudson.remoting.VirtualChannel;
+import hudson.slaves.DumbSlave;
+import jenkins.security.MasterToSlaveCallable;
+import org.junit.Rule;
+import org.junit.Test;
+
+public class ChannelStatisticsTest {
+
+    private static final String NOOP = Noop.class.getName();
+
+    @Rule
+    public JenkinsRule j = new JenkinsRule();
+
+    @Test
+    public void countsCalls() throws Exception {
+        DumbSlave agent = j.createLoopbackAgent();
+        j.waitOnline(agent);
+        VirtualChannel channel = agent.getChannel();
+        ChannelStatistics stats = j.channelStatistics(agent);
+        channel.call(new Noop());
+        // the agent loads Noop from the controller
+        assertThat(stats.getClassLoadingRequests(), greaterThan(0L));
+        assertThat(stats.getAgentRequests(), greaterThanOrEqualTo(stats.getClassLoadingRequests()));
+        stats.reset();
+        j.assertMaxRemoteCalls(agent, 5, () -> {
+            for (int i = 0; i < 3; i++) {
+                channel.call(new Noop());
+            }
+        });
+        assertThat(stats.getCallCounts(), hasEntry(NOOP, 3L));
+        assertThat(stats.getCallLatencies(), hasKey(NOOP));
+        assertThat(stats.getBytesSent(), greaterThan(0L));
+        assertThat(stats.getBytesReceived(), greaterThan(0L));
+        AssertionError x =
+                assertThrows(AssertionError.class, () -> j.assertMaxRemoteCalls(agent, 1, () -> {
+                    channel.call(new Noop());
+                    channel.call(new Noop());
+                }));
+        assertThat(x.getMessage(), containsString(NOOP + "=2"));
+        assertThat(stats.toString(), containsString(NOOP + " ×"));
+    }
+
+    private static final class Noop extends MasterToSlaveCallable<Void, RuntimeException> {
+        @Override
+        public Void call() {
+            return null;
+        }
+    }
+}
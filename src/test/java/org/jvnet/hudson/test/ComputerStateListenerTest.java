@@ -0,0 +1,35 @@
+package org.jvnet.hudson.test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+import hudson.model.Computer;
+import hudson.slaves.DumbSlave;
+import hudson.slaves.OfflineCause;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.Rule;
+import org.junit.Test;
+
+public class ComputerStateListenerTest {
+
+    @Rule
+    public JenkinsRule j = new JenkinsRule();
+
+    @Test
+    public void onlineAndOffline() throws Exception {
+        CompletableFuture<Computer> online = ComputerStateListener.whenOnline("loopback0");
+        DumbSlave agent = j.createLoopbackAgent();
+        assertThat(agent.getNodeName(), is("loopback0"));
+        assertThat(online.get(1, TimeUnit.MINUTES), sameInstance(agent.toComputer()));
+        assertThat("already online", ComputerStateListener.whenOnline("loopback0").isDone(), is(true));
+        CompletableFuture<Computer> offline = ComputerStateListener.whenOffline("loopback0");
+        assertThat(offline.isDone(), is(false));
+        agent.toComputer().disconnect(new OfflineCause.ByCLI("test")).get();
+        assertThat(offline.get(1, TimeUnit.MINUTES), sameInstance(agent.toComputer()));
+        j.jenkins.removeNode(agent);
+        assertThat(ComputerStateListener.whenOffline("loopback0").get(), nullValue());
+    }
+}
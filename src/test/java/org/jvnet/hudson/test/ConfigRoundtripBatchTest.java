@@ -0,0 +1,79 @@
+package org.jvnet.hudson.test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.junit.Assert.assertThrows;
+
+import hudson.model.FreeStyleProject;
+import hudson.model.ListView;
+import hudson.slaves.DumbSlave;
+import hudson.tasks.Shell;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Rule;
+import org.junit.Test;
+
+public class ConfigRoundtripBatchTest {
+
+    @Rule
+    public JenkinsRule j = new JenkinsRule();
+
+    @Test
+    public void roundtripsConcurrently() throws Exception {
+        List<FreeStyleProject> projects = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            FreeStyleProject p = j.createFreeStyleProject("p" + i);
+            p.setDescription("project " + i);
+            p.getBuildersList().add(new Shell("echo " + i));
+            projects.add(p);
+        }
+        ListView view = new ListView("v", j.jenkins);
+        j.jenkins.addView(view);
+        ConfigRoundtripBatch.Result result = j.configRoundtrips()
+                .items(projects)
+                .views(List.of(view))
+                .nodes(List.of(j.createSlave()))
+                .threads(4)
+                .run()
+                .assertSuccess();
+        assertThat(result.toString(), result.getRoundtrips(), hasSize(12));
+        assertThat(result.getLatency().getCount(), is(12L));
+        FreeStyleProject p3 = j.jenkins.getItemByFullName("p3", FreeStyleProject.class);
+        assertThat(p3.getDescription(), is("project 3"));
+        assertThat(((Shell) p3.getBuildersList().get(0)).getCommand(), is("echo 3"));
+    }
+
+    @Test
+    public void nodeUrls() throws Exception {
+        DumbSlave agent = j.createSlave("agent #1", null, null);
+        ConfigRoundtripBatch.Result result = j.configRoundtrips()
+                .nodes(List.of(j.jenkins, agent))
+                .viaConfigXml()
+                .run()
+                .assertSuccess();
+        assertThat(result.getRoundtrips(), hasSize(2));
+        assertThat(j.jenkins.getNode("agent #1"), notNullValue());
+    }
+
+    @Test
+    public void viaConfigXml() throws Exception {
+        FreeStyleProject p = j.createFreeStyleProject("p");
+        p.setDescription("kept");
+        j.configRoundtrips().items(List.of(p)).viaConfigXml().run().assertSuccess();
+        assertThat(j.jenkins.getItemByFullName("p", FreeStyleProject.class).getDescription(), is("kept"));
+    }
+
+    @Test
+    public void collectsFailures() throws Exception {
+        FreeStyleProject good = j.createFreeStyleProject("good");
+        FreeStyleProject gone = j.createFreeStyleProject("gone");
+        ConfigRoundtripBatch batch = j.configRoundtrips().items(List.of(good, gone));
+        gone.delete();
+        ConfigRoundtripBatch.Result result = batch.run();
+        assertThat(result.getFailures(), hasSize(1));
+        assertThat(result.getFailures().get(0).name(), is("gone"));
+        assertThrows(AssertionError.class, result::assertSuccess);
+    }
+}
@@ -16,6 +16,8 @@ import hudson.model.FreeStyleBuild;
 import hudson.model.FreeStyleProject;
 import hudson.model.RootAction;
 import hudson.model.User;
+import hudson.remoting.Channel;
+import hudson.slaves.DumbSlave;
 import java.io.File;
 import java.io.IOException;
 import java.net.URL;
@@ -25,6 +27,7 @@ import java.util.List;
 import java.util.concurrent.atomic.AtomicReference;
 import jenkins.model.Jenkins;
 import jenkins.security.ApiTokenProperty;
+import jenkins.security.MasterToSlaveCallable;
 import net.sf.json.JSONObject;
 import org.htmlunit.FailingHttpStatusCodeException;
 import org.htmlunit.Page;
@@ -424,6 +427,23 @@ public class JenkinsRuleTest {
         j.jenkins.save();
     }
 
+    @Test
+    public void loopbackAgent() throws Exception {
+        DumbSlave agent = j.createLoopbackAgent("loopback");
+        j.waitOnline(agent);
+        assertEquals("loopback-agent", agent.getChannel().call(new AgentClassLoaderName()));
+        FreeStyleProject p = j.createFreeStyleProject();
+        p.setAssignedNode(agent);
+        j.buildAndAssertSuccess(p);
+    }
+
+    private static final class AgentClassLoaderName extends MasterToSlaveCallable<String, RuntimeException> {
+        @Override
+        public String call() {
+            return Channel.class.getClassLoader().getName();
+        }
+    }
+
     @Test
     public void waitForCompletion() throws Exception {
         FreeStyleProject p = j.createFreeStyleProject();
@@ -0,0 +1,24 @@
+package org.jvnet.hudson.test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.net.URL;
+import org.junit.Rule;
+import org.junit.Test;
+
+public class JenkinsSessionRulePortTest {
+
+    @Rule
+    public final JenkinsSessionRule rule = new JenkinsSessionRule();
+
+    @Test
+    public void portReservedBetweenSessions() throws Throwable {
+        URL[] urls = new URL[2];
+        rule.then(r -> urls[0] = r.getURL());
+        // no other test may take the port between sessions
+        assertThat(PortAllocator.isReserved(urls[0].getPort()), is(true));
+        rule.then(r -> urls[1] = r.getURL());
+        assertThat(urls[1], is(urls[0]));
+    }
+}
@@ -0,0 +1,136 @@
+package org.jvnet.hudson.test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertThrows;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import hudson.model.RootAction;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import jenkins.model.Jenkins;
+import net.sf.json.JSONObject;
+import org.junit.Rule;
+import org.junit.Test;
+import org.kohsuke.stapler.HttpResponse;
+import org.kohsuke.stapler.StaplerRequest2;
+import org.kohsuke.stapler.WebMethod;
+import org.kohsuke.stapler.json.JsonBody;
+import org.kohsuke.stapler.json.JsonHttpResponse;
+import org.kohsuke.stapler.verb.POST;
+
+public class JsonApiClientTest {
+
+    @Rule
+    public JenkinsRule j = new JenkinsRule();
+
+    @Test
+    public void getAndPostWithCrumb() throws Exception {
+        JsonApiClient client = j.createJsonApiClient();
+        assertThat(client.getJSON("api/json").getString("_class"), is("hudson.model.Hudson"));
+        JsonApiClient.Response response = client.post("echo/create", JSONObject.fromObject("{\"message\":\"hi\"}"));
+        assertThat(response.assertSuccess().getJSONObject().getString("message"), is("hi - CREATED"));
+    }
+
+    @Test
+    public void apiToken() throws Exception {
+        j.jenkins.setSecurityRealm(j.createDummySecurityRealm());
+        j.jenkins.setAuthorizationStrategy(
+                new MockAuthorizationStrategy().grant(Jenkins.ADMINISTER).everywhere().to("alice"));
+        assertThat(j.createJsonApiClient().get("api/json").getStatusCode(), is(403));
+        JsonApiClient alice = j.createJsonApiClient("alice");
+        assertThat(alice.getJSON("me/api/json").getString("id"), is("alice"));
+        assertThat(alice.post("echo/create", new JSONObject()).getStatusCode(), is(200));
+    }
+
+    @Test
+    public void passwordNeedsCrumb() throws Exception {
+        j.jenkins.setSecurityRealm(j.createDummySecurityRealm());
+        j.jenkins.setAuthorizationStrategy(
+                new MockAuthorizationStrategy().grant(Jenkins.ADMINISTER).everywhere().to("alice"));
+        JsonApiClient alice = j.createJsonApiClient().withBasicCredentials("alice", "alice");
+        assertThat(alice.post("echo/create", new JSONObject()).getStatusCode(), is(200));
+    }
+
+    @Test
+    public void copiesKeepSeparateSessions() throws Exception {
+        JsonApiClient client = j.createJsonApiClient();
+        String session = client.getJSON("echo/session").getString("id");
+        assertThat(client.getJSON("echo/session").getString("id"), is(session));
+        JsonApiClient copy = client.copy();
+        String copySession = copy.getJSON("echo/session").getString("id");
+        assertThat(copySession, not(session));
+        assertThat(copy.getJSON("echo/session").getString("id"), is(copySession));
+        assertThat(client.getJSON("echo/session").getString("id"), is(session));
+    }
+
+    @Test
+    public void batchAndStream() throws Exception {
+        for (int i = 0; i < 50; i++) {
+            j.createFreeStyleProject("p" + i);
+        }
+        JsonApiClient client = j.createJsonApiClient();
+        List<JsonApiClient.Response> responses = client.getAll(List.of("job/p0/api/json", "job/p1/api/json"));
+        assertThat(responses.get(1).getJSONObject().getString("name"), is("p1"));
+        AtomicInteger jobs = new AtomicInteger();
+        List<String> names = Collections.synchronizedList(new ArrayList<>());
+        client.walk("api/json?tree=jobs[name]", (path, value) -> {
+            if (path.matches("jobs\\[\\d+\\]\\.name")) {
+                jobs.incrementAndGet();
+                if (value.equals("p7")) {
+                    names.add(path);
+                }
+            }
+        });
+        assertThat(jobs.get(), is(50));
+        assertThat(names, hasSize(1));
+        try (JsonStreamReader reader = client.openJSON("job/p3/api/json?tree=name,builds[number]")) {
+            List<Object> values = new ArrayList<>();
+            reader.forEachValue((path, value) -> {
+                if (!path.equals("_class")) {
+                    values.add(value);
+                }
+            });
+            assertThat(values, contains("p3"));
+        }
+        assertThrows(AssertionError.class, () -> client.openJSON("job/nonexistent/api/json"));
+    }
+
+    @TestExtension
+    public static class Echo implements RootAction {
+
+        @CheckForNull
+        @Override
+        public String getIconFileName() {
+            return null;
+        }
+
+        @CheckForNull
+        @Override
+        public String getDisplayName() {
+            return null;
+        }
+
+        @Override
+        public String getUrlName() {
+            return "echo";
+        }
+
+        @POST
+        @WebMethod(name = "create")
+        public HttpResponse create(@JsonBody JenkinsRuleTest.MyJsonObject body) {
+            body.setMessage(body.getMessage() + " - CREATED");
+            return new JsonHttpResponse(JSONObject.fromObject(body), 200);
+        }
+
+        @WebMethod(name = "session")
+        public HttpResponse session(StaplerRequest2 req) {
+            return new JsonHttpResponse(new JSONObject().element("id", req.getSession().getId()), 200);
+        }
+    }
+}
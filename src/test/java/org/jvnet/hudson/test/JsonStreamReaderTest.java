@@ -0,0 +1,70 @@
+package org.jvnet.hudson.test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThrows;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+public class JsonStreamReaderTest {
+
+    private static List<String> values(String json) throws IOException {
+        List<String> values = new ArrayList<>();
+        try (JsonStreamReader r = new JsonStreamReader(new StringReader(json))) {
+            r.forEachValue((path, value) -> values.add(path + "=" + value));
+        }
+        return values;
+    }
+
+    @Test
+    public void paths() throws Exception {
+        assertThat(
+                values("{\"a\":[{\"b\":1,\"c\":\"x\\u00e9\\n\"},{},[true,[null]]],\"d\":-1.5e3}"),
+                contains("a[0].b=1", "a[0].c=xé\n", "a[2][0]=true", "a[2][1][0]=null", "d=-1500.0"));
+        assertThat(values("42"), contains("=42"));
+    }
+
+    @Test
+    public void types() throws Exception {
+        try (JsonStreamReader r = new JsonStreamReader(new StringReader("[1,123456789012345678901234,0.5]"))) {
+            assertThat(r.next(), is(JsonStreamReader.Token.START_ARRAY));
+            assertThat(r.next(), is(JsonStreamReader.Token.VALUE));
+            assertThat(r.getValue(), is(1L));
+            r.next();
+            assertThat(r.getValue(), is(new BigInteger("123456789012345678901234")));
+            r.next();
+            assertThat(r.getValue(), is(0.5));
+            assertThat(r.next(), is(JsonStreamReader.Token.END_ARRAY));
+            assertThat(r.next(), is(JsonStreamReader.Token.END_DOCUMENT));
+        }
+    }
+
+    @Test
+    public void skipValue() throws Exception {
+        try (JsonStreamReader r = new JsonStreamReader(new StringReader("{\"big\":{\"x\":[1,2,{}]},\"small\":3}"))) {
+            assertThat(r.next(), is(JsonStreamReader.Token.START_OBJECT));
+            assertThat(r.next(), is(JsonStreamReader.Token.NAME));
+            assertThat(r.getName(), is("big"));
+            r.skipValue();
+            assertThat(r.next(), is(JsonStreamReader.Token.NAME));
+            assertThat(r.getName(), is("small"));
+            assertThat(r.next(), is(JsonStreamReader.Token.VALUE));
+            assertThat(r.getPath(), is("small"));
+        }
+    }
+
+    @Test
+    public void syntaxErrors() {
+        for (String bad : new String[] {"[1,]", "{\"a\":1,}", "{\"a\" 1}", "[1 2]", "{} x", "[tru]", "\"open"}) {
+            IOException x = assertThrows(bad, IOException.class, () -> values(bad));
+            assertThat(x.getMessage(), containsString("offset"));
+        }
+    }
+}
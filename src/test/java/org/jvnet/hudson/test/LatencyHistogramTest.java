@@ -0,0 +1,62 @@
+package org.jvnet.hudson.test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+import java.time.Duration;
+import java.util.stream.IntStream;
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void percentiles() {
+        LatencyHistogram h = new LatencyHistogram();
+        assertThat(h.getPercentile(50), is(Duration.ZERO));
+        IntStream.rangeClosed(1, 1000).parallel().forEach(i -> h.record(Duration.ofMillis(i)));
+        assertThat(h.getCount(), is(1000L));
+        assertThat(h.getMin(), is(Duration.ofMillis(1)));
+        assertThat(h.getMax(), is(Duration.ofMillis(1000)));
+        assertThat(h.getMean().toMillis(), is(500L));
+        assertApproximately(h.getPercentile(50), 500);
+        assertApproximately(h.getPercentile(99), 990);
+        assertThat(h.getPercentile(100), is(Duration.ofMillis(1000)));
+        h.reset();
+        assertThat(h.getCount(), is(0L));
+    }
+
+    @Test
+    public void add() {
+        LatencyHistogram a = new LatencyHistogram();
+        LatencyHistogram b = new LatencyHistogram();
+        IntStream.rangeClosed(1, 500).forEach(i -> a.record(Duration.ofMillis(i)));
+        IntStream.rangeClosed(501, 1000).forEach(i -> b.record(Duration.ofMillis(i)));
+        a.add(b);
+        a.add(new LatencyHistogram());
+        assertThat(a.getCount(), is(1000L));
+        assertThat(a.getMin(), is(Duration.ofMillis(1)));
+        assertThat(a.getMax(), is(Duration.ofMillis(1000)));
+        assertApproximately(a.getPercentile(50), 500);
+        assertThat(b.getCount(), is(500L));
+    }
+
+    @Test
+    public void buckets() {
+        for (long v : new long[] {0, 1, 15, 16, 17, 31, 32, 1000, 123_456_789, Long.MAX_VALUE}) {
+            int i = LatencyHistogram.index(v);
+            assertThat(LatencyHistogram.upperBound(i), greaterThanOrEqualTo(v));
+            if (i > 0) {
+                assertThat(LatencyHistogram.upperBound(i - 1), lessThanOrEqualTo(v - 1));
+            }
+        }
+    }
+
+    private static void assertApproximately(Duration actual, long expectedMillis) {
+        assertThat(
+                actual.toMillis(),
+                allOf(greaterThanOrEqualTo(expectedMillis * 94 / 100), lessThanOrEqualTo(expectedMillis * 107 / 100)));
+    }
+}
@@ -0,0 +1,52 @@
+package org.jvnet.hudson.test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
+
+import org.htmlunit.SilentCssErrorHandler;
+import org.htmlunit.html.HtmlPage;
+import org.junit.Rule;
+import org.junit.Test;
+
+@LiteWebClient
+public class LiteWebClientTest {
+
+    @Rule
+    public JenkinsRule j = new JenkinsRule();
+
+    @Test
+    public void annotatedClass() throws Exception {
+        j.createFreeStyleProject("p");
+        try (JenkinsRule.WebClient wc = j.createWebClient()) {
+            assertThat(wc.isLiteMode(), is(true));
+            assertThat(wc.isJavaScriptEnabled(), is(false));
+            assertThat(wc.getOptions().isCssEnabled(), is(false));
+            HtmlPage page = wc.goTo("job/p/");
+            j.assertXPath(page, "//script");
+            assertThat(page.getTitleText(), notNullValue());
+            // scripts referenced by the page were not fetched
+            assertThat(
+                    j.requests().getRequests().stream()
+                            .anyMatch(r -> r.uri().endsWith(".js")),
+                    is(false));
+        }
+    }
+
+    @Test
+    public void optOut() throws Exception {
+        try (JenkinsRule.WebClient wc = j.createWebClient().withoutLiteMode()) {
+            assertThat(wc.isLiteMode(), is(false));
+            assertThat(wc.isJavaScriptEnabled(), is(true));
+            assertThat(wc.getOptions().isCssEnabled(), is(true));
+            assertThat(wc.getCssErrorHandler(), not(instanceOf(SilentCssErrorHandler.class)));
+            wc.goTo("");
+            assertThat(
+                    j.requests().getRequests().stream()
+                            .anyMatch(r -> r.uri().endsWith(".js")),
+                    is(true));
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package org.jvnet.hudson.test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThrows;
+
+import java.time.Duration;
+import jenkins.model.Jenkins;
+import net.sf.json.JSONObject;
+import org.junit.Rule;
+import org.junit.Test;
+
+public class LoadGeneratorTest {
+
+    @Rule
+    public JenkinsRule j = new JenkinsRule();
+
+    @Test
+    public void iterations() throws Exception {
+        LoadGenerator.Result result = j.load()
+                .users(10)
+                .iterations(5)
+                .rampUp(Duration.ofMillis(100))
+                .get("api/json")
+                .get("api/json?tree=jobs[name]")
+                .run();
+        assertThat(result.getRequests(), is(100L));
+        assertThat(result.getLatency("api/json").getCount(), is(50L));
+        assertThat(result.getLatency().getCount(), is(100L));
+        assertThat(result.getErrors(), is(0L));
+        assertThat(result.getThroughput(), greaterThan(0.0));
+        result.assertErrorRate(0).assertPercentile(50, Duration.ofMinutes(1));
+        JSONObject json = result.toJSON();
+        assertThat(json.getInt("requests"), is(100));
+        assertThat(json.getJSONObject("steps").getJSONObject("api/json").getInt("count"), is(50));
+    }
+
+    @Test
+    public void authenticationAndErrors() throws Exception {
+        j.jenkins.setSecurityRealm(j.createDummySecurityRealm());
+        j.jenkins.setAuthorizationStrategy(
+                new MockAuthorizationStrategy().grant(Jenkins.READ).everywhere().to("alice"));
+        LoadGenerator.Result result = j.load()
+                .users(4)
+                .iterations(3)
+                .thinkTime(Duration.ZERO, Duration.ofMillis(10))
+                .withBasicApiToken("alice", "bob")
+                .get("api/json")
+                .run();
+        // bob lacks Overall/Read
+        assertThat(result.getErrors(), is(6L));
+        assertThat(result.getErrorRate(), is(0.5));
+        AssertionError x = assertThrows(AssertionError.class, () -> result.assertErrorRate(0.1));
+        assertThat(x.getMessage(), containsString("403"));
+    }
+
+    @Test
+    public void duration() throws Exception {
+        LoadGenerator.Result result = j.load()
+                .users(2)
+                .duration(Duration.ofSeconds(1))
+                .thinkTime(Duration.ofMillis(50))
+                .scenario("noop", c -> {})
+                .run();
+        assertThat(result.getRequests(), greaterThan(4L));
+        assertThat(result.getElapsed().compareTo(Duration.ofSeconds(1)), greaterThan(-1));
+    }
+}
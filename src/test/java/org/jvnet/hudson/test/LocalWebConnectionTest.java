@@ -0,0 +1,56 @@
+package org.jvnet.hudson.test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+
+import hudson.model.FreeStyleProject;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import jenkins.model.Jenkins;
+import org.htmlunit.WebResponseData;
+import org.htmlunit.html.HtmlPage;
+import org.junit.Rule;
+import org.junit.Test;
+
+public class LocalWebConnectionTest {
+
+    @Rule
+    public JenkinsRule r = new JenkinsRule();
+
+    @Test
+    public void pagesAndForms() throws Exception {
+        r.jenkins.setSecurityRealm(r.createDummySecurityRealm());
+        r.jenkins.setAuthorizationStrategy(new MockAuthorizationStrategy()
+                .grant(Jenkins.READ)
+                .everywhere()
+                .to("alice"));
+        try (JenkinsRule.WebClient wc = r.createWebClient().withLocalConnector()) {
+            // session cookie set on login must be sent back on subsequent requests
+            wc.login("alice");
+            HtmlPage page = wc.goTo("whoAmI/");
+            assertThat(page.getWebResponse().getContentAsString(), containsString("alice"));
+        }
+    }
+
+    @Test
+    public void configRoundtrip() throws Exception {
+        FreeStyleProject p = r.createFreeStyleProject();
+        p.setDescription("hello");
+        try (JenkinsRule.WebClient wc = r.createWebClient().withLocalConnector()) {
+            r.submit(wc.getPage(p, "configure").getFormByName("config"));
+        }
+        assertThat(p.getDescription(), is("hello"));
+    }
+
+    @Test
+    public void decodeChunked() throws Exception {
+        String raw = "HTTP/1.1 200 OK\r\nTransfer-Encoding: chunked\r\nX-Test: a:b\r\n\r\n"
+                + "5\r\nhello\r\n7;ext=1\r\n, world\r\n0\r\n\r\n";
+        WebResponseData data =
+                LocalWebConnection.decode(ByteBuffer.wrap(raw.getBytes(StandardCharsets.ISO_8859_1)), false);
+        assertThat(data.getStatusCode(), is(200));
+        assertThat(data.getStatusMessage(), is("OK"));
+        assertThat(new String(data.getInputStream().readAllBytes(), StandardCharsets.UTF_8), is("hello, world"));
+    }
+}
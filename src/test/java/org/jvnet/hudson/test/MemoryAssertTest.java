@@ -38,9 +38,13 @@ import java.lang.ref.SoftReference;
 import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import org.junit.Test;
+import org.netbeans.insane.scanner.CountingVisitor;
+import org.netbeans.insane.scanner.Filter;
+import org.netbeans.insane.scanner.ScannerUtils;
 
 public class MemoryAssertTest {
 
@@ -60,6 +64,73 @@ public class MemoryAssertTest {
         assertThat(e.getMessage(), containsString("3000"));
     }
 
+    @Test
+    public void walkerMatchesInsane() throws Exception {
+        int[] shared = new int[3];
+        Object[] cycle = new Object[2];
+        cycle[0] = cycle;
+        Object[] root = new Object[1000];
+        for (int i = 0; i < root.length; i++) {
+            root[i] = i % 10 == 0 ? shared : i % 10 == 1 ? cycle : new long[i % 7];
+        }
+        // keep the graph to arrays, whose classes have no static fields or class loaders
+        Filter filter = (obj, referredFrom, reference) -> obj.getClass().isArray();
+        CountingVisitor expected = new CountingVisitor();
+        ScannerUtils.scan(filter, expected, Set.of(root), false);
+        ObjectGraphWalker.Histogram actual = new ObjectGraphWalker(filter, false, Set.of(), 4).walk(root);
+        assertEquals(expected.getClasses(), actual.getClasses());
+        for (Class<?> c : expected.getClasses()) {
+            assertEquals(c.getName(), expected.getCountForClass(c), actual.getCountForClass(c));
+            assertEquals(c.getName(), expected.getSizeForClass(c), actual.getSizeForClass(c));
+        }
+        assertEquals(1, actual.getCountForClass(int[].class));
+        assertEquals(900, actual.getCountForClass(long[].class));
+    }
+
+    @Test
+    public void walkerMatchesInsaneWithoutStatics() throws Exception {
+        Node root = null;
+        for (int i = 0; i < 100; i++) {
+            root = new Node(root);
+        }
+        Filter filter = ScannerUtils.skipNonStrongReferencesFilter();
+        CountingVisitor expected = new CountingVisitor();
+        ScannerUtils.scan(filter, expected, Set.of(root), false);
+        ObjectGraphWalker.Histogram actual = new ObjectGraphWalker(filter, false, Set.of(), 4).walk(root);
+        assertEquals(expected.getClasses(), actual.getClasses());
+        for (Class<?> c : expected.getClasses()) {
+            assertEquals(c.getName(), expected.getCountForClass(c), actual.getCountForClass(c));
+            assertEquals(c.getName(), expected.getSizeForClass(c), actual.getSizeForClass(c));
+        }
+        assertEquals(100, actual.getCountForClass(Node.class));
+        assertEquals(100, actual.getCountForClass(long[].class));
+        assertEquals(0, actual.getCountForClass(StaticData.class));
+    }
+
+    @Test
+    public void walkerAnalyzingStatics() {
+        // stay out of the class loader, which would reach every class on the test classpath
+        Filter filter = (obj, referredFrom, reference) -> !(obj instanceof ClassLoader);
+        ObjectGraphWalker.Histogram actual =
+                new ObjectGraphWalker(filter, true, Set.of(), 1).walk(new Node(null));
+        assertEquals(1, actual.getCountForClass(StaticData.class));
+    }
+
+    private static final class Node {
+        static final StaticData STATIC_DATA = new StaticData();
+
+        final Node next;
+        final long[] data = new long[4];
+
+        Node(Node next) {
+            this.next = next;
+        }
+    }
+
+    private static final class StaticData {
+        final int[] values = new int[16];
+    }
+
     @Test
     public void gc() {
         Runtime.Version runtimeVersion = Runtime.version();
@@ -106,4 +106,36 @@ public class MockAuthorizationStrategyTest {
         assertFalse(
                 r.jenkins.getACL().hasPermission2(User.getById("alice", true).impersonate2(), Jenkins.ADMINISTER));
     }
+
+    @Test
+    public void decisionCacheInvalidatedByNewGrants() throws Exception {
+        MockFolder d = r.createFolder("d");
+        FreeStyleProject p = d.createProject(FreeStyleProject.class, "p");
+        FreeStyleProject dp = r.createFreeStyleProject("dp");
+        r.jenkins.setSecurityRealm(r.createDummySecurityRealm());
+        MockAuthorizationStrategy strategy = new MockAuthorizationStrategy()
+                .cacheDecisions()
+                .grant(Jenkins.READ)
+                .everywhere()
+                .to("dev")
+                .grant(Item.READ)
+                .onFolders(d)
+                .to("dev")
+                .grant(Item.BUILD)
+                .onPaths("d/.")
+                .to("dev");
+        r.jenkins.setAuthorizationStrategy(strategy);
+        try (ACLContext ctx = ACL.as(User.get("dev"))) {
+            assertTrue(d.hasPermission(Item.READ));
+            assertTrue(p.hasPermission(Item.READ));
+            // a sibling whose name starts with the folder name is not inside it
+            assertFalse(dp.hasPermission(Item.READ));
+            assertTrue(p.hasPermission(Item.BUILD));
+            assertFalse(p.hasPermission(Item.CONFIGURE));
+            assertFalse(p.hasPermission(Item.CONFIGURE));
+            strategy.grant(Item.CONFIGURE).onItems(p).to("dev");
+            assertTrue(p.hasPermission(Item.CONFIGURE));
+            assertFalse(d.hasPermission(Item.CONFIGURE));
+        }
+    }
 }
@@ -0,0 +1,46 @@
+package org.jvnet.hudson.test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import org.junit.Test;
+
+public class PortAllocatorTest {
+
+    @Test
+    public void reserveAndRelease() throws Exception {
+        int a = PortAllocator.reserve();
+        int b = PortAllocator.reserve();
+        try {
+            assertThat(a, not(is(b)));
+            assertThat(PortAllocator.isReserved(a), is(true));
+            assertThat(PortAllocator.isReserved(b), is(true));
+            // the port is free for the caller to bind
+            try (ServerSocket ss = new ServerSocket()) {
+                ss.setReuseAddress(true);
+                ss.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), a));
+            }
+        } finally {
+            PortAllocator.release(a);
+        }
+        assertThat(PortAllocator.isReserved(a), is(false));
+        assertThat(PortAllocator.isReserved(b), is(true));
+        PortAllocator.release(b);
+        assertThat(PortAllocator.isReserved(b), is(false));
+    }
+
+    @Test
+    public void releaseIgnoresForeignPorts() throws Exception {
+        int a = PortAllocator.reserve();
+        try {
+            PortAllocator.release(a + 1);
+            assertThat(PortAllocator.isReserved(a), is(true));
+        } finally {
+            PortAllocator.release(a);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package org.jvnet.hudson.test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+import hudson.model.UnprotectedRootAction;
+import java.time.Duration;
+import org.htmlunit.html.DomNodeUtil;
+import org.htmlunit.html.HtmlElement;
+import org.htmlunit.html.HtmlPage;
+import org.junit.Rule;
+import org.junit.Test;
+import org.kohsuke.stapler.HttpResponse;
+
+public class QueryUtilsTest {
+
+    @Rule
+    public JenkinsRule j = new JenkinsRule();
+
+    @Test
+    public void wakesUpOnMutation() throws Exception {
+        try (JenkinsRule.WebClient wc = j.createWebClient()) {
+            HtmlPage page = wc.goTo("delayed/");
+            QueryUtils.waitUntilStringIsPresent(page, "Ready now");
+            assertThat(QueryUtils.waitUntilElementIsPresent(page, "#ready"), notNullValue());
+            QueryUtils.waitUntilStringIsNotPresent(page, "Loading");
+            assertThat(QueryUtils.waitUntil(page, p -> false, Duration.ofMillis(100)), is(false));
+        }
+    }
+
+    @Test
+    public void compiledXPath() throws Exception {
+        try (JenkinsRule.WebClient wc = j.createWebClient()) {
+            HtmlPage page = wc.goTo("delayed/");
+            HtmlElement loading = DomNodeUtil.getFirstByXPath(page, "//DIV[@id='loading']");
+            assertThat(loading, notNullValue());
+            assertThat(DomNodeUtil.getFirstByXPath(page, "//DIV[@id='loading']"), sameInstance(loading));
+            assertThat(DomNodeUtil.getByXPath(page, "//div"), hasSize(1));
+            j.assertXPathValue(page, "//div[@id='loading']", "Loading");
+        }
+    }
+
+    @TestExtension
+    public static class Delayed implements UnprotectedRootAction {
+        @Override
+        public String getIconFileName() {
+            return null;
+        }
+
+        @Override
+        public String getDisplayName() {
+            return null;
+        }
+
+        @Override
+        public String getUrlName() {
+            return "delayed";
+        }
+
+        public HttpResponse doIndex() {
+            return (req, rsp, node) -> {
+                rsp.setContentType("text/html;charset=UTF-8");
+                // later than the 2s of background JavaScript which goTo waits for
+                rsp.getWriter()
+                        .print("<html><body><div id='loading'>Loading</div><script>\n"
+                                + "setTimeout(function() {\n"
+                                + "  var d = document.getElementById('loading');\n"
+                                + "  d.id = 'ready';\n"
+                                + "  d.textContent = 'Ready now';\n"
+                                + "}, 2500);\n"
+                                + "</script></body></html>");
+            };
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package org.jvnet.hudson.test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.not;
+import static org.jvnet.hudson.test.JenkinsMatchers.maxRequestsPerPageLoad;
+import static org.jvnet.hudson.test.JenkinsMatchers.noRequestSlowerThan;
+
+import java.time.Duration;
+import java.util.List;
+import org.junit.Rule;
+import org.junit.Test;
+
+public class RequestStatisticsTest {
+
+    @Rule
+    public JenkinsRule j = new JenkinsRule();
+
+    @Test
+    public void patterns() {
+        assertThat(
+                RequestStatistics.patternOf(
+                        "GET",
+                        "/jenkins/job/p/configure",
+                        List.of(
+                                "-> evaluate(<hudson.model.Hudson@1> :hudson.model.Hudson,\"/job/p/configure\")",
+                                "-> evaluate(<hudson.model.Hudson@1>.getJob(\"p\") :hudson.model.FreeStyleProject,"
+                                        + "\"/configure\")",
+                                "-> evaluate(<hudson.model.FreeStyleProject@2> :hudson.model.FreeStyleProject,"
+                                        + "\"/configure\")",
+                                "-> configure.jelly on <hudson.model.FreeStyleProject@2>")),
+                is("GET hudson.model.Hudson/hudson.model.FreeStyleProject/configure.jelly"));
+        assertThat(
+                RequestStatistics.patternOf("POST", "/jenkins/job/p/42/doDelete", List.of()),
+                is("POST /jenkins/job/p/{n}/doDelete"));
+    }
+
+    @Test
+    public void recordsPageLoads() throws Exception {
+        j.createFreeStyleProject("p");
+        try (JenkinsRule.WebClient wc = j.createWebClient()) {
+            wc.goTo("job/p/");
+        }
+        RequestStatistics requests = j.requests();
+        assertThat(requests.getCount(), greaterThan(1L));
+        List<RequestStatistics.PageLoad> loads = requests.getPageLoads();
+        assertThat(loads, hasSize(1));
+        assertThat(loads.get(0).page().uri(), is(j.contextPath + "/job/p/"));
+        assertThat(loads.get(0).requests().size(), greaterThan(1));
+        RequestStatistics.Request page = requests.getRequests().stream()
+                .filter(r -> r.uri().equals(j.contextPath + "/job/p/"))
+                .findFirst()
+                .orElseThrow();
+        assertThat(page.status(), is(200));
+        assertThat(page.bytes(), greaterThan(0L));
+        assertThat(page.dispatch(), not(empty()));
+        assertThat(requests.getPatterns(), hasKey(page.pattern()));
+        assertThat(requests, noRequestSlowerThan(Duration.ofMinutes(1)));
+        assertThat(requests, not(maxRequestsPerPageLoad(1)));
+        assertThat(requests.toString(), containsString(page.pattern()));
+        requests.clear();
+        assertThat(requests.getRequests(), empty());
+    }
+
+    @Test
+    public void splitsRepeatedPageLoads() throws Exception {
+        j.createFreeStyleProject("p");
+        try (JenkinsRule.WebClient wc = j.createWebClient()) {
+            wc.goTo("job/p/");
+            wc.goTo("");
+            wc.goTo("job/p/");
+        }
+        List<RequestStatistics.PageLoad> loads = j.requests().getPageLoads();
+        assertThat(
+                loads.stream().map(l -> l.page().uri()).toList(),
+                contains(j.contextPath + "/job/p/", j.contextPath + "/", j.contextPath + "/job/p/"));
+        // resources cached by the first load are not requested again
+        assertThat(loads.get(2).requests().size(), lessThanOrEqualTo(loads.get(0).requests().size()));
+    }
+}
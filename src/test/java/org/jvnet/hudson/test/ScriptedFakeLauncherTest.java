@@ -0,0 +1,95 @@
+package org.jvnet.hudson.test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThrows;
+
+import hudson.Proc;
+import hudson.model.FreeStyleBuild;
+import hudson.model.FreeStyleProject;
+import hudson.model.Result;
+import hudson.model.TaskListener;
+import hudson.tasks.Shell;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import org.junit.Rule;
+import org.junit.Test;
+
+public class ScriptedFakeLauncherTest {
+
+    @Rule
+    public JenkinsRule j = new JenkinsRule();
+
+    @Test
+    public void streams() throws Exception {
+        ScriptedFakeLauncher faker = new ScriptedFakeLauncher()
+                .when(p -> p.cmds().contains("fake"))
+                .stdout("out\n")
+                .stderr("err\n")
+                .stdout(100_000, 0)
+                .exit(3);
+        PretendSlave agent = j.createPretendSlave(faker);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+        int exit = agent.createLauncher(TaskListener.NULL)
+                .launch()
+                .cmds("fake")
+                .stdout(out)
+                .stderr(err)
+                .join();
+        assertThat(exit, is(3));
+        assertThat(out.size(), is(100_004));
+        assertThat(out.toString(StandardCharsets.UTF_8).startsWith("out\nThe quick brown fox"), is(true));
+        assertThat(err.toString(StandardCharsets.UTF_8), is("err\n"));
+        assertThat(faker.getLaunches(), is(1));
+        assertThat(agent.numLaunch, is(1));
+    }
+
+    @Test
+    public void reverseStreamsAndStdin() throws Exception {
+        ScriptedFakeLauncher faker =
+                new ScriptedFakeLauncher().expectStdin("yes\n").stdout("thanks\n").exit(0);
+        PretendSlave agent = j.createPretendSlave(faker);
+        Proc proc = agent.createLauncher(TaskListener.NULL)
+                .launch()
+                .cmds("fake")
+                .writeStdin()
+                .readStdout()
+                .start();
+        try (OutputStream stdin = proc.getStdin()) {
+            stdin.write("yes\n".getBytes(StandardCharsets.UTF_8));
+        }
+        assertThat(new String(proc.getStdout().readAllBytes(), StandardCharsets.UTF_8), is("thanks\n"));
+        assertThat(proc.join(), is(0));
+        Proc wrong = agent.createLauncher(TaskListener.NULL)
+                .launch()
+                .cmds("fake")
+                .stdin(new ByteArrayInputStream("no\n".getBytes(StandardCharsets.UTF_8)))
+                .start();
+        assertThrows(AssertionError.class, wrong::join);
+    }
+
+    @Test
+    public void kill() throws Exception {
+        PretendSlave agent = j.createPretendSlave(new ScriptedFakeLauncher().delay(Duration.ofHours(1)));
+        Proc proc = agent.createLauncher(TaskListener.NULL).launch().cmds("fake").start();
+        assertThat(proc.isAlive(), is(true));
+        proc.kill();
+        assertThat(proc.isAlive(), is(false));
+        assertThat(proc.join(), is(143));
+    }
+
+    @Test
+    public void build() throws Exception {
+        PretendSlave agent = j.createPretendSlave(
+                new ScriptedFakeLauncher().stdout("simulated output\n").exit(1));
+        FreeStyleProject p = j.createFreeStyleProject();
+        p.setAssignedNode(agent);
+        p.getBuildersList().add(new Shell("make"));
+        FreeStyleBuild b = j.assertBuildStatus(Result.FAILURE, p.scheduleBuild2(0));
+        j.assertLogContains("simulated output", b);
+    }
+}
@@ -0,0 +1,123 @@
+package org.jvnet.hudson.test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.aMapWithSize;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import hudson.model.RootAction;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import jenkins.model.Jenkins;
+import org.junit.Rule;
+import org.junit.Test;
+import org.kohsuke.stapler.HttpResponse;
+import org.kohsuke.stapler.HttpResponses;
+import org.kohsuke.stapler.StaplerRequest2;
+import org.kohsuke.stapler.WebMethod;
+
+public class SessionSimulatorTest {
+
+    @Rule
+    public JenkinsRule j = new JenkinsRule();
+
+    @Test
+    public void mixedSessions() throws Exception {
+        j.jenkins.setAuthorizationStrategy(
+                new MockAuthorizationStrategy().grant(Jenkins.READ).everywhere().to("group0"));
+        SessionSimulator simulator = j.sessions()
+                .users(40)
+                .groups(2)
+                .sessions(8)
+                .tokenRatio(0.5)
+                .loginRatio(0.25)
+                .iterations(3);
+        assertThat(simulator.setUp(), aMapWithSize(40));
+        SessionSimulator.Result result = simulator.run();
+        assertThat(result.toString(), result.getRequestLatency(false).getCount(), is(6L));
+        assertThat(result.getRequestLatency(true).getCount(), is(12L));
+        assertThat(result.getLoggedInRequestLatency().getCount(), is(6L));
+        assertThat(result.getLoginLatency().getCount(), is(2L));
+        assertThat(result.getAuthenticationLatency(false).getCount(), is(6L));
+        assertThat(result.getAuthenticationLatency(true).getCount(), is(12L));
+        assertThat(result.getAuthorizationLatency().getCount(), is(18L));
+        result.assertErrorRate(0);
+    }
+
+    @Test
+    public void independentSessions() throws Exception {
+        SessionSimulator.Result result = j.sessions()
+                .users(4)
+                .sessions(8)
+                .tokenRatio(0.25)
+                .loginRatio(0.5)
+                .iterations(3)
+                .get("sessionIds/record")
+                .run();
+        result.assertErrorRate(0);
+        // one session per logged-in user; none kept by the others
+        assertThat(SessionIds.ids, hasSize(4 + 4 * 3));
+    }
+
+    @Test
+    public void threadSafeRealm() throws Exception {
+        JenkinsRule.DummySecurityRealm realm = j.createDummySecurityRealm();
+        j.jenkins.setSecurityRealm(realm);
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            int n = t;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 500; i++) {
+                    realm.addGroups("user" + i, "group" + n);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+        assertThat(
+                realm.loadUserByUsername2("user7").getAuthorities().stream()
+                        .map(Object::toString)
+                        .filter(a -> a.startsWith("group"))
+                        .toList(),
+                contains("group0", "group1", "group2", "group3", "group4", "group5", "group6", "group7"));
+        assertThat(
+                realm.loadUserByUsername2("user499").getAuthorities().stream()
+                        .map(Object::toString)
+                        .filter(a -> a.startsWith("group"))
+                        .toList(),
+                contains("group0", "group1", "group2", "group3", "group4", "group5", "group6", "group7"));
+        assertThat(realm.loadGroupByGroupname2("group3", false).getName(), is("group3"));
+    }
+
+    @TestExtension("independentSessions")
+    public static class SessionIds implements RootAction {
+        static final Set<String> ids = ConcurrentHashMap.newKeySet();
+
+        @CheckForNull
+        @Override
+        public String getIconFileName() {
+            return null;
+        }
+
+        @CheckForNull
+        @Override
+        public String getDisplayName() {
+            return null;
+        }
+
+        @Override
+        public String getUrlName() {
+            return "sessionIds";
+        }
+
+        @WebMethod(name = "record")
+        public HttpResponse record(StaplerRequest2 req) {
+            ids.add(req.getSession().getId());
+            return HttpResponses.ok();
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package org.jvnet.hudson.test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+public class SharedWebClientCacheTest {
+
+    @Rule
+    public JenkinsRule j = new JenkinsRule();
+
+    @Test
+    public void scriptsCompiledOnceAcrossClients() throws Exception {
+        try (JenkinsRule.WebClient wc = j.createWebClient()) {
+            wc.goTo("");
+        }
+        assertThat(SharedWebClientCache.getResourceCount(), greaterThan(0));
+        long hits = SharedWebClientCache.getScriptHits();
+        try (JenkinsRule.WebClient wc = j.createWebClient()) {
+            wc.goTo("");
+        }
+        assertThat(SharedWebClientCache.getScriptHits(), greaterThan(hits));
+    }
+
+    @Test
+    public void explicitClear() throws Exception {
+        try (JenkinsRule.WebClient wc = j.createWebClient()) {
+            wc.goTo("");
+            assertThat(SharedWebClientCache.getResourceCount(), greaterThan(0));
+            wc.getCache().clear();
+            assertThat(SharedWebClientCache.getResourceCount(), is(0));
+        }
+    }
+
+    @Test
+    public void notReusedFromPreviousServer() throws Exception {
+        try (JenkinsRule.WebClient wc = j.createWebClient()) {
+            wc.goTo("");
+        }
+        j.requests().clear();
+        try (JenkinsRule.WebClient wc = j.createWebClient()) {
+            wc.goTo("");
+        }
+        long cached = adjunctRequests();
+        // as if another Jenkins had started on the same port
+        SharedWebClientCache.serverStarted(j.getURL());
+        j.requests().clear();
+        try (JenkinsRule.WebClient wc = j.createWebClient()) {
+            wc.goTo("");
+        }
+        assertThat(adjunctRequests(), greaterThan(cached));
+    }
+
+    private long adjunctRequests() {
+        return j.requests().getRequests().stream()
+                .filter(r -> r.uri().contains("/adjuncts/"))
+                .count();
+    }
+}
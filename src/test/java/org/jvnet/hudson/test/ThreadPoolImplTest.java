@@ -0,0 +1,69 @@
+package org.jvnet.hudson.test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+public class ThreadPoolImplTest {
+
+    @Test
+    public void threadPoolExecutorStatistics() throws Exception {
+        ThreadPoolImpl pool = new ThreadPoolImpl(Executors.newFixedThreadPool(3));
+        pool.start();
+        try {
+            CountDownLatch release = new CountDownLatch(1);
+            CountDownLatch started = new CountDownLatch(2);
+            for (int i = 0; i < 2; i++) {
+                pool.execute(() -> {
+                    started.countDown();
+                    await(release);
+                });
+            }
+            started.await();
+            assertThat(pool.getThreads(), is(2));
+            assertThat(pool.getIdleThreads(), is(0));
+            assertThat(pool.isLowOnThreads(), is(false));
+            release.countDown();
+        } finally {
+            pool.stop();
+        }
+    }
+
+    @Test
+    public void otherExecutorStatistics() throws Exception {
+        ExecutorService es = Executors.unconfigurableExecutorService(Executors.newCachedThreadPool());
+        ThreadPoolImpl pool = new ThreadPoolImpl(es);
+        pool.start();
+        try {
+            CountDownLatch release = new CountDownLatch(1);
+            CountDownLatch started = new CountDownLatch(3);
+            for (int i = 0; i < 3; i++) {
+                pool.execute(() -> {
+                    started.countDown();
+                    await(release);
+                });
+            }
+            started.await();
+            assertThat(pool.getThreads(), is(3));
+            release.countDown();
+            es.shutdown();
+            es.awaitTermination(1, TimeUnit.MINUTES);
+            assertThat(pool.getThreads(), is(0));
+        } finally {
+            pool.stop();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException x) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
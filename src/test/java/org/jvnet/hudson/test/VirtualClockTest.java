@@ -0,0 +1,155 @@
+package org.jvnet.hudson.test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.junit.Assert.assertThrows;
+
+import hudson.ExtensionList;
+import hudson.model.AsyncPeriodicWork;
+import hudson.model.Computer;
+import hudson.model.Descriptor;
+import hudson.model.FreeStyleBuild;
+import hudson.model.FreeStyleProject;
+import hudson.model.Label;
+import hudson.model.PeriodicWork;
+import hudson.model.TaskListener;
+import hudson.model.queue.QueueTaskFuture;
+import hudson.slaves.Cloud;
+import hudson.slaves.NodeProvisioner;
+import hudson.slaves.SimulatedCloud;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.recipes.WithVirtualClock;
+
+public class VirtualClockTest {
+
+    @Rule
+    public JenkinsRule j = new JenkinsRule();
+
+    @WithVirtualClock
+    @Test
+    public void periodicWork() throws Exception {
+        VirtualClock clock = VirtualClock.get();
+        Counter counter = ExtensionList.lookupSingleton(Counter.class);
+        AsyncCounter asyncCounter = ExtensionList.lookupSingleton(AsyncCounter.class);
+        assertThat(PeriodicWork.all(), not(hasItem(counter)));
+        // nothing runs on the timer, however long the test takes
+        Thread.sleep(1000);
+        assertThat(counter.runs.get(), is(0));
+        assertThat(asyncCounter.runs.get(), is(0));
+        clock.advance(Duration.ofSeconds(29));
+        assertThat(counter.runs.get(), is(0));
+        clock.advance(Duration.ofSeconds(1));
+        assertThat(counter.runs.get(), is(1));
+        assertThat(asyncCounter.runs.get(), is(1));
+        clock.advance(Duration.ofMinutes(10));
+        assertThat(counter.runs.get(), is(11));
+        assertThat(asyncCounter.runs.get(), is(11));
+        assertThat(clock.elapsed(), is(Duration.ofSeconds(630)));
+    }
+
+    @Test
+    public void notInstalled() {
+        assertThrows(IllegalStateException.class, VirtualClock::get);
+    }
+
+    @WithVirtualClock
+    @Test
+    public void provisioning() throws Exception {
+        VirtualClock clock = VirtualClock.get();
+        PlanRecordingCloud cloud = new PlanRecordingCloud();
+        j.jenkins.clouds.add(cloud);
+        FreeStyleProject p = j.createFreeStyleProject();
+        p.setAssignedLabel(Label.get("sim"));
+        QueueTaskFuture<FreeStyleBuild> build = p.scheduleBuild2(0);
+        CompletableFuture<Computer> online = ComputerStateListener.whenOnline("sim-1");
+        // the provisioner waits for the load average to build up before planning a node
+        while (cloud.planned.isEmpty()) {
+            assertThat(clock.elapsed(), lessThan(Duration.ofMinutes(10)));
+            clock.advance(Duration.ofSeconds(10));
+        }
+        // the planned node completes on another thread; the next pass adds it, launching the agent
+        cloud.planned.get(0).future.get(1, TimeUnit.MINUTES);
+        clock.advance(Duration.ofSeconds(10));
+        assertThat(j.jenkins.getNode("sim-1"), notNullValue());
+        online.get(1, TimeUnit.MINUTES);
+        clock.advance(Duration.ofSeconds(5));
+        j.assertBuildStatusSuccess(build);
+    }
+
+    private static final class PlanRecordingCloud extends SimulatedCloud {
+        final List<NodeProvisioner.PlannedNode> planned = new CopyOnWriteArrayList<>();
+
+        PlanRecordingCloud() {
+            super("sim");
+            withLabels("sim");
+        }
+
+        @Override
+        public Collection<NodeProvisioner.PlannedNode> provision(Label label, int excessWorkload) {
+            Collection<NodeProvisioner.PlannedNode> r = super.provision(label, excessWorkload);
+            planned.addAll(r);
+            return r;
+        }
+
+        @Override
+        public Descriptor<Cloud> getDescriptor() {
+            return ExtensionList.lookupSingleton(SimulatedCloud.DescriptorImpl.class);
+        }
+    }
+
+    @TestExtension("periodicWork")
+    public static class Counter extends PeriodicWork {
+        final AtomicInteger runs = new AtomicInteger();
+
+        @Override
+        public long getRecurrencePeriod() {
+            return MIN;
+        }
+
+        @Override
+        public long getInitialDelay() {
+            return 30 * 1000;
+        }
+
+        @Override
+        protected void doRun() {
+            runs.incrementAndGet();
+        }
+    }
+
+    @TestExtension("periodicWork")
+    public static class AsyncCounter extends AsyncPeriodicWork {
+        final AtomicInteger runs = new AtomicInteger();
+
+        public AsyncCounter() {
+            super("async counter");
+        }
+
+        @Override
+        public long getRecurrencePeriod() {
+            return MIN;
+        }
+
+        @Override
+        public long getInitialDelay() {
+            return 30 * 1000;
+        }
+
+        @Override
+        protected void execute(TaskListener listener) {
+            runs.incrementAndGet();
+        }
+    }
+}
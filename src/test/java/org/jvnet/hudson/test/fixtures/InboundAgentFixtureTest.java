@@ -24,8 +24,14 @@
 
 package org.jvnet.hudson.test.fixtures;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import hudson.model.Slave;
+import java.util.List;
+import jenkins.security.MasterToSlaveCallable;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.jvnet.hudson.test.JenkinsRule;
@@ -45,6 +51,11 @@ class InboundAgentFixtureTest {
         r = rule;
     }
 
+    @AfterEach
+    void tearDown() {
+        fixture.tearDown();
+    }
+
     @Test
     void waitOnline() throws Exception {
         assertTrue(fixture.createAgent(
@@ -56,4 +67,47 @@ class InboundAgentFixtureTest {
                 .toComputer()
                 .isOnline());
     }
+
+    @Test
+    void sharedJvm() throws Exception {
+        List<Slave> agents = fixture.createAgents(r, 3, () -> Options.newBuilder().sharedJvm().build());
+        assertEquals(3, agents.size());
+        for (Slave agent : agents) {
+            assertTrue(agent.toComputer().isOnline());
+        }
+        String name = agents.get(0).getNodeName();
+        fixture.stop(r, name);
+        assertFalse(agents.get(0).toComputer().isOnline());
+        assertTrue(agents.get(1).toComputer().isOnline());
+        assertTrue(fixture.isAlive(agents.get(1).getNodeName()));
+        fixture.start(r, Options.newBuilder().name(name).sharedJvm().build());
+        assertTrue(agents.get(0).toComputer().isOnline());
+    }
+
+    @Test
+    void agentJarIsCached() throws Exception {
+        fixture.createAgent(r, Options.newBuilder().name("a").skipStart().build());
+        fixture.createAgent(r, Options.newBuilder().name("b").skipStart().build());
+        assertEquals(
+                InboundAgentFixture.getAgentArguments(r, "a").agentJar(),
+                InboundAgentFixture.getAgentArguments(r, "b").agentJar());
+    }
+
+    @Test
+    void reuseJvm() throws Exception {
+        Slave agent = fixture.createAgent(r, Options.newBuilder().name("first").reuseJvm().build());
+        assertTrue(agent.toComputer().isOnline());
+        long pid = agent.getChannel().call(new GetPid());
+        fixture.tearDown();
+        agent = fixture.createAgent(r, Options.newBuilder().name("second").reuseJvm().build());
+        assertTrue(agent.toComputer().isOnline());
+        assertEquals(pid, agent.getChannel().call(new GetPid()));
+    }
+
+    private static final class GetPid extends MasterToSlaveCallable<Long, RuntimeException> {
+        @Override
+        public Long call() {
+            return ProcessHandle.current().pid();
+        }
+    }
 }
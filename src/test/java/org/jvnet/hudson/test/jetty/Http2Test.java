@@ -0,0 +1,48 @@
+package org.jvnet.hudson.test.jetty;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.net.http.HttpClient;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.FlagRule;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.JsonApiClient;
+
+public class Http2Test {
+
+    @ClassRule
+    public static FlagRule<String> http2 = FlagRule.systemProperty("jth.jetty.http2", "true");
+
+    @Rule
+    public JenkinsRule j = new JenkinsRule();
+
+    @Test
+    public void cleartextUpgrade() throws Exception {
+        JsonApiClient client = j.createJsonApiClient().withHttp2();
+        JsonApiClient.Response first = client.get("api/json").assertSuccess();
+        assertThat(first.getVersion(), is(HttpClient.Version.HTTP_2));
+        assertThat(first.getJSONObject().getString("_class"), is("hudson.model.Hudson"));
+        // later requests are multiplexed on the upgraded connection
+        List<CompletableFuture<JsonApiClient.Response>> responses = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            responses.add(client.getAsync("api/json?tree=mode"));
+        }
+        for (CompletableFuture<JsonApiClient.Response> response : responses) {
+            assertThat(response.get().assertSuccess().getVersion(), is(HttpClient.Version.HTTP_2));
+        }
+    }
+
+    @Test
+    public void http1StillWorks() throws Exception {
+        JsonApiClient.Response response = j.createJsonApiClient().get("api/json");
+        assertThat(response.getVersion(), is(HttpClient.Version.HTTP_1_1));
+        assertThat(response.getStatusCode(), is(200));
+        assertThat(j.createWebClient().goTo("").getWebResponse().getStatusCode(), is(200));
+    }
+}
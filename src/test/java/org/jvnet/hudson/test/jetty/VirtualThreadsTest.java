@@ -0,0 +1,62 @@
+package org.jvnet.hudson.test.jetty;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.Assume.assumeTrue;
+
+import hudson.model.UnprotectedRootAction;
+import org.eclipse.jetty.util.VirtualThreads;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.FlagRule;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.TestExtension;
+import org.kohsuke.stapler.HttpResponse;
+import org.kohsuke.stapler.HttpResponses;
+
+public class VirtualThreadsTest {
+
+    @ClassRule
+    public static FlagRule<String> virtualThreads = FlagRule.systemProperty("jth.jetty.virtualThreads", "true");
+
+    @Rule
+    public JenkinsRule j = new JenkinsRule();
+
+    @BeforeClass
+    public static void supported() {
+        assumeTrue("virtual threads require Java 21 or newer", VirtualThreads.areSupported());
+    }
+
+    @Test
+    public void requestsRunOnVirtualThreads() throws Exception {
+        String thread = j.createWebClient()
+                .goTo("threadName/", "text/plain")
+                .getWebResponse()
+                .getContentAsString();
+        assertThat(thread, containsString("Jetty (JenkinsRule) virtual-"));
+    }
+
+    @TestExtension("requestsRunOnVirtualThreads")
+    public static class ThreadName implements UnprotectedRootAction {
+        @Override
+        public String getIconFileName() {
+            return null;
+        }
+
+        @Override
+        public String getDisplayName() {
+            return null;
+        }
+
+        @Override
+        public String getUrlName() {
+            return "threadName";
+        }
+
+        public HttpResponse doIndex() {
+            return HttpResponses.text(Thread.currentThread().getName());
+        }
+    }
+}
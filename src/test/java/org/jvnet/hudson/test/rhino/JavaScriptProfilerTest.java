@@ -0,0 +1,70 @@
+package org.jvnet.hudson.test.rhino;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+
+import hudson.model.UnprotectedRootAction;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.TestExtension;
+import org.kohsuke.stapler.HttpResponse;
+
+public class JavaScriptProfilerTest {
+
+    @Rule
+    public JenkinsRule j = new JenkinsRule();
+
+    @Test
+    public void callCountsAndStacks() throws Exception {
+        JavaScriptProfiler profiler = new JavaScriptProfiler();
+        try (JenkinsRule.WebClient wc = j.createWebClient().withJavaScriptProfiler(profiler)) {
+            wc.goTo("fib/");
+        }
+        JavaScriptProfiler.FunctionProfile fib = profiler.getFunction("fib ");
+        assertThat(profiler.toString(), fib, notNullValue());
+        // fib(10) makes 177 calls
+        assertThat(fib.calls(), is(177L));
+        assertThat(fib.total().compareTo(fib.self()), greaterThan(-1));
+        assertThat(profiler.getFunction("run ").calls(), is(1L));
+        String stacks = profiler.toCollapsedStacks();
+        assertThat(stacks, containsString("run (/jenkins/fib/:"));
+        assertThat(stacks, containsString(";fib (/jenkins/fib/:"));
+        profiler.reset();
+        assertThat(profiler.getFunction("fib "), nullValue());
+    }
+
+    @TestExtension
+    public static class Fib implements UnprotectedRootAction {
+        @Override
+        public String getIconFileName() {
+            return null;
+        }
+
+        @Override
+        public String getDisplayName() {
+            return null;
+        }
+
+        @Override
+        public String getUrlName() {
+            return "fib";
+        }
+
+        public HttpResponse doIndex() {
+            return (req, rsp, node) -> {
+                rsp.setContentType("text/html;charset=UTF-8");
+                rsp.getWriter()
+                        .print("<html><body><script>\n"
+                                + "function fib(n) { return n < 2 ? n : fib(n - 1) + fib(n - 2); }\n"
+                                + "function run() { document.title = fib(10); }\n"
+                                + "run();\n"
+                                + "</script></body></html>");
+            };
+        }
+    }
+}